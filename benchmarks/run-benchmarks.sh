@@ -0,0 +1,18 @@
+#!/bin/bash
+# Compila los servicios y ejecuta los benchmarks JMH (requiere JDK 21).
+# El resultado queda en benchmarks/results/<versión>.json para compararlo entre versiones.
+# Los argumentos extra van directos a JMH, p. ej.: ./benchmarks/run-benchmarks.sh InventoryService -t 16
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -q -f event-schemas/pom.xml install -DskipTests
+mvn -q -f service-commons/pom.xml install -DskipTests
+for service in order-service inventory-service notification-service; do
+  mvn -q -f "$service/pom.xml" install -DskipTests
+done
+mvn -q -f benchmarks/pom.xml package
+
+version=$(git describe --tags --always --dirty)
+mkdir -p benchmarks/results
+"${JAVA_HOME:+$JAVA_HOME/bin/}java" -jar benchmarks/target/benchmarks.jar -rf json -rff "benchmarks/results/$version.json" "$@"
+echo "Resultados en benchmarks/results/$version.json"
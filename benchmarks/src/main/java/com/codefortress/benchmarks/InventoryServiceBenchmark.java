@@ -0,0 +1,106 @@
+package com.codefortress.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codefortress.inventory_service.config.StockChangedProducer;
+import com.codefortress.inventory_service.services.InventoryService;
+
+/**
+ * getStock y decrementStock de InventoryService con 8 hilos sobre la misma instancia.
+ * Con {@code products=1} todos compiten por el mismo producto (el caso caliente); con 3 se
+ * reparten entre los productos cargados. Sin incidentes simulados y sin Kafka.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class InventoryServiceBenchmark {
+
+    private static final int FULL_STOCK = 1_000_000_000;
+    private static final int LOADED_PRODUCTS = 3;
+
+    @Param({ "1", "3" })
+    public int products;
+
+    private InventoryService inventory;
+
+    @Setup
+    public void setUp() {
+        inventory = new InventoryService(new NoOpStockChangedProducer(), false);
+    }
+
+    /** Rellena el stock para que los decrementos nunca lleguen a 0. */
+    @Setup(Level.Iteration)
+    public void refill() {
+        for (int productId = 1; productId <= LOADED_PRODUCTS; productId++) {
+            inventory.restoreStock(productId, FULL_STOCK - inventory.getStock(productId));
+        }
+    }
+
+    @Benchmark
+    public Integer getStock(Cursor cursor) {
+        return inventory.getStock(cursor.next(products));
+    }
+
+    @Benchmark
+    public void decrementStock(Cursor cursor) {
+        inventory.decrementStock(cursor.next(products), 1);
+    }
+
+    /** Tres lecturas por cada escritura, como el tráfico de consulta frente al de órdenes. */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Integer mixedGetStock(Cursor cursor) {
+        return inventory.getStock(cursor.next(products));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedDecrementStock(Cursor cursor) {
+        inventory.decrementStock(cursor.next(products), 1);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next(int products) {
+            int productId = 1 + next % products;
+            next++;
+            return productId;
+        }
+    }
+
+    /** Sin broker: el coste de publicar stock-changed queda fuera de la medida. */
+    static final class NoOpStockChangedProducer extends StockChangedProducer {
+
+        NoOpStockChangedProducer() {
+            super(null);
+        }
+
+        @Override
+        public void sendStockChanged(int productId, int stock, long version) {
+        }
+    }
+}
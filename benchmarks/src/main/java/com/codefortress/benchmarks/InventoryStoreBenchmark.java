@@ -0,0 +1,194 @@
+package com.codefortress.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codefortress.benchmarks.InventoryServiceBenchmark.Cursor;
+import com.codefortress.benchmarks.InventoryServiceBenchmark.NoOpStockChangedProducer;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.StockJournal;
+import com.codefortress.inventory_service.services.StockStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Coste del journal de inventario ({@code inventory.store.dir}).
+ * <ul>
+ * <li>{@code decrementStock}: throughput con 8 hilos con el stock solo en memoria y con journal
+ * en disco (write-behind, fsync cada 10 ms).</li>
+ * <li>{@code recover}: tiempo de arranque cargando una foto de {@code skus} productos más
+ * {@code journalRecords} cambios escritos después de ella.</li>
+ * </ul>
+ * Los ficheros van a un directorio temporal; el resultado depende del disco en el que caiga.
+ */
+@Fork(1)
+public class InventoryStoreBenchmark {
+
+    private static final int FULL_STOCK = 1_000_000_000;
+    private static final int LOADED_PRODUCTS = 3;
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(8)
+    public void decrementStock(Writes writes, Cursor cursor) {
+        writes.inventory.decrementStock(cursor.next(LOADED_PRODUCTS), 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public StockStore recover(Recovery recovery) {
+        StockStore store = new StockStore();
+        recovery.journal = journal(recovery.dir);
+        recovery.journal.open(store);
+        return store;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+
+        @Param({ "false", "true" })
+        public boolean journal;
+
+        private Path dir;
+        private StockJournal stockJournal;
+        private InventoryService inventory;
+
+        @Setup
+        public void setUp() throws IOException {
+            if (journal) {
+                dir = Files.createTempDirectory("inventory-store");
+                stockJournal = journal(dir);
+            } else {
+                stockJournal = StockJournal.inMemory();
+            }
+            inventory = new InventoryService(new NoOpStockChangedProducer(), false, stockJournal);
+        }
+
+        /** Rellena el stock para que los decrementos nunca lleguen a 0. */
+        @Setup(Level.Iteration)
+        public void refill() {
+            for (int productId = 1; productId <= LOADED_PRODUCTS; productId++) {
+                inventory.restoreStock(productId, FULL_STOCK - inventory.getStock(productId));
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            stockJournal.close();
+            deleteRecursively(dir);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+
+        @Param({ "1000000", "5000000" })
+        public int skus;
+
+        @Param({ "0", "1000000" })
+        public int journalRecords;
+
+        private Path template;
+        private Path dir;
+        private StockJournal journal;
+
+        /**
+         * Primera vida: alta de {@code skus} productos y cierre ordenado (foto). Segunda vida:
+         * {@code journalRecords} decrementos ya en disco, copiados antes de su foto final.
+         */
+        @Setup
+        public void setUp() throws IOException {
+            Path work = Files.createTempDirectory("inventory-store");
+            StockStore store = new StockStore();
+            StockJournal first = journal(work);
+            first.open(store);
+            for (int productId = 1; productId <= skus; productId++) {
+                store.put(productId, 1_000_000);
+            }
+            first.close();
+
+            StockStore restarted = new StockStore();
+            StockJournal second = journal(work);
+            second.open(restarted);
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < journalRecords; i++) {
+                restarted.tryDecrement(1 + random.nextInt(skus), 1);
+            }
+            second.flush();
+            template = Files.createTempDirectory("inventory-store-template");
+            copy(work, template);
+            second.close();
+            deleteRecursively(work);
+        }
+
+        @Setup(Level.Invocation)
+        public void copyTemplate() throws IOException {
+            dir = Files.createTempDirectory("inventory-store");
+            copy(template, dir);
+        }
+
+        @TearDown(Level.Invocation)
+        public void closeJournal() throws IOException {
+            journal.close();
+            deleteRecursively(dir);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            deleteRecursively(template);
+        }
+    }
+
+    private static StockJournal journal(Path dir) {
+        return new StockJournal(new SimpleMeterRegistry(), dir.toString(), Duration.ofMillis(10),
+                Duration.ofSeconds(60), 65_536);
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.codefortress.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import com.codefortress.benchmarks.InventoryServiceBenchmark.NoOpStockChangedProducer;
+import com.codefortress.inventory_service.services.InventoryService;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+
+/**
+ * Throughput de getStock y decrementStock de InventoryService con la configuración de logs del
+ * servicio (encoder JSON, salida a /dev/null) y 8 hilos. {@code appender} y {@code maxPerSecond}
+ * son los valores de {@code logging.appender} y {@code logging.hot-path.max-per-second}:
+ * CONSOLE con -1 es el modo anterior, un log por petición escrito por el propio hilo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final int FULL_STOCK = 1_000_000_000;
+
+    @Param({ "CONSOLE", "ASYNC" })
+    public String appender;
+
+    @Param({ "-1", "20" })
+    public int maxPerSecond;
+
+    private InventoryService inventory;
+
+    @Setup
+    public void setUp() throws JoranException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        context.putProperty("LOG_APPENDER", appender);
+        context.putProperty("HOT_PATH_LOGS_PER_SECOND", String.valueOf(maxPerSecond));
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(LoggingBenchmark.class.getResource("/logging/hot-path.xml"));
+
+        inventory = new InventoryService(new NoOpStockChangedProducer(), false);
+    }
+
+    /** Rellena el stock para que los decrementos nunca lleguen a 0. */
+    @Setup(Level.Iteration)
+    public void refill() {
+        inventory.restoreStock(1, FULL_STOCK - inventory.getStock(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        // Vacía y detiene el hilo del AsyncAppender antes de la siguiente combinación
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public Integer getStock() {
+        return inventory.getStock(1);
+    }
+
+    @Benchmark
+    public void decrementStock() {
+        inventory.decrementStock(1, 1);
+    }
+}
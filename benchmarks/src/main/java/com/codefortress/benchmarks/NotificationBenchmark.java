@@ -0,0 +1,69 @@
+package com.codefortress.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.codefortress.notification_service.dtos.OrderEvent;
+import com.codefortress.notification_service.services.EmailMessage;
+import com.codefortress.notification_service.services.EmailTemplates;
+import com.codefortress.notification_service.services.NotificationService;
+
+/**
+ * Renderizado del email de confirmación que arma notification-service por cada order-created, en
+ * renders por segundo.
+ * <ul>
+ * <li>{@code formatConfirmation}: cuerpo de texto con la plantilla compilada.</li>
+ * <li>{@code concatenation}: el mismo texto concatenado a mano, como se hacía antes de las
+ * plantillas.</li>
+ * <li>{@code confirmation}: el mensaje completo (asunto, texto y HTML).</li>
+ * </ul>
+ * Con {@code -prof gc} JMH añade los bytes reservados por render ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationBenchmark {
+
+    private NotificationService notificationService;
+    private OrderEvent event;
+
+    @Setup
+    public void setUp() {
+        EmailTemplates templates = new EmailTemplates(new StandardEnvironment());
+        notificationService = new NotificationService(null, templates, "pedidos@codefortress.local");
+        event = new OrderEvent(UUID.randomUUID().toString(), "2", 3, "CREATED");
+    }
+
+    @Benchmark
+    public String formatConfirmation() {
+        return notificationService.formatConfirmation(event);
+    }
+
+    @Benchmark
+    public String concatenation() {
+        return "orden " + event.getOrderId()
+                + ", producto " + event.getProductId()
+                + ", cantidad " + event.getQuantity()
+                + ", status " + event.getStatus();
+    }
+
+    @Benchmark
+    public EmailMessage confirmation() {
+        return notificationService.confirmation(event);
+    }
+}
@@ -0,0 +1,78 @@
+package com.codefortress.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codefortress.order_service.config.OrderEventSerde;
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.schemas.EventFormat;
+import com.codefortress.schemas.FileSchemaRegistry;
+
+/**
+ * El order-created tal como lo (de)serializa la configuración de Kafka de cada servicio:
+ * el serializador de order-service y los deserializadores de inventory-service y
+ * notification-service, en JSON y en Avro. Los bytes por registro de cada formato se
+ * imprimen al preparar cada trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventSerdeBenchmark {
+
+    private static final String TOPIC = "order-created";
+
+    @Param({ "JSON", "AVRO" })
+    public EventFormat format;
+
+    private Serializer<OrderEvent> orderSerializer;
+    private Deserializer<com.codefortress.inventory_service.dtos.OrderEvent> inventoryDeserializer;
+    private Deserializer<com.codefortress.notification_service.dtos.OrderEvent> notificationDeserializer;
+    private OrderEvent event;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        FileSchemaRegistry registry = new FileSchemaRegistry(Files.createTempDirectory("schema-registry"));
+        orderSerializer = OrderEventSerde.serializer(format);
+        inventoryDeserializer = com.codefortress.inventory_service.config.OrderEventSerde.deserializer(registry);
+        notificationDeserializer = com.codefortress.notification_service.config.OrderEventSerde.deserializer(registry);
+
+        event = new OrderEvent(UUID.randomUUID().toString(), 2, 3, UUID.randomUUID().toString());
+        encoded = orderSerializer.serialize(TOPIC, event);
+        System.out.printf("%n# bytes/record %s: %d%n", format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] orderServiceSerialize() {
+        return orderSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object inventoryServiceDeserialize() {
+        return inventoryDeserializer.deserialize(TOPIC, encoded);
+    }
+
+    @Benchmark
+    public Object notificationServiceDeserialize() {
+        return notificationDeserializer.deserialize(TOPIC, encoded);
+    }
+}
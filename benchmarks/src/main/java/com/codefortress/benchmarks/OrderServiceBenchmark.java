@@ -0,0 +1,117 @@
+package com.codefortress.benchmarks;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.order_service.config.InventoryClient;
+import com.codefortress.order_service.config.RetryBudget;
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.dtos.ReservationResult;
+import com.codefortress.order_service.dtos.ReserveStockRequest;
+import com.codefortress.order_service.dtos.StockReservation;
+import com.codefortress.order_service.services.OrderOutboxService;
+import com.codefortress.order_service.services.OrderService;
+import com.codefortress.order_service.services.StockCache;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * OrderService.createOrder con inventory-service y el outbox sustituidos por stubs en memoria:
+ * mide el camino de la orden dentro del servicio, sin red ni base de datos.
+ * {@code createOrderWithResilience} añade Retry, CircuitBreaker y Bulkhead en el mismo orden
+ * que sus aspectos, para ver lo que cuestan por llamada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private OrderService orderService;
+    private Supplier<OrderEvent> resilientCreateOrder;
+
+    @Setup
+    public void setUp() {
+        InventoryClient inventoryClient = new StubInventoryClient();
+        InventoryShards shards = InventoryShards.unsharded();
+        StockCache stockCache = new StockCache(inventoryClient, shards, new SimpleMeterRegistry(), 10_000, 5_000);
+        stockCache.update(1, 10_000, 1);
+        orderService = new OrderService(inventoryClient, new NoOpOrderOutboxService(), stockCache,
+                new SimpleMeterRegistry(), new RetryBudget(new SimpleMeterRegistry(), 0.1, 5, 100), shards);
+
+        resilientCreateOrder = Retry.decorateSupplier(Retry.ofDefaults("inventoryServiceCB"),
+                CircuitBreaker.decorateSupplier(CircuitBreaker.ofDefaults("inventoryServiceCB"),
+                        Bulkhead.decorateSupplier(Bulkhead.ofDefaults("inventoryServiceBH"),
+                                () -> orderService.createOrder(1, 2))));
+    }
+
+    @Benchmark
+    public OrderEvent createOrder() {
+        return orderService.createOrder(1, 2);
+    }
+
+    @Benchmark
+    public OrderEvent createOrderWithResilience() {
+        return resilientCreateOrder.get();
+    }
+
+    /** Responde al instante con una reserva fija. */
+    static final class StubInventoryClient implements InventoryClient {
+
+        private final StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), 1, 2, Long.MAX_VALUE);
+
+        @Override
+        public Integer getStock(String shard, Integer productId) {
+            return 10_000;
+        }
+
+        @Override
+        public StockReservation reserve(String shard, ReserveStockRequest request) {
+            return reservation;
+        }
+
+        @Override
+        public List<ReservationResult> reserveAll(String shard, List<ReserveStockRequest> lines) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void release(String shard, String reservationId) {
+        }
+    }
+
+    /** Ocupa el lugar del outbox (y del OrderEventProducer que lo vacía): no escribe nada. */
+    static final class NoOpOrderOutboxService extends OrderOutboxService {
+
+        NoOpOrderOutboxService() {
+            super(null, null);
+        }
+
+        @Override
+        public void save(OrderEvent event) {
+        }
+
+        @Override
+        public void saveAll(List<OrderEvent> events) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.codefortress.schemas;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Lee el DTO de un servicio venga en JSON o en Avro: los mensajes Avro de objeto único empiezan
+ * por la marca {@code C3 01}, que no puede abrir un documento JSON. El delegado JSON llega ya
+ * configurado: no se le pasan las propiedades del consumidor.
+ *
+ * @param <D> DTO del servicio
+ * @param <R> registro Avro generado a partir del esquema
+ */
+public class EventDeserializer<D, R extends SpecificRecord> implements Deserializer<D> {
+
+    private static final byte MARKER_0 = (byte) 0xC3;
+    private static final byte MARKER_1 = (byte) 0x01;
+
+    private final Deserializer<D> jsonDeserializer;
+    private final Function<R, D> fromRecord;
+    private final BinaryMessageDecoder<R> decoder;
+
+    public EventDeserializer(Deserializer<D> jsonDeserializer, Function<R, D> fromRecord, BinaryMessageDecoder<R> decoder) {
+        this.jsonDeserializer = jsonDeserializer;
+        this.fromRecord = fromRecord;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public D deserialize(String topic, byte[] data) {
+        if (!isAvro(data)) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        return decode(topic, data);
+    }
+
+    @Override
+    public D deserialize(String topic, Headers headers, byte[] data) {
+        if (!isAvro(data)) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+        return decode(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    /**
+     * true si el payload tiene la cabecera de un mensaje Avro de objeto único.
+     */
+    public static boolean isAvro(byte[] data) {
+        return data != null && data.length >= 10 && data[0] == MARKER_0 && data[1] == MARKER_1;
+    }
+
+    private D decode(String topic, byte[] data) {
+        try {
+            return fromRecord.apply(decoder.decode(data));
+        } catch (IOException | RuntimeException e) {
+            // Incluye huellas desconocidas: el esquema del productor no está en el registro
+            throw new SerializationException("No se pudo decodificar el evento Avro de " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
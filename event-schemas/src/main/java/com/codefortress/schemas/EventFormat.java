@@ -0,0 +1,12 @@
+package com.codefortress.schemas;
+
+/**
+ * Formato con el que se publican los eventos. Los lectores aceptan ambos, así que se puede
+ * cambiar el productor sin coordinar el despliegue de los consumidores.
+ */
+public enum EventFormat {
+    /** JSON de Jackson, el formato original. */
+    JSON,
+    /** Avro binario de objeto único: cabecera de 10 bytes con la huella del esquema y el registro. */
+    AVRO
+}
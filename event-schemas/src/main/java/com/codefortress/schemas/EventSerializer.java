@@ -0,0 +1,59 @@
+package com.codefortress.schemas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.function.Function;
+
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serializa el DTO de un servicio en el formato configurado: delega en el serializador JSON
+ * existente o lo convierte al registro Avro y lo codifica como mensaje de objeto único.
+ * El delegado JSON llega ya configurado: no se le pasan las propiedades del productor.
+ *
+ * @param <D> DTO del servicio
+ * @param <R> registro Avro generado a partir del esquema
+ */
+public class EventSerializer<D, R extends SpecificRecord> implements Serializer<D> {
+
+    // Un OrderCreated típico ocupa menos de 100 bytes
+    private static final int INITIAL_BUFFER = 128;
+
+    private final EventFormat format;
+    private final Serializer<D> jsonSerializer;
+    private final Function<D, R> toRecord;
+    private final BinaryMessageEncoder<R> encoder;
+
+    public EventSerializer(EventFormat format, Serializer<D> jsonSerializer, Function<D, R> toRecord,
+            BinaryMessageEncoder<R> encoder) {
+        this.format = format;
+        this.jsonSerializer = jsonSerializer;
+        this.toRecord = toRecord;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public byte[] serialize(String topic, D data) {
+        if (data == null) {
+            return null;
+        }
+        if (format == EventFormat.JSON) {
+            return jsonSerializer.serialize(topic, data);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER);
+            encoder.encode(toRecord.apply(data), out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo codificar en Avro el evento para " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.codefortress.schemas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+
+/**
+ * Registro de esquemas en un directorio compartido, en lugar de un schema registry de red.
+ *
+ * Cada esquema se guarda como {@code <huella>.avsc}, donde la huella es el CRC-64-AVRO de su
+ * forma canónica: la misma que viaja en la cabecera de cada mensaje Avro de objeto único. Un
+ * lector que no conoce la huella de un mensaje la busca aquí y Avro resuelve las diferencias
+ * con su propio esquema. Las búsquedas se cachean, así que el disco solo se toca una vez por versión.
+ */
+public class FileSchemaRegistry implements SchemaStore {
+
+    private final Path directory;
+    private final ConcurrentMap<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+    public FileSchemaRegistry(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Publica el esquema en el directorio (si no estaba) y devuelve su huella.
+     */
+    public long register(Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        Path file = fileFor(fingerprint);
+        try {
+            if (!Files.exists(file)) {
+                Files.createDirectories(directory);
+                // Escritura atómica: un lector concurrente nunca ve el fichero a medias
+                Path tmp = Files.createTempFile(directory, Long.toHexString(fingerprint), ".tmp");
+                Files.writeString(tmp, schema.toString(true), StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar el esquema " + schema.getFullName() + " en " + directory, e);
+        }
+        schemas.put(fingerprint, schema);
+        return fingerprint;
+    }
+
+    /**
+     * Esquema con esa huella o {@code null} si nadie lo registró.
+     */
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        Schema cached = schemas.get(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Schema schema = new Schema.Parser().parse(Files.readString(fileFor(fingerprint), StandardCharsets.UTF_8));
+            Schema previous = schemas.putIfAbsent(fingerprint, schema);
+            return previous != null ? previous : schema;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el esquema " + Long.toHexString(fingerprint) + " de " + directory, e);
+        }
+    }
+
+    private Path fileFor(long fingerprint) {
+        return directory.resolve(String.format("%016x.avsc", fingerprint));
+    }
+}
@@ -0,0 +1,101 @@
+package com.codefortress.schemas;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.codefortress.schemas.avro.OrderCreated;
+
+class EventSerdeTest {
+
+    @TempDir
+    Path registryDir;
+
+    // El JSON real lo aporta cada servicio; aquí basta con distinguir por dónde pasó cada mensaje
+    private final Serializer<String> json = (topic, data) -> ("json:" + data).getBytes(StandardCharsets.UTF_8);
+    private final Deserializer<String> fromJson = (topic, data) -> new String(data, StandardCharsets.UTF_8);
+
+    @Test
+    void avroRoundTripAndJsonFallback() {
+        EventSerializer<String, OrderCreated> serializer = new EventSerializer<>(EventFormat.AVRO, json,
+                orderId -> OrderCreated.newBuilder().setOrderId(orderId).setProductId(1).setQuantity(2).build(),
+                OrderCreated.getEncoder());
+        EventDeserializer<String, OrderCreated> deserializer = new EventDeserializer<>(fromJson,
+                record -> record.getOrderId() + "/" + record.getProductId() + "/" + record.getQuantity(),
+                OrderCreated.createDecoder(new FileSchemaRegistry(registryDir)));
+
+        byte[] avro = serializer.serialize("order-created", "o-1");
+
+        assertThat(EventDeserializer.isAvro(avro)).isTrue();
+        assertThat(deserializer.deserialize("order-created", avro)).isEqualTo("o-1/1/2");
+        assertThat(deserializer.deserialize("order-created", "{\"orderId\":\"o-1\"}".getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("{\"orderId\":\"o-1\"}");
+    }
+
+    @Test
+    void readsNewerWriterSchemaFromTheRegistry() throws IOException {
+        // v2 del productor: un campo nuevo con default que este lector todavía no conoce
+        Schema v2 = SchemaBuilder.record("OrderCreated").namespace("com.codefortress.schemas.avro").fields()
+                .optionalString("orderId")
+                .optionalInt("productId")
+                .optionalInt("quantity")
+                .optionalString("reservationId")
+                .optionalString("status")
+                .optionalLong("createdAt")
+                .name("channel").type().stringType().stringDefault("web")
+                .endRecord();
+        new FileSchemaRegistry(registryDir).register(v2);
+
+        GenericRecord record = new GenericData.Record(v2);
+        record.put("orderId", "o-9");
+        record.put("quantity", 5);
+        record.put("createdAt", 1_700_000_000_000L);
+        record.put("channel", "mobile");
+        byte[] payload = encode(v2, record);
+
+        // Registro nuevo, vacío en memoria: la huella se resuelve desde el directorio
+        OrderCreated read = OrderCreated.createDecoder(new FileSchemaRegistry(registryDir)).decode(payload);
+        assertThat(read.getOrderId()).isEqualTo("o-9");
+        assertThat(read.getQuantity()).isEqualTo(5);
+        assertThat(read.getCreatedAt()).isEqualTo(1_700_000_000_000L);
+        assertThat(read.getProductId()).isNull();
+    }
+
+    @Test
+    void unknownWriterSchemaIsASerializationError() {
+        Schema unregistered = SchemaBuilder.record("OrderCreated").namespace("com.codefortress.schemas.avro").fields()
+                .optionalString("orderId")
+                .requiredLong("sequence")
+                .endRecord();
+        GenericRecord record = new GenericData.Record(unregistered);
+        record.put("sequence", 1L);
+        EventDeserializer<String, OrderCreated> deserializer = new EventDeserializer<>(fromJson,
+                OrderCreated::getOrderId, OrderCreated.createDecoder(new FileSchemaRegistry(registryDir)));
+
+        assertThatThrownBy(() -> deserializer.deserialize("order-created", encode(unregistered, record)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private static byte[] encode(Schema schema, GenericRecord record) {
+        try {
+            return new BinaryMessageEncoder<GenericRecord>(GenericData.get(), schema).encode(record).array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
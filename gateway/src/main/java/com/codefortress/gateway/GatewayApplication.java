@@ -2,8 +2,16 @@ package com.codefortress.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Import;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.commons.sharding.ShardLoadBalancerConfig;
 
 @SpringBootApplication
+// Las rutas a inventory-service eligen instancia por el shard del producto
+@LoadBalancerClient(name = InventoryShards.SERVICE, configuration = ShardLoadBalancerConfig.class)
+@Import(InventoryShards.class)
 public class GatewayApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,166 @@
+package com.codefortress.gateway.config;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rate limiting local, sin Redis: un token bucket en memoria por cliente y ruta. Sin tokens
+ * responde 429 con {@code Retry-After} antes de que la petición salga hacia el servicio.
+ * Cuenta las peticiones en {@code gateway.ratelimit.requests{route, outcome=allowed|limited}}.
+ *
+ * El cliente es la IP de origen; la cabecera de cliente solo cuenta si la petición viene de un
+ * proxy de confianza ({@link RateLimitProperties#getTrustedProxies()}).
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class ClientRateLimitFilter implements GlobalFilter, Ordered {
+
+    // Antes que cualquier otro filtro, incluida la caché de lecturas
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final LongSupplier clock;
+    private final List<AddressRange> trustedProxies;
+
+    public ClientRateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ClientRateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.trustedProxies = new ArrayList<>();
+        for (String proxy : properties.getTrustedProxies()) {
+            if (proxy != null && !proxy.isBlank()) {
+                trustedProxies.add(AddressRange.parse(proxy.trim()));
+            }
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unrouted";
+        RateLimitProperties.Limit limit = properties.limitFor(routeId);
+        long now = clock.getAsLong();
+        TokenBucket bucket = buckets.get(routeId + '|' + clientKey(exchange.getRequest()),
+                key -> new TokenBucket(limit.getReplenishRate(), limit.getBurstCapacity(), now));
+
+        long remaining = bucket.tryConsume(now);
+        ServerHttpResponse response = exchange.getResponse();
+        if (remaining < 0) {
+            meterRegistry.counter("gateway.ratelimit.requests", "route", routeId, "outcome", "limited").increment();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            response.getHeaders().set(REMAINING_HEADER, "0");
+            return response.setComplete();
+        }
+        meterRegistry.counter("gateway.ratelimit.requests", "route", routeId, "outcome", "allowed").increment();
+        response.getHeaders().set(REMAINING_HEADER, String.valueOf(remaining));
+        return chain.filter(exchange);
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        InetAddress address = remote != null ? remote.getAddress() : null;
+        if (address == null) {
+            return "unknown";
+        }
+        if (isTrusted(address)) {
+            String client = request.getHeaders().getFirst(properties.getClientHeader());
+            if (client != null && !client.isBlank()) {
+                return "id:" + client;
+            }
+        }
+        return "ip:" + address.getHostAddress();
+    }
+
+    private boolean isTrusted(InetAddress address) {
+        for (AddressRange range : trustedProxies) {
+            if (range.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Una IP ({@code 10.0.0.5}) o un rango CIDR ({@code 172.16.0.0/12}).
+     */
+    private record AddressRange(byte[] network, int prefixLength) {
+
+        static AddressRange parse(String value) {
+            int slash = value.indexOf('/');
+            String host = slash < 0 ? value : value.substring(0, slash);
+            try {
+                byte[] network = InetAddress.getByName(host).getAddress();
+                int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(value.substring(slash + 1));
+                if (prefixLength < 0 || prefixLength > network.length * 8) {
+                    throw new IllegalArgumentException("Prefijo inválido en gateway.rate-limit.trusted-proxies: " + value);
+                }
+                return new AddressRange(network, prefixLength);
+            } catch (UnknownHostException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Dirección inválida en gateway.rate-limit.trusted-proxies: " + value, ex);
+            }
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] candidate = address.getAddress();
+            if (candidate.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (candidate[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (candidate[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.codefortress.gateway.config;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caché de respuestas de {@code GET /api/inventory/{productId}} con un TTL corto: durante ese
+ * tiempo las lecturas del mismo producto se responden desde el gateway sin llegar a
+ * inventory-service. Solo se guardan los 200. La cabecera {@code X-Cache} indica HIT o MISS,
+ * y {@code cache_gets_total{cache="inventoryReads"}} la tasa de aciertos.
+ */
+@Component
+public class InventoryReadCacheFilter implements GlobalFilter, Ordered {
+
+    static final String CACHE_HEADER = "X-Cache";
+    private static final Pattern STOCK_PATH = Pattern.compile("/api/inventory/\\d+");
+
+    private final boolean enabled;
+    private final Cache<String, CachedResponse> cache;
+
+    public InventoryReadCacheFilter(MeterRegistry meterRegistry,
+            @Value("${gateway.inventory-cache.enabled:true}") boolean enabled,
+            @Value("${gateway.inventory-cache.ttl:1s}") Duration ttl,
+            @Value("${gateway.inventory-cache.max-size:10000}") long maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventoryReads");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!enabled || request.getMethod() != HttpMethod.GET || !STOCK_PATH.matcher(request.getPath().value()).matches()) {
+            return chain.filter(exchange);
+        }
+        String key = request.getPath().value();
+        ServerHttpResponse response = exchange.getResponse();
+
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(cached.contentType());
+            response.getHeaders().set(CACHE_HEADER, "HIT");
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+        }
+
+        response.getHeaders().set(CACHE_HEADER, "MISS");
+        ServerHttpResponseDecorator caching = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!HttpStatus.OK.equals(getStatusCode())) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    cache.put(key, new CachedResponse(getHeaders().getContentType(), bytes));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(caching).build());
+    }
+
+    // Tiene que envolver la respuesta antes de que NettyWriteResponseFilter la escriba
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private record CachedResponse(MediaType contentType, byte[] body) {
+    }
+}
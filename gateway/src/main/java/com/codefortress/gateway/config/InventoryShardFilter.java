@@ -0,0 +1,82 @@
+package com.codefortress.gateway.config;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.codefortress.commons.sharding.InventoryShards;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Pone la cabecera {@link InventoryShards#HEADER} en las peticiones a inventory-service cuyo shard
+ * se sabe por la ruta: {@code GET /api/inventory/{productId}} y
+ * {@code DELETE /api/inventory/reservations/{reservationId}}. Va antes del balanceador, que con
+ * ella elige una instancia de ese shard. La cabecera que mande el cliente se descarta, salvo en
+ * {@code /api/inventory/stream}, donde elige de qué shard leer.
+ *
+ * El resto (reservas, consultas en bloque) no se enruta: con varios shards hay que pasar por
+ * order-service.
+ */
+@Component
+public class InventoryShardFilter implements GlobalFilter, Ordered {
+
+    private static final Pattern STOCK_PATH = Pattern.compile("/api/inventory/(\\d+)");
+    private static final String STREAM_PATH = "/api/inventory/stream";
+    private static final Pattern RESERVATION_PATH = Pattern.compile("/api/inventory/reservations/([^/]+)");
+
+    private final InventoryShards shards;
+
+    public InventoryShardFilter(InventoryShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!path.startsWith("/api/inventory") || path.equals(STREAM_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        String shard = shardOf(request.getMethod(), path);
+        if (shard == null && !request.getHeaders().containsKey(InventoryShards.HEADER)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest routed = request.mutate()
+                .headers(headers -> {
+                    headers.remove(InventoryShards.HEADER);
+                    if (shard != null) {
+                        headers.set(InventoryShards.HEADER, shard);
+                    }
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(routed).build());
+    }
+
+    private String shardOf(HttpMethod method, String path) {
+        if (method == HttpMethod.GET) {
+            Matcher stock = STOCK_PATH.matcher(path);
+            // Un id fuera de rango lo rechaza inventory-service, no el gateway
+            return stock.matches() && stock.group(1).length() < 10 ? shards.shardOf(Integer.valueOf(stock.group(1))) : null;
+        }
+        if (method == HttpMethod.DELETE) {
+            Matcher reservation = RESERVATION_PATH.matcher(path);
+            return reservation.matches() ? shards.shardOfReservation(reservation.group(1)) : null;
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,113 @@
+package com.codefortress.gateway.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Límites del {@link ClientRateLimitFilter}, con el prefijo {@code gateway.rate-limit}.
+ * Cada cliente tiene un token bucket por ruta: {@code replenish-rate} peticiones por segundo
+ * sostenidas y ráfagas de hasta {@code burst-capacity}. {@code routes} ajusta los límites de
+ * una ruta concreta, por su id.
+ * <p>
+ * El cliente es la IP de origen. {@code client-header} solo se tiene en cuenta si la petición
+ * llega de una dirección de {@code trusted-proxies} (IPs o rangos CIDR): de cualquier otra, un
+ * cliente podría saltarse el límite cambiando la cabecera en cada petición.
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // Cabecera que identifica al cliente detrás de un proxy de confianza
+    private String clientHeader = "X-Client-Id";
+    private List<String> trustedProxies = new ArrayList<>();
+    private Limit defaults = new Limit(200, 400);
+    private Map<String, Limit> routes = new HashMap<>();
+    // Buckets en memoria; los de clientes inactivos se descartan
+    private long maxClients = 100_000;
+
+    public Limit limitFor(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public Limit getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limit defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    public long getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public static class Limit {
+
+        private int replenishRate;
+        private int burstCapacity;
+
+        public Limit() {
+        }
+
+        public Limit(int replenishRate, int burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
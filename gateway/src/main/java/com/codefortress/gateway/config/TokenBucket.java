@@ -0,0 +1,34 @@
+package com.codefortress.gateway.config;
+
+/**
+ * Token bucket de un cliente en una ruta: se rellena a {@code replenishRate} tokens por segundo
+ * hasta {@code burstCapacity}, y cada petición gasta uno.
+ */
+class TokenBucket {
+
+    private final double tokensPerNano;
+    private final int capacity;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int replenishRate, int burstCapacity, long now) {
+        this.tokensPerNano = replenishRate / 1_000_000_000d;
+        this.capacity = burstCapacity;
+        this.tokens = burstCapacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * @return los tokens que quedan tras gastar uno, o -1 si no había
+     */
+    synchronized long tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return -1;
+        }
+        tokens -= 1;
+        return (long) tokens;
+    }
+}
@@ -0,0 +1,122 @@
+package com.codefortress.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class ClientRateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @Test
+    void rejectsWith429OnceTheBurstIsSpentAndRefillsOverTime() {
+        properties.setDefaults(new RateLimitProperties.Limit(1, 2));
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(properties, meterRegistry, clock::get);
+
+        assertThat(send(filter, "inventory", "10.0.0.1").getResponse().getStatusCode()).isNull();
+        assertThat(send(filter, "inventory", "10.0.0.1").getResponse().getStatusCode()).isNull();
+        MockServerWebExchange limited = send(filter, "inventory", "10.0.0.1");
+
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(limited.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(forwarded).hasValue(2);
+        assertThat(meterRegistry.counter("gateway.ratelimit.requests", "route", "inventory", "outcome", "limited").count())
+                .isEqualTo(1);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(send(filter, "inventory", "10.0.0.1").getResponse().getStatusCode()).isNull();
+        assertThat(forwarded).hasValue(3);
+    }
+
+    @Test
+    void bucketsArePerClientAndPerRoute() {
+        properties.setDefaults(new RateLimitProperties.Limit(1, 1));
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(properties, meterRegistry, clock::get);
+
+        send(filter, "inventory", "10.0.0.1");
+        send(filter, "inventory", "10.0.0.2");
+        send(filter, "orders", "10.0.0.1");
+        send(filter, "inventory", "10.0.0.1");
+
+        assertThat(forwarded).hasValue(3);
+    }
+
+    @Test
+    void routeOverridesTheDefaultLimit() {
+        properties.setDefaults(new RateLimitProperties.Limit(1, 1));
+        properties.getRoutes().put("inventory", new RateLimitProperties.Limit(10, 5));
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(properties, meterRegistry, clock::get);
+
+        for (int i = 0; i < 6; i++) {
+            send(filter, "inventory", "10.0.0.1");
+        }
+
+        assertThat(forwarded).hasValue(5);
+    }
+
+    @Test
+    void rotatingTheClientHeaderDoesNotBypassTheLimit() {
+        properties.setDefaults(new RateLimitProperties.Limit(1, 2));
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(properties, meterRegistry, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            send(filter, "inventory", "10.0.0.1", "client-" + i);
+        }
+
+        assertThat(forwarded).hasValue(2);
+    }
+
+    @Test
+    void trustedProxiesIdentifyClientsByHeader() {
+        properties.setDefaults(new RateLimitProperties.Limit(1, 1));
+        properties.setTrustedProxies(List.of("172.16.0.0/12", "10.0.0.9"));
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(properties, meterRegistry, clock::get);
+
+        send(filter, "inventory", "172.18.0.5", "a");
+        send(filter, "inventory", "172.18.0.5", "b");
+        send(filter, "inventory", "10.0.0.9", "c");
+        send(filter, "inventory", "172.18.0.5", "a");
+        // Fuera del rango la cabecera no cuenta
+        send(filter, "inventory", "172.32.0.1", "d");
+        send(filter, "inventory", "172.32.0.1", "e");
+
+        assertThat(forwarded).hasValue(4);
+    }
+
+    private MockServerWebExchange send(ClientRateLimitFilter filter, String routeId, String remoteIp) {
+        return send(filter, routeId, remoteIp, "k6-1");
+    }
+
+    private MockServerWebExchange send(ClientRateLimitFilter filter, String routeId, String remoteIp, String client) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/inventory/1")
+                .remoteAddress(new InetSocketAddress(remoteIp, 40_000))
+                .header("X-Client-Id", client));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("lb://" + routeId).predicate(e -> true).build());
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,78 @@
+package com.codefortress.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class InventoryReadCacheFilterTest {
+
+    private final InventoryReadCacheFilter filter =
+            new InventoryReadCacheFilter(new SimpleMeterRegistry(), true, Duration.ofMinutes(1), 100);
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    @Test
+    void secondReadOfTheSameProductIsServedFromTheGateway() {
+        GatewayFilterChain backend = respond(HttpStatus.OK, "42");
+
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/inventory/1"), backend);
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/inventory/1"), backend);
+
+        assertThat(backendCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst(InventoryReadCacheFilter.CACHE_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(InventoryReadCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("42");
+    }
+
+    @Test
+    void errorsAreNotCached() {
+        GatewayFilterChain backend = respond(HttpStatus.NOT_FOUND, "");
+
+        send(MockServerHttpRequest.get("/api/inventory/9"), backend);
+        send(MockServerHttpRequest.get("/api/inventory/9"), backend);
+
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void otherRequestsPassThrough() {
+        GatewayFilterChain backend = respond(HttpStatus.OK, "{}");
+
+        send(MockServerHttpRequest.get("/api/inventory?productIds=1,2"), backend);
+        send(MockServerHttpRequest.get("/api/inventory?productIds=1,2"), backend);
+        send(MockServerHttpRequest.post("/api/inventory/1"), backend);
+        send(MockServerHttpRequest.post("/api/inventory/1"), backend);
+
+        assertThat(backendCalls).hasValue(4);
+    }
+
+    private GatewayFilterChain respond(HttpStatus status, String body) {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest.BaseBuilder<?> request, GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,74 @@
+package com.codefortress.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.commons.sharding.ShardRing;
+
+import reactor.core.publisher.Mono;
+
+class InventoryShardFilterTest {
+
+    private final InventoryShardFilter filter = new InventoryShardFilter(shards());
+    private final ShardRing ring = new ShardRing(2, 12);
+
+    @Test
+    void stockReadsAndReleasesCarryTheShardOfTheirProductOrReservation() {
+        assertThat(shardHeaderOf(MockServerHttpRequest.get("/api/inventory/7")))
+                .isEqualTo(String.valueOf(ring.shardOf(7)));
+        assertThat(shardHeaderOf(MockServerHttpRequest.delete("/api/inventory/reservations/1:3f2a"))).isEqualTo("1");
+    }
+
+    @Test
+    void otherRequestsAreNotRoutedAndClientHeadersAreDropped() {
+        assertThat(shardHeaderOf(MockServerHttpRequest.post("/api/inventory/reservations"))).isNull();
+        assertThat(shardHeaderOf(MockServerHttpRequest.get("/api/inventory?productIds=1,2")
+                .header(InventoryShards.HEADER, "1"))).isNull();
+    }
+
+    @Test
+    void streamReadsKeepTheShardChosenByTheClient() {
+        assertThat(shardHeaderOf(MockServerHttpRequest.get("/api/inventory/stream")
+                .header(InventoryShards.HEADER, "1"))).isEqualTo("1");
+    }
+
+    private String shardHeaderOf(MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = exchange -> {
+            forwarded.set(exchange.getRequest());
+            return Mono.empty();
+        };
+        filter.filter(MockServerWebExchange.from(request), chain).block();
+        return forwarded.get().getHeaders().getFirst(InventoryShards.HEADER);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static InventoryShards shards() {
+        List<ServiceInstance> instances = List.of(
+                new DefaultServiceInstance("a", InventoryShards.SERVICE, "a", 8080, false,
+                        Map.of("shard", "0", "shards", "2", "partitions", "12")),
+                new DefaultServiceInstance("b", InventoryShards.SERVICE, "b", 8080, false,
+                        Map.of("shard", "1", "shards", "2", "partitions", "12")));
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances(InventoryShards.SERVICE)).thenReturn(instances);
+        ObjectProvider<DiscoveryClient> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(discoveryClient);
+        return new InventoryShards(provider);
+    }
+}
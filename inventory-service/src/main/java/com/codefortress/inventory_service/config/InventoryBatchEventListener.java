@@ -0,0 +1,148 @@
+package com.codefortress.inventory_service.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.inventory_service.dtos.OrderEvent;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ProcessedOrderIndex;
+import com.codefortress.inventory_service.services.ReservationService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Modo lote ({@code inventory.listener.mode=batch}): suma los decrementos de cada producto
+ * dentro del poll, los aplica en una pasada y confirma el offset una sola vez.
+ *
+ * Un lote fallido lo reintenta el error handler de la factory y después acaba en el DLT. Cada
+ * orden se marca como aplicada justo cuando su reserva se confirma o su producto se descuenta:
+ * si el fallo llega a mitad del lote, el reintento aplica solo lo que faltaba. Un evento inválido,
+ * o uno cuya reserva caducó sin stock para volver a retenerla, se señala con su índice
+ * ({@link BatchListenerFailedException}): lo anterior queda aplicado y confirmado, y solo ese
+ * evento va al DLT (el inválido sin reintentos).
+ * También lee el primer tema de reintento, donde el replay del DLT re-inyecta los eventos.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.listener.mode", havingValue = "batch")
+public class InventoryBatchEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryBatchEventListener.class);
+
+    private final InventoryService inventoryService;
+    private final ReservationService reservationService;
+    private final ProcessedOrderIndex processedOrders;
+    private final MeterRegistry meterRegistry;
+    private final Timer endToEnd;
+
+    public InventoryBatchEventListener(InventoryService inventoryService, ReservationService reservationService,
+            ProcessedOrderIndex processedOrders, MeterRegistry meterRegistry) {
+        this.inventoryService = inventoryService;
+        this.reservationService = reservationService;
+        this.processedOrders = processedOrders;
+        this.meterRegistry = meterRegistry;
+        this.endToEnd = OrderLatencyMetrics.endToEnd(meterRegistry);
+    }
+
+    @KafkaListener(
+        topics = { OrderCreatedTopics.MAIN, OrderCreatedTopics.FIRST_RETRY },
+        groupId = "inventory-group",
+        containerFactory = "kafkaListenerContainerFactoryBatch",
+        // Las propiedades de consumidor de la factory no llegan al contenedor; las del endpoint sí
+        properties = "max.poll.records=${inventory.listener.max-poll-records:500}"
+    )
+    public void handleOrderCreatedBatch(List<OrderEvent> orderEvents, Acknowledgment ack) {
+        try {
+            List<OrderEvent> applied = new ArrayList<>(orderEvents.size());
+            Map<Integer, Integer> pending = new HashMap<>();
+            Map<Integer, List<String>> pendingOrders = new HashMap<>();
+            int failed = coalesce(orderEvents, applied, pending, pendingOrders);
+            // Cada producto descontado marca sus órdenes; las de un producto sin descontar se reintentan
+            inventoryService.decrementStock(pending, productId -> pendingOrders.get(productId).forEach(processedOrders::record));
+            for (OrderEvent orderEvent : applied) {
+                OrderLatencyMetrics.recordSince(endToEnd, orderEvent.getCreatedAt());
+            }
+            if (failed >= 0) {
+                throw failure(orderEvents.get(failed), failed);
+            }
+            if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+                logger.info("Procesado lote de {} eventos de orden creada", orderEvents.size());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al actualizar inventario para un lote de {} eventos: {}", orderEvents.size(), e.getMessage(), e);
+            meterRegistry.counter("inventory.errors", "type", "batch", "productId", "batch").increment();
+            throw e;
+        }
+        ack.acknowledge(); // Un solo commit por lote
+    }
+
+    /**
+     * Descarta duplicados, confirma las reservas del lote (marcando esas órdenes como aplicadas) y
+     * agrupa por producto lo que aún hay que descontar: las cantidades en {@code pending} y las
+     * órdenes, que se marcan al descontar, en {@code pendingOrders}. Se para en el primer evento
+     * inválido o cuya reserva caducó sin stock para volver a retenerla. Deja en {@code applied} los
+     * eventos que se aplican en este lote.
+     *
+     * @return el índice del primer evento que no se puede aplicar, o -1 si no hay
+     */
+    int coalesce(List<OrderEvent> orderEvents, List<OrderEvent> applied, Map<Integer, Integer> pending,
+            Map<Integer, List<String>> pendingOrders) {
+        Set<String> inBatch = new HashSet<>();
+        for (int i = 0; i < orderEvents.size(); i++) {
+            OrderEvent orderEvent = orderEvents.get(i);
+            if (isInvalid(orderEvent)) {
+                return i;
+            }
+            String orderId = orderEvent.getOrderId();
+            if (orderId != null && (!inBatch.add(orderId) || processedOrders.isDuplicate(orderId))) {
+                continue;
+            }
+            String reservationId = orderEvent.getReservationId();
+            if (reservationId != null) {
+                if (!reservationService.commitOrReacquire(reservationId, orderEvent.getProductId(), orderEvent.getQuantity())) {
+                    meterRegistry.counter("inventory.reservations.expired.rejected").increment();
+                    return i;
+                }
+                // Confirmada: el reintento del lote no la vuelve a descontar
+                applied.add(orderEvent);
+                processedOrders.record(orderId);
+                continue;
+            }
+            applied.add(orderEvent);
+            pending.merge(orderEvent.getProductId(), orderEvent.getQuantity(), Integer::sum);
+            pendingOrders.computeIfAbsent(orderEvent.getProductId(), productId -> new ArrayList<>()).add(orderId);
+        }
+        return -1;
+    }
+
+    private static boolean isInvalid(OrderEvent orderEvent) {
+        return orderEvent.getProductId() == null || orderEvent.getQuantity() == null || orderEvent.getQuantity() <= 0;
+    }
+
+    /**
+     * Señala el evento por su índice: lo anterior queda aplicado y confirmado.
+     */
+    private static BatchListenerFailedException failure(OrderEvent orderEvent, int index) {
+        if (isInvalid(orderEvent)) {
+            String message = "Evento sin productId o cantidad válidos: " + orderEvent.getOrderId();
+            // IllegalArgumentException no se reintenta: el evento va directo al DLT
+            return new BatchListenerFailedException(message, new IllegalArgumentException(message), index);
+        }
+        // Sin recortar a cero: se reintenta (por si se repone) y después va al DLT
+        String message = "Sin stock para la orden " + orderEvent.getOrderId() + ": su reserva caducó";
+        return new BatchListenerFailedException(message, new IllegalStateException(message), index);
+    }
+}
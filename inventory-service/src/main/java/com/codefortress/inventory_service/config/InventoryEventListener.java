@@ -2,46 +2,59 @@ package com.codefortress.inventory_service.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import com.codefortress.commons.logging.HotPathLogFilter;
 import com.codefortress.inventory_service.dtos.OrderEvent;
 import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ProcessedOrderIndex;
+import com.codefortress.inventory_service.services.ReservationService;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
+@ConditionalOnProperty(name = "inventory.listener.mode", havingValue = "single", matchIfMissing = true)
 public class InventoryEventListener {
 
-    private final InventoryService inventoryService;
-    private final MeterRegistry meterRegistry;
+    private final OrderCreatedHandler handler;
     private static final Logger logger = LoggerFactory.getLogger(InventoryEventListener.class);
 
-    public InventoryEventListener(InventoryService inventoryService, MeterRegistry meterRegistry) {
-        this.inventoryService = inventoryService;
-        this.meterRegistry = meterRegistry;
+    public InventoryEventListener(InventoryService inventoryService, ReservationService reservationService,
+            ProcessedOrderIndex processedOrders, MeterRegistry meterRegistry) {
+        this.handler = new OrderCreatedHandler(inventoryService, reservationService, processedOrders, meterRegistry);
     }
 
+    /**
+     * Un fallo no se confirma aquí: el evento pasa a los temas de reintento con backoff
+     * exponencial (sin bloquear la partición principal) y, agotados los intentos, al DLT.
+     */
+    @OrderCreatedRetryableTopic
     @KafkaListener(
-    topics = "order-created",
+    topics = OrderCreatedTopics.MAIN,
     groupId = "inventory-group",
     containerFactory = "kafkaListenerContainerFactoryManualAck"
 )
     public void handleOrderCreated(OrderEvent orderEvent, Acknowledgment ack) {
-        logger.info("Recibido evento de orden creada: {}", orderEvent.getOrderId());
-
-        try {
-            inventoryService.decrementStock(orderEvent.getProductId(), orderEvent.getQuantity());
-        } catch (Exception e) {
-            logger.error("Error simulado al actualizar inventario para orden {}: {}", orderEvent.getOrderId(), e.getMessage(), e);
-           // Métrica de error
-            meterRegistry.counter("inventory.errors", "type", "simulated", "productId", String.valueOf(orderEvent.getProductId()))
-                     .increment();
-        } finally {
-            ack.acknowledge(); // Siempre confirmar, incluso en error, para evitar el loop 
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Recibido evento de orden creada: {}", orderEvent.getOrderId());
         }
+
+        handler.handle(orderEvent);
+        ack.acknowledge();
     }
 
+    /**
+     * Eventos que agotaron los reintentos. Quedan en el DLT hasta que se re-inyectan con
+     * POST /api/inventory/dlt/replay; aquí solo se registran y se cuentan.
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, ?> record, Acknowledgment ack) {
+        handler.deadLetter(record);
+        ack.acknowledge();
+    }
 }
-
@@ -0,0 +1,121 @@
+package com.codefortress.inventory_service.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import com.codefortress.commons.kafka.KeyOrderedExecutor;
+import com.codefortress.commons.kafka.RetryTopicForwarder;
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.inventory_service.dtos.OrderEvent;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ProcessedOrderIndex;
+import com.codefortress.inventory_service.services.ReservationService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Modo paralelo ({@code inventory.listener.mode=parallel}): los registros de una misma partición
+ * se procesan a la vez en el pool de {@link KeyOrderedExecutor}, en orden solo entre los del mismo
+ * producto. Cada registro se confirma al terminar, en cualquier orden, y Kafka solo hace commit
+ * hasta el último offset contiguo ya procesado (acks asíncronos de la factory paralela).
+ *
+ * Un fallo se publica en el primer tema de reintento (o en el DLT si el evento está mal formado) y
+ * sigue la escalera de reintentos de siempre; en esos temas el procesamiento es síncrono. El
+ * registro se confirma cuando esa publicación sale ({@link RetryTopicForwarder}); si no sale a
+ * tiempo ni en el DLT, se para el contenedor y el registro se reentrega.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.listener.mode", havingValue = "parallel")
+public class InventoryParallelEventListener {
+
+    public static final String LISTENER_ID = "inventory-order-created";
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryParallelEventListener.class);
+
+    private final OrderCreatedHandler handler;
+    private final KeyOrderedExecutor executor;
+    private final RetryTopicForwarder retryForwarder;
+    private final KafkaListenerEndpointRegistry registry;
+
+    public InventoryParallelEventListener(InventoryService inventoryService, ReservationService reservationService,
+            ProcessedOrderIndex processedOrders, MeterRegistry meterRegistry, KeyOrderedExecutor orderCreatedExecutor,
+            RetryTopicForwarder retryTopicForwarder, KafkaListenerEndpointRegistry registry) {
+        this.handler = new OrderCreatedHandler(inventoryService, reservationService, processedOrders, meterRegistry);
+        this.executor = orderCreatedExecutor;
+        this.retryForwarder = retryTopicForwarder;
+        this.registry = registry;
+    }
+
+    @OrderCreatedRetryableTopic
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = OrderCreatedTopics.MAIN,
+        groupId = "inventory-group",
+        containerFactory = "kafkaListenerContainerFactoryParallel",
+        // Registros de un poll que pueden estar en vuelo a la vez
+        properties = "max.poll.records=${inventory.listener.max-poll-records:500}"
+    )
+    public void handleOrderCreated(ConsumerRecord<String, OrderEvent> record, Acknowledgment ack) {
+        OrderEvent orderEvent = record.value();
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Recibido evento de orden creada: {}", orderEvent.getOrderId());
+        }
+        if (!OrderCreatedTopics.MAIN.equals(record.topic())) {
+            handler.handle(orderEvent);
+            ack.acknowledge();
+            return;
+        }
+
+        executor.execute(orderingKey(record), () -> handler.handle(orderEvent)).whenComplete((applied, error) -> {
+            if (error == null) {
+                ack.acknowledge();
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            CompletableFuture<Void> forwarded = cause instanceof IllegalArgumentException
+                    ? retryForwarder.toDeadLetterTopic(record, cause, ack)
+                    : retryForwarder.toRetryTopic(record, cause, ack);
+            forwarded.exceptionally(forwardError -> {
+                stopConsuming(forwardError);
+                return null;
+            });
+        });
+    }
+
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, ?> record, Acknowledgment ack) {
+        handler.deadLetter(record);
+        ack.acknowledge();
+    }
+
+    /**
+     * Ni el tema de reintento ni el DLT aceptaron el registro: se para el contenedor sin confirmarlo
+     * para que el grupo lo reparta y se reentregue.
+     */
+    private void stopConsuming(Throwable error) {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isRunning()) {
+            logger.error("Se para el consumo de {}: un fallo no se pudo publicar en reintento ni en el DLT",
+                    OrderCreatedTopics.MAIN, error);
+            // Asíncrono: este hilo no puede esperar a que el consumidor termine
+            container.stop(() -> { });
+        }
+    }
+
+    /** Los descuentos de un mismo producto no se adelantan entre sí. */
+    private static Object orderingKey(ConsumerRecord<String, OrderEvent> record) {
+        Integer productId = record.value().getProductId();
+        return productId != null ? productId : String.valueOf(record.key());
+    }
+}
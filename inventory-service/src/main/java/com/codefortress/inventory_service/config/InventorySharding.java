@@ -0,0 +1,96 @@
+package com.codefortress.inventory_service.config;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.commons.sharding.ShardRing;
+
+/**
+ * Qué productos son de esta instancia cuando el inventario está repartido en
+ * {@code inventory.sharding.shards} shards ({@link ShardRing}). Con un solo shard (por defecto)
+ * todos los productos son suyos.
+ *
+ * Cada instancia se declara en Eureka con su shard, el número de shards y el de particiones
+ * ({@link ShardingConfig}), y order-service enruta con esos datos al dueño de cada producto.
+ */
+@Component
+public class InventorySharding {
+
+    // 421 Misdirected Request: el producto es de otro shard
+    private static final HttpStatusCode MISDIRECTED = HttpStatusCode.valueOf(421);
+
+    private final int shard;
+    private final ShardRing ring;
+
+    /**
+     * @param partitions particiones de order-created; obligatorio con más de un shard
+     */
+    @Autowired
+    public InventorySharding(@Value("${inventory.sharding.shards:1}") int shards,
+            @Value("${inventory.sharding.shard:0}") int shard,
+            @Value("${inventory.sharding.partitions:0}") int partitions) {
+        if (shards < 1 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("inventory.sharding.shard tiene que estar entre 0 y " + (shards - 1) + ": " + shard);
+        }
+        if (shards > 1 && partitions < 1) {
+            throw new IllegalArgumentException("inventory.sharding.partitions es obligatorio con varios shards");
+        }
+        this.shard = shard;
+        this.ring = shards > 1 ? new ShardRing(shards, partitions) : null;
+    }
+
+    public static InventorySharding unsharded() {
+        return new InventorySharding(1, 0, 0);
+    }
+
+    public boolean enabled() {
+        return ring != null;
+    }
+
+    public int shard() {
+        return shard;
+    }
+
+    /** Anillo compartido con order-service; {@code null} sin shards. */
+    public ShardRing ring() {
+        return ring;
+    }
+
+    public boolean owns(int productId) {
+        return ring == null || ring.shardOf(productId) == shard;
+    }
+
+    /**
+     * @throws ResponseStatusException 421 si el producto es de otro shard
+     */
+    public void requireOwned(Integer productId) {
+        if (productId != null && !owns(productId)) {
+            throw new ResponseStatusException(MISDIRECTED,
+                    "El producto " + productId + " es del shard " + ring.shardOf(productId) + ", no del " + shard);
+        }
+    }
+
+    /**
+     * Prefijo de los ids de reserva: con shards, {@code "<shard>:"} para que la liberación llegue
+     * a la instancia que la creó.
+     */
+    public String reservationPrefix() {
+        return ring == null ? "" : shard + ":";
+    }
+
+    public Map<String, String> metadata() {
+        if (ring == null) {
+            return Map.of();
+        }
+        // Las mismas claves que leen order-service y el gateway
+        return Map.of(InventoryShards.SHARD_METADATA, String.valueOf(shard),
+                InventoryShards.SHARDS_METADATA, String.valueOf(ring.shards()),
+                InventoryShards.PARTITIONS_METADATA, String.valueOf(ring.partitions()));
+    }
+}
@@ -1,38 +1,277 @@
 package com.codefortress.inventory_service.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.converter.BatchMessagingMessageConverter;
+import org.springframework.kafka.support.converter.MessagingMessageConverter;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
+import com.codefortress.commons.kafka.DeadLetterReplayer;
+import com.codefortress.commons.kafka.KeyOrderedExecutor;
+import com.codefortress.commons.kafka.RetryTopicForwarder;
 import com.codefortress.inventory_service.dtos.OrderEvent;
+import com.codefortress.inventory_service.dtos.StockChangedEvent;
+import com.codefortress.schemas.FileSchemaRegistry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class KafkaConfig {
 
+    /**
+     * El deserializador ya entrega OrderEvent (desde JSON o Avro): el converter solo lo pasa al listener.
+     */
     @Bean
     public RecordMessageConverter converter() {
-        return new StringJsonMessageConverter();
+        return new MessagingMessageConverter();
+    }
+
+    @Bean
+    public FileSchemaRegistry schemaRegistry(@Value("${schemas.registry.dir:./schema-registry}") String directory) {
+        return new FileSchemaRegistry(Path.of(directory));
+    }
+
+    /**
+     * Sustituye al deserializador de valores de la configuración en el consumer factory de Spring Boot.
+     * Un payload ilegible llega al listener como error y acaba en el DLT en vez de bloquear la partición.
+     */
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer orderEventDeserializerCustomizer(FileSchemaRegistry schemaRegistry) {
+        return factory -> {
+            @SuppressWarnings("unchecked")
+            DefaultKafkaConsumerFactory<String, OrderEvent> consumerFactory = (DefaultKafkaConsumerFactory<String, OrderEvent>) factory;
+            consumerFactory.setValueDeserializerSupplier(
+                    () -> new ErrorHandlingDeserializer<>(OrderEventSerde.deserializer(schemaRegistry)));
+        };
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactoryManualAck(
             ConsumerFactory<String, OrderEvent> consumerFactory,
-            RecordMessageConverter converter) {   // <-- Inyectamos el converter
+            RecordMessageConverter converter,   // <-- Inyectamos el converter
+            @Value("${inventory.listener.concurrency:3}") int concurrency,
+            MeterRegistry meterRegistry) {
+        return recordFactory(consumerFactory, converter, concurrency, meterRegistry);
+    }
+
+    private static ConcurrentKafkaListenerContainerFactory<String, OrderEvent> recordFactory(
+            ConsumerFactory<String, OrderEvent> consumerFactory, RecordMessageConverter converter, int concurrency,
+            MeterRegistry meterRegistry) {
 
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory);
-        factory.setRecordMessageConverter(converter);  // <-- Aquí se asigna el Json converter
+        factory.setRecordMessageConverter(converter);
+        factory.setRecordInterceptor((record, consumer) -> {
+            OrderLatencyMetrics.recordLag(meterRegistry, record);
+            return record;
+        });
 
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Un consumidor por hilo; por encima del número de particiones los hilos sobrantes quedan ociosos
+        factory.setConcurrency(concurrency);
         return factory;
     }
-}
 
+    /**
+     * Igual que la manual-ack pero los registros se pueden confirmar desde otro hilo y en
+     * cualquier orden: el commit solo avanza hasta el último offset contiguo confirmado.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactoryParallel(
+            ConsumerFactory<String, OrderEvent> consumerFactory,
+            RecordMessageConverter converter,
+            @Value("${inventory.listener.concurrency:3}") int concurrency,
+            MeterRegistry meterRegistry) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                recordFactory(consumerFactory, converter, concurrency, meterRegistry);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    /**
+     * Pool del modo paralelo: los registros del mismo producto se procesan en orden, el resto a la vez.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "inventory.listener.mode", havingValue = "parallel")
+    public KeyOrderedExecutor orderCreatedExecutor(
+            @Value("${inventory.listener.parallel.threads:16}") int threads,
+            MeterRegistry meterRegistry) {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor("inventory-parallel-", threads);
+        Gauge.builder("inventory.listener.parallel.keys", executor, KeyOrderedExecutor::pendingKeys)
+                .register(meterRegistry);
+        return executor;
+    }
 
+    /**
+     * Igual que la manual-ack pero entrega al listener el poll completo como lista.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactoryBatch(
+            ConsumerFactory<String, OrderEvent> consumerFactory,
+            RecordMessageConverter converter,
+            @Value("${inventory.listener.concurrency:3}") int concurrency,
+            DefaultErrorHandler batchErrorHandler,
+            MeterRegistry meterRegistry) {
+
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setBatchMessageConverter(new BatchMessagingMessageConverter(converter));
+        factory.setBatchInterceptor((records, consumer) -> {
+            records.forEach(record -> OrderLatencyMetrics.recordLag(meterRegistry, record));
+            return records;
+        });
+        factory.setConcurrency(concurrency);
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(batchErrorHandler);
+        return factory;
+    }
+
+    /**
+     * En modo lote no hay temas de reintento: el poll fallido se reintenta en el propio consumidor
+     * con backoff exponencial y, si sigue fallando, cada evento del lote va al mismo DLT.
+     */
+    @Bean
+    public DefaultErrorHandler batchErrorHandler(
+            KafkaTemplate<Object, Object> retryKafkaTemplate,
+            @Value("${inventory.retry.attempts:4}") int attempts,
+            @Value("${inventory.retry.delay-ms:1000}") long delayMs,
+            @Value("${inventory.retry.multiplier:4}") double multiplier,
+            @Value("${inventory.retry.max-delay-ms:60000}") long maxDelayMs) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(retryKafkaTemplate,
+                (record, ex) -> new TopicPartition(OrderCreatedTopics.DLT, -1));
+        ExponentialBackOff backOff = new ExponentialBackOff(delayMs, multiplier);
+        backOff.setMaxInterval(maxDelayMs);
+        backOff.setMaxAttempts(attempts - 1);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        return errorHandler;
+    }
+
+    /**
+     * En modo lote nadie declara los temas de {@code @RetryableTopic}, pero el listener lee el
+     * primero de reintento (donde el replay re-inyecta el DLT) y el error handler publica en el DLT.
+     * Con shards llevan las particiones de order-created, como en los otros modos.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "inventory.listener.mode", havingValue = "batch")
+    public KafkaAdmin.NewTopics batchRetryTopics(InventorySharding sharding) {
+        return new KafkaAdmin.NewTopics(batchTopic(OrderCreatedTopics.FIRST_RETRY, sharding),
+                batchTopic(OrderCreatedTopics.DLT, sharding));
+    }
+
+    private static NewTopic batchTopic(String name, InventorySharding sharding) {
+        TopicBuilder topic = TopicBuilder.name(name);
+        if (sharding.enabled()) {
+            topic.partitions(sharding.ring().partitions());
+        }
+        return topic.build();
+    }
+
+    /**
+     * Publica en los temas de reintento y en el DLT el registro tal como llegó (String JSON o
+     * bytes si viene del replay), así que serializa según el tipo en vez de volver a convertirlo.
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> retryKafkaTemplate(
+            @Value("${spring.kafka.bootstrap-servers:kafka:9092}") String bootstrapServers) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, byTypeSerializer(), byTypeSerializer()));
+    }
+
+    /**
+     * Publica en el tema de reintento (o en el DLT) los fallos del modo paralelo; repite el envío
+     * hasta que sale para no dejar la partición sin confirmar, y pasado el plazo escala al DLT.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "inventory.listener.mode", havingValue = "parallel")
+    public RetryTopicForwarder retryTopicForwarder(KafkaTemplate<Object, Object> retryKafkaTemplate,
+            @Value("${inventory.retry.delay-ms:1000}") long retryDelayMs,
+            @Value("${inventory.retry.forward-give-up-ms:120000}") long giveUpMs,
+            MeterRegistry meterRegistry) {
+        RetryTopicForwarder forwarder = new RetryTopicForwarder(retryKafkaTemplate, "inventory-group",
+                OrderCreatedTopics.FIRST_RETRY, Duration.ofMillis(retryDelayMs), OrderCreatedTopics.DLT,
+                Duration.ofMillis(500), Duration.ofSeconds(30), Duration.ofMillis(giveUpMs));
+        Gauge.builder("inventory.retry.forward.pending", forwarder, RetryTopicForwarder::pending)
+                .register(meterRegistry);
+        return forwarder;
+    }
+
+    /**
+     * Replay del DLT en el primer tema de reintento ({@code POST /api/inventory/dlt/replay}).
+     */
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(KafkaTemplate<Object, Object> retryKafkaTemplate,
+            @Value("${spring.kafka.bootstrap-servers:kafka:9092}") String bootstrapServers,
+            MeterRegistry meterRegistry) {
+        return new DeadLetterReplayer(retryKafkaTemplate, bootstrapServers, OrderCreatedTopics.DLT,
+                OrderCreatedTopics.FIRST_RETRY, "inventory-dlt-replay", meterRegistry, "inventory.dlt.replayed");
+    }
+
+    private static DelegatingByTypeSerializer byTypeSerializer() {
+        // Orden relevante: se elige el primer tipo asignable
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(String.class, new StringSerializer());
+        delegates.put(Object.class, new JsonSerializer<>());
+        return new DelegatingByTypeSerializer(delegates, true);
+    }
+
+    @Bean
+    public ProducerFactory<String, StockChangedEvent> stockChangedProducerFactory(
+            @Value("${spring.kafka.bootstrap-servers:kafka:9092}") String bootstrapServers) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        // Se publica desde el camino de reservas: sin broker no esperamos los 60s por defecto
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000);
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    @Bean
+    public KafkaTemplate<String, StockChangedEvent> stockChangedKafkaTemplate(
+            ProducerFactory<String, StockChangedEvent> stockChangedProducerFactory) {
+        return new KafkaTemplate<>(stockChangedProducerFactory);
+    }
+}
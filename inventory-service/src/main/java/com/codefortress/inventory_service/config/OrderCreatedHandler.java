@@ -0,0 +1,81 @@
+package com.codefortress.inventory_service.config;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codefortress.inventory_service.dtos.OrderEvent;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ProcessedOrderIndex;
+import com.codefortress.inventory_service.services.ReservationService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Aplica un evento order-created al inventario. Lo comparten los listeners registro a registro
+ * y en paralelo, que solo difieren en cómo reparten y confirman los registros.
+ */
+class OrderCreatedHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCreatedHandler.class);
+
+    private final InventoryService inventoryService;
+    private final ReservationService reservationService;
+    private final ProcessedOrderIndex processedOrders;
+    private final MeterRegistry meterRegistry;
+    private final Timer endToEnd;
+
+    OrderCreatedHandler(InventoryService inventoryService, ReservationService reservationService,
+            ProcessedOrderIndex processedOrders, MeterRegistry meterRegistry) {
+        this.inventoryService = inventoryService;
+        this.reservationService = reservationService;
+        this.processedOrders = processedOrders;
+        this.meterRegistry = meterRegistry;
+        this.endToEnd = OrderLatencyMetrics.endToEnd(meterRegistry);
+    }
+
+    /**
+     * Descarta duplicados y descuenta el stock; si falla, cuenta el error y relanza.
+     */
+    void handle(OrderEvent orderEvent) {
+        try {
+            if (processedOrders.isDuplicate(orderEvent.getOrderId())) {
+                logger.warn("Evento duplicado de la orden {}, se descarta", orderEvent.getOrderId());
+            } else {
+                applyOrder(orderEvent);
+                processedOrders.record(orderEvent.getOrderId());
+                OrderLatencyMetrics.recordSince(endToEnd, orderEvent.getCreatedAt());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al actualizar inventario para orden {}: {}", orderEvent.getOrderId(), e.getMessage(), e);
+           // Métrica de error
+            meterRegistry.counter("inventory.errors", "type", e.getClass().getSimpleName(), "productId", String.valueOf(orderEvent.getProductId()))
+                     .increment();
+            throw e;
+        }
+    }
+
+    void deadLetter(ConsumerRecord<String, ?> record) {
+        logger.error("Evento de orden enviado al DLT {} (partición {}, offset {}): {}",
+                record.topic(), record.partition(), record.offset(), record.value());
+        meterRegistry.counter("inventory.dlt").increment();
+    }
+
+    private void applyOrder(OrderEvent orderEvent) {
+        if (orderEvent.getProductId() == null || orderEvent.getQuantity() == null || orderEvent.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Evento sin productId o cantidad válidos: " + orderEvent.getOrderId());
+        }
+        String reservationId = orderEvent.getReservationId();
+        if (reservationId == null) {
+            // Evento sin reserva: el stock aún no se había descontado
+            inventoryService.decrementStock(orderEvent.getProductId(), orderEvent.getQuantity());
+            return;
+        }
+        if (!reservationService.commitOrReacquire(reservationId, orderEvent.getProductId(), orderEvent.getQuantity())) {
+            // Sin recortar a cero: reintentos (por si se repone) y después el DLT
+            meterRegistry.counter("inventory.reservations.expired.rejected").increment();
+            throw new IllegalStateException("Sin stock para la orden " + orderEvent.getOrderId() + ": su reserva caducó");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.codefortress.inventory_service.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.retry.annotation.Backoff;
+
+/**
+ * Escalera de reintentos de order-created, la misma en los modos registro a registro y paralelo:
+ * temas de reintento con backoff exponencial ({@code inventory.retry.*}) y, agotados los
+ * intentos, el DLT. El {@code @DltHandler} del listener sigue recibiendo lo que llega al DLT.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@RetryableTopic(
+    attempts = "${inventory.retry.attempts:4}",
+    backoff = @Backoff(
+        delayExpression = "${inventory.retry.delay-ms:1000}",
+        multiplierExpression = "${inventory.retry.multiplier:4}",
+        maxDelayExpression = "${inventory.retry.max-delay-ms:60000}"),
+    retryTopicSuffix = OrderCreatedTopics.RETRY_SUFFIX,
+    dltTopicSuffix = OrderCreatedTopics.DLT_SUFFIX,
+    topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+    dltStrategy = DltStrategy.FAIL_ON_ERROR,
+    // Eventos mal formados: reintentar no los arregla
+    exclude = IllegalArgumentException.class,
+    kafkaTemplate = "retryKafkaTemplate",
+    // Con shards, los temas de reintento se crean con las particiones de order-created
+    numPartitions = "${inventory.sharding.partitions:-1}"
+)
+@interface OrderCreatedRetryableTopic {
+}
@@ -0,0 +1,19 @@
+package com.codefortress.inventory_service.config;
+
+/**
+ * Temas de order-created que consume este servicio. Los de reintento y el DLT llevan el nombre
+ * del servicio para no mezclarse con los de notification-service, que lee el mismo tema.
+ */
+public final class OrderCreatedTopics {
+
+    public static final String MAIN = "order-created";
+    public static final String RETRY_SUFFIX = "-inventory-retry";
+    public static final String DLT_SUFFIX = "-inventory-dlt";
+
+    /** Primer nivel de reintento: el replay del DLT re-inyecta aquí. */
+    public static final String FIRST_RETRY = MAIN + RETRY_SUFFIX + "-0";
+    public static final String DLT = MAIN + DLT_SUFFIX;
+
+    private OrderCreatedTopics() {
+    }
+}
@@ -0,0 +1,47 @@
+package com.codefortress.inventory_service.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Latencias del consumo de order-created, con histograma para p95/p99 en Prometheus.
+ * Las dos restan relojes de máquinas distintas: sirven a partir de milisegundos, no por debajo.
+ */
+final class OrderLatencyMetrics {
+
+    private OrderLatencyMetrics() {
+    }
+
+    /**
+     * {@code inventory.order.e2e}: desde que order-service crea la orden hasta que el stock queda descontado.
+     */
+    static Timer endToEnd(MeterRegistry meterRegistry) {
+        return Timer.builder("inventory.order.e2e")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code inventory.consumer.lag}: desde que el broker guarda el registro hasta que el consumidor lo recibe.
+     */
+    static void recordLag(MeterRegistry meterRegistry, ConsumerRecord<?, ?> record) {
+        recordSince(Timer.builder("inventory.consumer.lag")
+                .tag("topic", record.topic())
+                .publishPercentileHistogram()
+                .register(meterRegistry), record.timestamp());
+    }
+
+    static void recordSince(Timer timer, Long epochMillis) {
+        if (epochMillis == null) {
+            return;
+        }
+        long elapsed = System.currentTimeMillis() - epochMillis;
+        if (elapsed >= 0) {
+            timer.record(elapsed, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.codefortress.inventory_service.config;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Configurable;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codefortress.commons.sharding.ShardRing;
+
+/**
+ * Reparte las particiones entre los consumidores del grupo según el {@link ShardRing}: cada
+ * partición va a un consumidor del shard que es dueño de sus productos, así los eventos de un
+ * producto se aplican en la instancia que guarda su stock.
+ *
+ * Cada consumidor anuncia su shard en los datos de la suscripción. Dentro de un shard las
+ * particiones se reparten por turnos entre sus consumidores; las de un shard sin consumidores
+ * quedan sin asignar hasta que arranque (otra instancia no tiene su stock).
+ */
+public class ShardPartitionAssignor implements ConsumerPartitionAssignor, Configurable {
+
+    public static final String SHARD_CONFIG = "inventory.sharding.shard";
+    public static final String SHARDS_CONFIG = "inventory.sharding.shards";
+    public static final String PARTITIONS_CONFIG = "inventory.sharding.partitions";
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardPartitionAssignor.class);
+
+    private int shard;
+    private int shards = 1;
+    private int partitions;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        shard = intConfig(configs, SHARD_CONFIG, 0);
+        shards = intConfig(configs, SHARDS_CONFIG, 1);
+        partitions = intConfig(configs, PARTITIONS_CONFIG, 0);
+    }
+
+    @Override
+    public String name() {
+        return "inventory-shard";
+    }
+
+    @Override
+    public ByteBuffer subscriptionUserData(Set<String> topics) {
+        ByteBuffer data = ByteBuffer.allocate(2 * Integer.BYTES);
+        data.putInt(shard).putInt(shards).flip();
+        return data;
+    }
+
+    @Override
+    public GroupAssignment assign(Cluster metadata, GroupSubscription groupSubscription) {
+        Map<String, Subscription> subscriptions = new TreeMap<>(groupSubscription.groupSubscription());
+        Set<String> topics = new TreeSet<>();
+        Map<String, List<TopicPartition>> assignments = new HashMap<>();
+        subscriptions.forEach((memberId, subscription) -> {
+            topics.addAll(subscription.topics());
+            assignments.put(memberId, new ArrayList<>());
+        });
+
+        for (String topic : topics) {
+            Integer partitionCount = metadata.partitionCountForTopic(topic);
+            if (partitionCount == null) {
+                continue;
+            }
+            if (OrderCreatedTopics.MAIN.equals(topic) && partitions > 0 && partitionCount != partitions) {
+                logger.error("{} tiene {} particiones y el reparto de shards espera {}: los productos no llegan a su shard",
+                        topic, partitionCount, partitions);
+            }
+            // Miembros por shard entre los suscritos al tema, en orden de memberId para que el reparto sea estable
+            Map<Integer, List<String>> membersByShard = new HashMap<>();
+            subscriptions.forEach((memberId, subscription) -> {
+                if (subscription.topics().contains(topic)) {
+                    membersByShard.computeIfAbsent(shardOf(subscription), s -> new ArrayList<>()).add(memberId);
+                }
+            });
+            ShardRing ring = new ShardRing(shards, partitionCount);
+            Map<Integer, Integer> turns = new HashMap<>();
+            for (int partition = 0; partition < partitionCount; partition++) {
+                int owner = ring.shardOfPartition(partition);
+                List<String> members = membersByShard.get(owner);
+                if (members == null) {
+                    continue;
+                }
+                int turn = turns.merge(owner, 1, Integer::sum) - 1;
+                assignments.get(members.get(turn % members.size())).add(new TopicPartition(topic, partition));
+            }
+        }
+
+        Map<String, Assignment> result = new HashMap<>();
+        assignments.forEach((memberId, assigned) -> result.put(memberId, new Assignment(assigned)));
+        return new GroupAssignment(result);
+    }
+
+    private static int shardOf(Subscription subscription) {
+        ByteBuffer data = subscription.userData();
+        return data != null && data.remaining() >= Integer.BYTES ? data.getInt(data.position()) : 0;
+    }
+
+    private static int intConfig(Map<String, ?> configs, String name, int defaultValue) {
+        Object value = configs.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString());
+    }
+}
@@ -0,0 +1,69 @@
+package com.codefortress.inventory_service.config;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Reparto del inventario por producto ({@link InventorySharding}): la instancia publica su shard
+ * en Eureka y sus consumidores solo reciben las particiones de order-created de sus productos.
+ */
+@Configuration
+public class ShardingConfig {
+
+    /**
+     * Metadata de Eureka con el shard de la instancia. Se lee del Environment: un post-procesador
+     * no debe depender de otros beans.
+     */
+    @Bean
+    public static BeanPostProcessor shardMetadataPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof EurekaInstanceConfigBean instance) {
+                    instance.getMetadataMap().putAll(new InventorySharding(
+                            environment.getProperty("inventory.sharding.shards", Integer.class, 1),
+                            environment.getProperty("inventory.sharding.shard", Integer.class, 0),
+                            environment.getProperty("inventory.sharding.partitions", Integer.class, 0)).metadata());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Con varios shards los consumidores de inventory-group se reparten las particiones por shard
+     * en vez de por turnos.
+     */
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer shardAssignorCustomizer(InventorySharding sharding) {
+        return factory -> {
+            if (sharding.enabled()) {
+                factory.updateConfigs(Map.of(
+                        ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, ShardPartitionAssignor.class.getName(),
+                        ShardPartitionAssignor.SHARD_CONFIG, sharding.shard(),
+                        ShardPartitionAssignor.SHARDS_CONFIG, sharding.ring().shards(),
+                        ShardPartitionAssignor.PARTITIONS_CONFIG, sharding.ring().partitions()));
+            }
+        };
+    }
+
+    /**
+     * order-created con las particiones del reparto. Si el tema ya existe con otro número, el
+     * asignador lo avisa en el log.
+     */
+    @Bean
+    @ConditionalOnExpression("${inventory.sharding.shards:1} > 1")
+    public NewTopic orderCreatedTopic(InventorySharding sharding) {
+        return TopicBuilder.name(OrderCreatedTopics.MAIN).partitions(sharding.ring().partitions()).build();
+    }
+}
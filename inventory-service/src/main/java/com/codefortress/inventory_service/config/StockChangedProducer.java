@@ -0,0 +1,34 @@
+package com.codefortress.inventory_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.codefortress.inventory_service.dtos.StockChangedEvent;
+
+@Service
+public class StockChangedProducer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockChangedProducer.class);
+
+    private final KafkaTemplate<String, StockChangedEvent> stockChangedKafkaTemplate;
+
+    public StockChangedProducer(KafkaTemplate<String, StockChangedEvent> stockChangedKafkaTemplate) {
+        this.stockChangedKafkaTemplate = stockChangedKafkaTemplate;
+    }
+
+    /**
+     * Publica el nuevo stock con el productId como clave. Los envíos de varios hilos pueden llegar
+     * desordenados; {@code version} dice cuál es el último.
+     * Nunca lanza: un fallo aquí solo deja las cachés de order-service hasta que expire su TTL.
+     */
+    public void sendStockChanged(int productId, int stock, long version) {
+        try {
+            stockChangedKafkaTemplate.send("stock-changed", String.valueOf(productId),
+                    new StockChangedEvent(productId, stock, System.currentTimeMillis(), version));
+        } catch (RuntimeException ex) {
+            logger.warn("No se pudo publicar stock-changed del producto {}: {}", productId, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.codefortress.inventory_service.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.codefortress.inventory_service.services.StockJournal;
+
+/**
+ * DOWN si el journal de stock se paró por un error de disco: la instancia sigue atendiendo, pero
+ * lo que cambie a partir de ahí se pierde al reiniciar.
+ */
+@Component
+public class StockJournalHealthIndicator implements HealthIndicator {
+
+    private final StockJournal journal;
+
+    public StockJournalHealthIndicator(StockJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Health health() {
+        if (journal.failed()) {
+            return Health.down().withDetail("journal", "detenido, el stock sigue solo en memoria").build();
+        }
+        return Health.up().build();
+    }
+}
@@ -1,33 +1,161 @@
 package com.codefortress.inventory_service.controllers;
 
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.codefortress.inventory_service.config.InventorySharding;
+import com.codefortress.inventory_service.dtos.ReservationResult;
+import com.codefortress.inventory_service.dtos.ReserveStockRequest;
+import com.codefortress.inventory_service.dtos.StockReservation;
 import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ReservationService;
 
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
 
+    static final String VERSION_HEADER = "X-Inventory-Version";
+    static final String EPOCH_HEADER = "X-Inventory-Epoch";
+    static final String SHARD_HEADER = "X-Inventory-Shard";
+
     private final InventoryService inventoryService;
+    private final ReservationService reservationService;
+    private final InventorySharding sharding;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, ReservationService reservationService,
+            InventorySharding sharding) {
         this.inventoryService = inventoryService;
+        this.reservationService = reservationService;
+        this.sharding = sharding;
     }
 
     /**
-     * Endpoint para consultar stock.
+     * Endpoint para consultar stock. Con shards, 421 si el producto es de otra instancia.
      */
     @GetMapping("/{productId}")
     public ResponseEntity<Integer> getStock(@PathVariable Integer productId) {
+        sharding.requireOwned(productId);
         Integer stock = inventoryService.getStock(productId);
         if (stock == null) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(stock);
     }
-}
 
+    /**
+     * Consulta en bloque: GET /api/inventory?productIds=1,2,3. Los productos inexistentes se omiten.
+     */
+    @GetMapping
+    public ResponseEntity<Map<Integer, Integer>> getStocks(@RequestParam List<Integer> productIds) {
+        return ResponseEntity.ok(inventoryService.getStocks(productIds));
+    }
+
+    /**
+     * Stock de todos los productos (o de {@code productIds}) en una sola respuesta, escrito desde la
+     * tabla según se recorre: NDJSON por defecto, binario con {@code Accept: application/octet-stream}
+     * ({@link StockStream}). Con {@code since} solo van los productos cambiados desde esa versión;
+     * la cabecera {@value #VERSION_HEADER} trae la que hay que pasar en la siguiente lectura.
+     * <p>
+     * Las versiones se pierden al reiniciar, así que {@code since} va con la {@code epoch} de
+     * {@value #EPOCH_HEADER}. Si no coincide con la actual, o la versión es de otro arranque
+     * (mayor que la actual), se devuelve la tabla entera: el cliente ve la época nueva y reemplaza
+     * lo que tenía.
+     *
+     * Con shards, cada instancia devuelve sus productos y sus versiones; {@value #SHARD_HEADER}
+     * dice de qué shard son.
+     */
+    @GetMapping(path = "/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<StreamingResponseBody> streamStock(
+            @RequestParam(defaultValue = "0") int since,
+            @RequestParam(required = false) String epoch,
+            @RequestParam(required = false) List<Integer> productIds,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean binary = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_OCTET_STREAM::equalsTypeAndSubtype);
+        int[] filter = productIds == null ? null : productIds.stream().mapToInt(Integer::intValue).toArray();
+        int version = inventoryService.openStockRead();
+        String currentEpoch = inventoryService.stockEpoch();
+        int from = since > 0 && since <= version && currentEpoch.equals(epoch) ? since : 0;
+
+        StreamingResponseBody body = out -> {
+            StockStream stream = new StockStream(out, binary, filter);
+            try {
+                inventoryService.forEachStock(from, stream);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            stream.finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(binary ? MediaType.APPLICATION_OCTET_STREAM : MediaType.APPLICATION_NDJSON)
+                .header(VERSION_HEADER, String.valueOf(version))
+                .header(EPOCH_HEADER, currentEpoch);
+        if (sharding.enabled()) {
+            response.header(SHARD_HEADER, String.valueOf(sharding.shard()));
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Reserva stock: 201 si se retiene, 404 si el producto no existe, 409 si no alcanza.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<StockReservation> reserve(@RequestBody ReserveStockRequest request) {
+        sharding.requireOwned(request.getProductId());
+        StockReservation reservation = reservationService.reserve(request.getProductId(), request.getQuantity());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    /**
+     * Reserva varias líneas en una sola llamada; devuelve un resultado por línea en el mismo orden.
+     * Con shards, todas las líneas tienen que ser de productos de esta instancia; las líneas sin
+     * producto no se comprueban y salen como inválidas.
+     */
+    @PostMapping("/reservations/batch")
+    public ResponseEntity<List<ReservationResult>> reserveAll(@RequestBody List<ReserveStockRequest> lines) {
+        for (ReserveStockRequest line : lines) {
+            if (line != null) {
+                sharding.requireOwned(line.getProductId());
+            }
+        }
+        return ResponseEntity.ok(reservationService.reserveAll(lines));
+    }
+
+    /**
+     * Confirma una reserva pendiente.
+     */
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<Void> commit(@PathVariable String reservationId) {
+        if (!reservationService.commit(reservationId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Libera una reserva pendiente y devuelve su stock.
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable String reservationId) {
+        if (!reservationService.release(reservationId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
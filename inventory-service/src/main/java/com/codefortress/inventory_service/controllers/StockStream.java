@@ -0,0 +1,110 @@
+package com.codefortress.inventory_service.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.codefortress.inventory_service.services.StockStore;
+
+/**
+ * Escribe el stock en la respuesta a medida que se recorre la tabla, sin lista intermedia: un
+ * buffer de 8KB entre {@link StockStore} y el socket.
+ * <ul>
+ * <li>NDJSON: una línea {@code {"productId":1,"stock":10000}} por producto.</li>
+ * <li>Binario: {@code productId} y {@code stock} como dos int big-endian, 8 bytes por producto.</li>
+ * </ul>
+ */
+final class StockStream implements StockStore.EntryVisitor {
+
+    private static final byte[] PRODUCT = "{\"productId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STOCK = ",\"stock\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "}\n".getBytes(StandardCharsets.US_ASCII);
+    // Cabe la línea NDJSON más larga (dos int con signo)
+    private static final int MAX_ROW = 64;
+
+    private final OutputStream out;
+    private final boolean binary;
+    private final int[] productIds;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    /**
+     * @param productIds solo estos productos; null para todos
+     */
+    StockStream(OutputStream out, boolean binary, int[] productIds) {
+        this.out = out;
+        this.binary = binary;
+        this.productIds = productIds == null ? null : productIds.clone();
+        if (this.productIds != null) {
+            Arrays.sort(this.productIds);
+        }
+    }
+
+    @Override
+    public void visit(int productId, int units) {
+        if (productIds != null && Arrays.binarySearch(productIds, productId) < 0) {
+            return;
+        }
+        if (buffer.length - position < MAX_ROW) {
+            drain();
+        }
+        if (binary) {
+            putInt(productId);
+            putInt(units);
+        } else {
+            put(PRODUCT);
+            putDecimal(productId);
+            put(STOCK);
+            putDecimal(units);
+            put(END);
+        }
+    }
+
+    void finish() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private void drain() {
+        try {
+            out.write(buffer, 0, position);
+            position = 0;
+        } catch (IOException ex) {
+            // El recorrido de la tabla no admite excepciones comprobadas
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void put(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void putInt(int value) {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void putDecimal(int value) {
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[position++] = '-';
+            remaining = -remaining;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+}
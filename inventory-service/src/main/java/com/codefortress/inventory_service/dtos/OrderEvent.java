@@ -4,6 +4,10 @@ public class OrderEvent {
     private String orderId;
     private Integer productId;
     private Integer quantity;
+    // Reserva hecha por order-service; null en eventos antiguos sin reserva
+    private String reservationId;
+    // Creación de la orden en order-service (epoch ms); null en eventos antiguos
+    private Long createdAt;
     
     public OrderEvent() {
         // Default constructor
@@ -32,5 +36,17 @@ public class OrderEvent {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+    public String getReservationId() {
+        return reservationId;
+    }
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
     
 }
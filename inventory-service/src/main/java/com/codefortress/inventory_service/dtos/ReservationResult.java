@@ -0,0 +1,36 @@
+package com.codefortress.inventory_service.dtos;
+
+/**
+ * Resultado de una línea de reserva en lote.
+ */
+public class ReservationResult {
+    public static final String RESERVED = "RESERVED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
+    public static final String INVALID = "INVALID";
+
+    private String status;
+    // Solo presente cuando status es RESERVED
+    private StockReservation reservation;
+
+    public ReservationResult() {
+        // Default constructor
+    }
+
+    public ReservationResult(String status, StockReservation reservation) {
+        this.status = status;
+        this.reservation = reservation;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public StockReservation getReservation() {
+        return reservation;
+    }
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    public void setReservation(StockReservation reservation) {
+        this.reservation = reservation;
+    }
+}
@@ -0,0 +1,27 @@
+package com.codefortress.inventory_service.dtos;
+
+public class ReserveStockRequest {
+    private Integer productId;
+    private Integer quantity;
+
+    public ReserveStockRequest() {
+        // Default constructor
+    }
+
+    public ReserveStockRequest(Integer productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+    public Integer getProductId() {
+        return productId;
+    }
+    public Integer getQuantity() {
+        return quantity;
+    }
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,45 @@
+package com.codefortress.inventory_service.dtos;
+
+public class StockChangedEvent {
+    private Integer productId;
+    private Integer stock;
+    // Epoch millis del cambio
+    private long changedAt;
+    // Crece con cada cambio del producto: los consumidores se quedan con el de versión mayor
+    private long version;
+
+    public StockChangedEvent() {
+        // Default constructor
+    }
+
+    public StockChangedEvent(Integer productId, Integer stock, long changedAt, long version) {
+        this.productId = productId;
+        this.stock = stock;
+        this.changedAt = changedAt;
+        this.version = version;
+    }
+    public Integer getProductId() {
+        return productId;
+    }
+    public Integer getStock() {
+        return stock;
+    }
+    public long getChangedAt() {
+        return changedAt;
+    }
+    public long getVersion() {
+        return version;
+    }
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+    public void setChangedAt(long changedAt) {
+        this.changedAt = changedAt;
+    }
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
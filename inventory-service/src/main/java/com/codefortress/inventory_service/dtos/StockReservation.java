@@ -0,0 +1,44 @@
+package com.codefortress.inventory_service.dtos;
+
+public class StockReservation {
+    private String reservationId;
+    private Integer productId;
+    private Integer quantity;
+    // Instante (epoch millis) a partir del cual la reserva caduca y el stock se devuelve
+    private long expiresAt;
+
+    public StockReservation() {
+        // Default constructor
+    }
+
+    public StockReservation(String reservationId, Integer productId, Integer quantity, long expiresAt) {
+        this.reservationId = reservationId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+    public String getReservationId() {
+        return reservationId;
+    }
+    public Integer getProductId() {
+        return productId;
+    }
+    public Integer getQuantity() {
+        return quantity;
+    }
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
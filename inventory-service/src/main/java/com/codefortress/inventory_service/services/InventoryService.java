@@ -1,66 +1,272 @@
 package com.codefortress.inventory_service.services;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.inventory_service.config.InventorySharding;
+import com.codefortress.inventory_service.config.StockChangedProducer;
+
 
 @Service
 public class InventoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
 
-    // Mapa de productos con stock mutable
-    private final Map<Integer, Integer> stock = new HashMap<>();
-     private int requestCount = 11;
+    // Stock por producto, compartido entre los hilos de Tomcat y el listener de Kafka
+    private final StockStore stock = new StockStore();
+    private final AtomicInteger requestCount = new AtomicInteger(11);
+    // Versión de los stock-changed. Arranca del reloj para seguir creciendo después de un reinicio
+    private final AtomicLong changeVersion = new AtomicLong(System.currentTimeMillis() * 1_000);
+    private final Object[] publishLocks = new Object[64];
+    // Las versiones de lectura viven en memoria y vuelven a empezar en cada arranque
+    private final String stockEpoch = UUID.randomUUID().toString();
+    private final StockChangedProducer stockChangedProducer;
+    private final boolean simulatedIncidents;
+
+    public InventoryService(StockChangedProducer stockChangedProducer) {
+        this(stockChangedProducer, true);
+    }
 
-    public InventoryService() {
-        // Cargar datos simulados
-        stock.put(1, 10_000);
-        stock.put(2, 50_000);
-        stock.put(3, 20_000);
+    public InventoryService(StockChangedProducer stockChangedProducer, boolean simulatedIncidents) {
+        this(stockChangedProducer, simulatedIncidents, StockJournal.inMemory());
     }
+
+    public InventoryService(StockChangedProducer stockChangedProducer, boolean simulatedIncidents,
+            StockJournal journal) {
+        this(stockChangedProducer, simulatedIncidents, journal, InventorySharding.unsharded());
+    }
+
     /**
-     * Consulta cuántas unidades hay de un producto.
+     * Con {@code inventory.store.dir} el stock se recupera del disco al arrancar; los productos
+     * de ejemplo solo se cargan si no había nada guardado, y con shards solo los de este shard.
+     */
+    @Autowired
+    public InventoryService(StockChangedProducer stockChangedProducer,
+            @Value("${inventory.simulated-incidents.enabled:true}") boolean simulatedIncidents,
+            StockJournal journal, InventorySharding sharding) {
+        this.stockChangedProducer = stockChangedProducer;
+        this.simulatedIncidents = simulatedIncidents;
+        for (int i = 0; i < publishLocks.length; i++) {
+            publishLocks[i] = new Object();
+        }
+        journal.open(stock);
+        if (stock.size() == 0) {
+            // Cargar datos simulados
+            seed(sharding, 1, 10_000);
+            seed(sharding, 2, 50_000);
+            seed(sharding, 3, 20_000);
+        }
+    }
+
+    private void seed(InventorySharding sharding, int productId, int units) {
+        if (sharding.owns(productId)) {
+            stock.put(productId, units);
+        }
+    }
+
+    /**
+     * Consulta cuántas unidades hay de un producto; {@code null} si no existe.
      */
     public Integer getStock(Integer productId) {
-        requestCount++;
+        simulateIncidents(productId);
+
+        int units = productId == null ? StockStore.NOT_FOUND : stock.get(productId);
+        Integer available = units == StockStore.NOT_FOUND ? null : units;
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Consultando stock de {}: {}", productId, available);
+        }
+        return available;
+    }
+
+
+    /**
+     * Consulta varios productos en una sola petición; los que no existen (o vienen a null) no aparecen.
+     */
+    public Map<Integer, Integer> getStocks(Collection<Integer> productIds) {
+        simulateIncidents(null);
+
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        for (Integer productId : productIds) {
+            int units = productId == null ? StockStore.NOT_FOUND : stock.get(productId);
+            if (units != StockStore.NOT_FOUND) {
+                result.put(productId, units);
+            }
+        }
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Consultado stock de {} productos", result.size());
+        }
+        return result;
+    }
+
 
-        logger.info("Request número {} para producto {}", requestCount, productId);
+    /**
+     * Abre una lectura en bloque de la tabla de stock ({@link #forEachStock}). Los fallos
+     * simulados cuentan una vez por lectura.
+     *
+     * @return la versión que el cliente pasa como {@code since} en la siguiente lectura
+     */
+    public int openStockRead() {
+        simulateIncidents(null);
+        return stock.nextVersion();
+    }
+
+    /**
+     * Identifica este arranque: una versión de {@link #openStockRead} solo vale con la misma época.
+     */
+    public String stockEpoch() {
+        return stockEpoch;
+    }
+
+    /**
+     * Recorre la tabla de stock directamente: los productos cambiados desde {@code since}, o
+     * todos con 0. Para llamar después de {@link #openStockRead}.
+     */
+    public void forEachStock(int since, StockStore.EntryVisitor visitor) {
+        stock.forEachChangedSince(since, visitor);
+    }
+
+
+    /**
+     * Decrementa el stock disponible.
+     */
+    public void decrementStock(Integer productId, Integer quantity) {
+        int remaining = stock.decrementClamped(productId, quantity);
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Stock actualizado de {}: {}", productId, remaining);
+        }
+        if (remaining >= 0) {
+            publishStock(productId);
+        }
+    }
+
+    /**
+     * Aplica decrementos ya agrupados por producto: una operación y un stock-changed por producto.
+     */
+    public void decrementStock(Map<Integer, Integer> quantitiesByProduct) {
+        decrementStock(quantitiesByProduct, productId -> { });
+    }
+
+    /**
+     * Como {@link #decrementStock(Map)}, avisando a {@code applied} de cada producto ya descontado
+     * (antes de publicar su stock-changed). Si algo falla a mitad, los productos sin aviso no se
+     * descontaron.
+     */
+    public void decrementStock(Map<Integer, Integer> quantitiesByProduct, IntConsumer applied) {
+        for (Map.Entry<Integer, Integer> entry : quantitiesByProduct.entrySet()) {
+            int remaining = stock.decrementClamped(entry.getKey(), entry.getValue());
+            applied.accept(entry.getKey());
+            if (remaining >= 0) {
+                publishStock(entry.getKey());
+            }
+        }
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Stock actualizado de {} productos", quantitiesByProduct.size());
+        }
+    }
+
+    /**
+     * Resta unidades solo si alcanzan. Pasa por los mismos fallos simulados que {@link #getStock}.
+     *
+     * @return el stock restante, {@link StockStore#INSUFFICIENT} o {@link StockStore#NOT_FOUND}
+     */
+    public int tryDecrementStock(int productId, int quantity) {
+        simulateIncidents(productId);
+        int remaining = stock.tryDecrement(productId, quantity);
+        if (remaining >= 0) {
+            publishStock(productId);
+        }
+        return remaining;
+    }
+
+    /**
+     * Versión en lote de {@link #tryDecrementStock}: los fallos simulados cuentan una vez por lote.
+     *
+     * @return por cada línea, el stock restante, {@link StockStore#INSUFFICIENT} o {@link StockStore#NOT_FOUND}
+     */
+    public int[] tryDecrementStock(int[] productIds, int[] quantities) {
+        simulateIncidents(null);
+        int[] results = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            results[i] = stock.tryDecrement(productIds[i], quantities[i]);
+            if (results[i] >= 0 && quantities[i] > 0) {
+                publishStock(productIds[i]);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Devuelve al stock unidades que estaban retenidas.
+     */
+    public void restoreStock(int productId, int quantity) {
+        int current = stock.increment(productId, quantity);
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Stock devuelto de {}: {}", productId, current);
+        }
+        if (current >= 0) {
+            publishStock(productId);
+        }
+    }
+
+    /**
+     * Publica el stock del producto tras un cambio. Leer el stock y sacar la versión bajo el mismo
+     * lock hace que, de dos publicaciones del producto, la de versión mayor lleve el stock más
+     * nuevo aunque los CAS y los envíos de los hilos se crucen.
+     */
+    private void publishStock(int productId) {
+        int units;
+        long version;
+        synchronized (publishLocks[productId & (publishLocks.length - 1)]) {
+            units = stock.get(productId);
+            version = changeVersion.incrementAndGet();
+        }
+        if (units >= 0) {
+            stockChangedProducer.sendStockChanged(productId, units, version);
+        }
+    }
+
+    /**
+     * Errores y retrasos simulados para ejercitar el Circuit Breaker y el Retry de order-service.
+     * Se apagan con {@code inventory.simulated-incidents.enabled=false} (p. ej. en los benchmarks).
+     */
+    private void simulateIncidents(Integer productId) {
+        if (!simulatedIncidents) {
+            return;
+        }
+        int request = requestCount.incrementAndGet();
+
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Request número {} para producto {}", request, productId);
+        }
 
         // Cada bloque de 100 peticiones, falla de la 0-5 del ciclo
-        int cycle = requestCount % 100;
+        int cycle = request % 100;
 
         if (cycle >= 0 && cycle <= 5) {
-            logger.warn("Simulando error en ciclo {}, request {}", cycle, requestCount);
+            logger.warn("Simulando error en ciclo {}, request {}", cycle, request);
             throw new RuntimeException("Error simulado en InventoryService");
         }
         // Simular un retraso de 100 ms
         if (cycle >=6 && cycle <=10){
             try{
-                logger.info("Simulando retraso de 1500 ms en ciclo {}, petición {}", cycle, requestCount);
+                logger.info("Simulando retraso de 1500 ms en ciclo {}, petición {}", cycle, request);
                 Thread.sleep(1500);
             }catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.error("Error al simular retraso", e);
             }
         }
-
-        Integer available = stock.get(productId);
-        logger.info("Consultando stock de {}: {}", productId, available);
-        return available;
-    }
-
-
-    /**
-     * Decrementa el stock disponible.
-     */
-    public void decrementStock(Integer productId, Integer quantity) {
-        stock.computeIfPresent(productId, (k, v) -> Math.max(v - quantity, 0));
-        logger.info("Stock actualizado de {}: {}", productId, stock.get(productId));
     }
 }
-
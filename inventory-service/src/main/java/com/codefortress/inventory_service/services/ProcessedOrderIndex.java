@@ -0,0 +1,196 @@
+package com.codefortress.inventory_service.services;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Órdenes ya aplicadas en la ventana reciente, para no descontar dos veces un evento redelivered.
+ *
+ * Guarda una huella de 64 bits por orderId en dos generaciones de tamaño fijo (actual y
+ * anterior). Cuando la actual se llena o pasa la ventana, la anterior se descarta y se limpia
+ * fuera del lock para reutilizarla en la siguiente rotación: la memoria queda acotada a
+ * {@code 3 * capacidad * 8} bytes y cada consulta es O(1).
+ * <p>
+ * Cada orden registrada va también al {@link StockJournal} y se recupera al arrancar, así que
+ * un evento redelivered después de un reinicio tampoco descuenta dos veces.
+ */
+@Service
+// El journal se abre al crear InventoryService
+@DependsOn("inventoryService")
+public class ProcessedOrderIndex {
+
+    private static final long EMPTY = 0L;
+
+    private final int maxEntriesPerGeneration;
+    private final long windowMillis;
+    private final Counter duplicates;
+    private final StockJournal journal;
+
+    private long[] current;
+    private long[] previous;
+    // Generación ya limpia para la próxima rotación; null mientras se limpia
+    private long[] spare;
+    private int currentSize;
+    private int previousSize;
+    private long generationStartedAt;
+
+    public ProcessedOrderIndex(MeterRegistry meterRegistry, int maxEntries, long windowMillis) {
+        this(meterRegistry, maxEntries, windowMillis, StockJournal.inMemory());
+    }
+
+    @Autowired
+    public ProcessedOrderIndex(MeterRegistry meterRegistry,
+            @Value("${inventory.dedup.max-entries:200000}") int maxEntries,
+            @Value("${inventory.dedup.window-ms:600000}") long windowMillis,
+            StockJournal journal) {
+        this.maxEntriesPerGeneration = Math.max(1, maxEntries / 2);
+        this.windowMillis = windowMillis;
+        this.journal = journal;
+        // Factor de carga máximo 0.5 para que las sondas lineales sean cortas
+        int capacity = Integer.highestOneBit(maxEntriesPerGeneration * 2 - 1) << 1;
+        this.current = new long[capacity];
+        this.previous = new long[capacity];
+        this.spare = new long[capacity];
+        this.generationStartedAt = System.currentTimeMillis();
+        // Las recuperadas cuentan como recién aplicadas: la ventana vuelve a empezar con ellas
+        journal.forEachRecoveredOrder(fingerprint -> {
+            long[] retired = insert(fingerprint, generationStartedAt);
+            if (retired != null) {
+                Arrays.fill(retired, EMPTY);
+                spare = retired;
+            }
+        });
+
+        this.duplicates = meterRegistry.counter("inventory.dedup.duplicates");
+        Gauge.builder("inventory.dedup.entries", this, ProcessedOrderIndex::size).register(meterRegistry);
+        Gauge.builder("inventory.dedup.memory", this, ProcessedOrderIndex::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * true si la orden ya se aplicó dentro de la ventana; cuenta el duplicado en la métrica.
+     */
+    public synchronized boolean isDuplicate(String orderId) {
+        if (orderId == null) {
+            return false;
+        }
+        long fingerprint = fingerprint(orderId);
+        if (contains(current, fingerprint) || contains(previous, fingerprint)) {
+            duplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registra la orden como aplicada. Llamar solo después de aplicar el evento con éxito.
+     */
+    public void record(String orderId) {
+        if (orderId == null) {
+            return;
+        }
+        long fingerprint = fingerprint(orderId);
+        long[] retired;
+        synchronized (this) {
+            retired = insert(fingerprint, System.currentTimeMillis());
+        }
+        if (retired != null) {
+            // Limpiar ~capacidad * 8 bytes sin bloquear a quien consulta
+            Arrays.fill(retired, EMPTY);
+            synchronized (this) {
+                spare = retired;
+            }
+        }
+        journal.processed(fingerprint);
+    }
+
+    public synchronized int size() {
+        return currentSize + previousSize;
+    }
+
+    public long memoryBytes() {
+        return 3L * current.length * Long.BYTES;
+    }
+
+    /**
+     * @return la generación descartada si hubo rotación, para limpiarla fuera del lock
+     */
+    private long[] insert(long fingerprint, long now) {
+        long[] retired = null;
+        if (currentSize >= maxEntriesPerGeneration || now - generationStartedAt >= windowMillis) {
+            retired = rotate(now);
+        }
+        if (insert(current, fingerprint)) {
+            currentSize++;
+        }
+        return retired;
+    }
+
+    private long[] rotate(long now) {
+        long[] retired = previous;
+        previous = current;
+        previousSize = currentSize;
+        // Si la anterior aún se está limpiando (rotaciones muy seguidas), una nueva
+        current = spare != null ? spare : new long[retired.length];
+        spare = null;
+        currentSize = 0;
+        generationStartedAt = now;
+        return retired;
+    }
+
+    private static boolean contains(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int i = (int) fingerprint & mask;
+        while (true) {
+            long slot = table[i];
+            if (slot == fingerprint) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private static boolean insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int i = (int) fingerprint & mask;
+        while (true) {
+            long slot = table[i];
+            if (slot == fingerprint) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                table[i] = fingerprint;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Hash de 64 bits del orderId (FNV-1a con mezcla final de SplitMix64). Con UUIDs la
+     * probabilidad de colisión en una ventana de cientos de miles de órdenes es despreciable.
+     */
+    static long fingerprint(String orderId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < orderId.length(); i++) {
+            h ^= orderId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h = h ^ (h >>> 31);
+        return h == EMPTY ? 1L : h;
+    }
+}
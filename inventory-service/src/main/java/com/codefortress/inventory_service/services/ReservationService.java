@@ -0,0 +1,208 @@
+package com.codefortress.inventory_service.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.inventory_service.config.InventorySharding;
+import com.codefortress.inventory_service.dtos.ReservationResult;
+import com.codefortress.inventory_service.dtos.ReserveStockRequest;
+import com.codefortress.inventory_service.dtos.StockReservation;
+
+/**
+ * Reservas de stock: el stock se descuenta al reservar y se devuelve si la
+ * reserva se libera o caduca sin que nadie la confirme.
+ * <p>
+ * Las reservas abiertas se guardan en el {@link StockJournal} y se recuperan al arrancar; si no,
+ * las unidades de las que estuvieran abiertas al reiniciar no volverían nunca.
+ */
+@Service
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
+    private final InventoryService inventoryService;
+    private final StockJournal journal;
+    private final Map<String, StockReservation> reservations = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final String idPrefix;
+
+    public ReservationService(InventoryService inventoryService, long ttlMillis) {
+        this(inventoryService, ttlMillis, InventorySharding.unsharded(), StockJournal.inMemory());
+    }
+
+    /**
+     * Con shards, el id de la reserva empieza por el shard que la guarda para que la confirmación
+     * y la liberación lleguen a esta instancia. Las reservas recuperadas del journal vuelven con
+     * su id; las ya caducadas las devuelve el primer barrido.
+     */
+    @Autowired
+    public ReservationService(InventoryService inventoryService,
+            @Value("${inventory.reservations.ttl-ms:30000}") long ttlMillis,
+            InventorySharding sharding, StockJournal journal) {
+        this.inventoryService = inventoryService;
+        this.ttlMillis = ttlMillis;
+        this.idPrefix = sharding.reservationPrefix();
+        this.journal = journal;
+        journal.forEachRecoveredReservation((id, productId, quantity, expiresAt) -> {
+            String reservationId = idPrefix + id;
+            reservations.put(reservationId, new StockReservation(reservationId, productId, quantity, expiresAt));
+        });
+        if (!reservations.isEmpty()) {
+            logger.info("Recuperadas {} reservas abiertas", reservations.size());
+        }
+    }
+
+    /**
+     * Valida y retiene stock en un solo paso.
+     */
+    public StockReservation reserve(Integer productId, Integer quantity) {
+        if (productId == null || quantity == null || quantity <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto y cantidad son obligatorios");
+        }
+        int remaining = inventoryService.tryDecrementStock(productId, quantity);
+        if (remaining == StockStore.NOT_FOUND) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado");
+        }
+        if (remaining == StockStore.INSUFFICIENT) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No hay suficiente stock disponible");
+        }
+        StockReservation reservation = register(productId, quantity, System.currentTimeMillis() + ttlMillis);
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Reserva {} de {} unidades del producto {}, quedan {}", reservation.getReservationId(), quantity, productId, remaining);
+        }
+        return reservation;
+    }
+
+    /**
+     * Reserva varias líneas de una vez. Cada línea se resuelve por separado y
+     * el resultado conserva el orden de la petición.
+     */
+    public List<ReservationResult> reserveAll(List<ReserveStockRequest> lines) {
+        int[] productIds = new int[lines.size()];
+        int[] quantities = new int[lines.size()];
+        boolean[] valid = new boolean[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            ReserveStockRequest line = lines.get(i);
+            valid[i] = line != null && line.getProductId() != null && line.getQuantity() != null && line.getQuantity() > 0;
+            // Las líneas inválidas viajan con cantidad 0 y no alteran el stock
+            if (valid[i]) {
+                productIds[i] = line.getProductId();
+                quantities[i] = line.getQuantity();
+            }
+        }
+
+        int[] remaining = inventoryService.tryDecrementStock(productIds, quantities);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        List<ReservationResult> results = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            if (!valid[i]) {
+                results.add(new ReservationResult(ReservationResult.INVALID, null));
+            } else if (remaining[i] == StockStore.NOT_FOUND) {
+                results.add(new ReservationResult(ReservationResult.NOT_FOUND, null));
+            } else if (remaining[i] == StockStore.INSUFFICIENT) {
+                results.add(new ReservationResult(ReservationResult.INSUFFICIENT_STOCK, null));
+            } else {
+                StockReservation reservation = register(productIds[i], quantities[i], expiresAt);
+                results.add(new ReservationResult(ReservationResult.RESERVED, reservation));
+            }
+        }
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Reserva en lote de {} líneas", lines.size());
+        }
+        return results;
+    }
+
+    private StockReservation register(int productId, int quantity, long expiresAt) {
+        UUID id = UUID.randomUUID();
+        StockReservation reservation = new StockReservation(idPrefix + id, productId, quantity, expiresAt);
+        // Después del DELTA que descontó el stock: una caída entre los dos pierde la reserva, no el stock dos veces
+        journal.reserved(id, productId, quantity, expiresAt);
+        reservations.put(reservation.getReservationId(), reservation);
+        return reservation;
+    }
+
+    /**
+     * Cierra la reserva en el journal antes de devolver nada: si el proceso cae entre medias se
+     * pierden sus unidades en vez de devolverlas dos veces.
+     */
+    private void settle(StockReservation reservation) {
+        journal.settled(UUID.fromString(reservation.getReservationId().substring(idPrefix.length())));
+    }
+
+    /**
+     * Confirma la reserva: el stock ya estaba descontado, solo se olvida.
+     *
+     * @return false si la reserva no existe o ya caducó
+     */
+    public boolean commit(String reservationId) {
+        StockReservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        settle(reservation);
+        return true;
+    }
+
+    /**
+     * Confirma la reserva de una orden ya aceptada. Si caducó antes de que llegara su evento
+     * (el relay del outbox se retrasó más que el TTL) y devolvió sus unidades, las vuelve a
+     * retener solo si siguen libres: descontar a la fuerza vendería stock que ya tiene otra reserva.
+     *
+     * @return false si la reserva caducó y ya no queda stock para la orden
+     */
+    public boolean commitOrReacquire(String reservationId, int productId, int quantity) {
+        if (commit(reservationId)) {
+            return true;
+        }
+        if (inventoryService.tryDecrementStock(productId, quantity) >= 0) {
+            logger.warn("Reserva {} caducada, se vuelven a retener {} unidades del producto {}", reservationId, quantity, productId);
+            return true;
+        }
+        logger.error("Reserva {} caducada y sin stock para volver a retener {} unidades del producto {}", reservationId, quantity, productId);
+        return false;
+    }
+
+    /**
+     * Cancela la reserva y devuelve sus unidades.
+     *
+     * @return false si la reserva no existe o ya caducó
+     */
+    public boolean release(String reservationId) {
+        StockReservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        settle(reservation);
+        inventoryService.restoreStock(reservation.getProductId(), reservation.getQuantity());
+        return true;
+    }
+
+    /**
+     * Devuelve el stock de las reservas no confirmadas dentro de su TTL.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-ms:1000}")
+    public void expireReservations() {
+        long now = System.currentTimeMillis();
+        for (StockReservation reservation : reservations.values()) {
+            // remove(key, value) decide quién gana si a la vez llega un commit o un release
+            if (reservation.getExpiresAt() <= now && reservations.remove(reservation.getReservationId(), reservation)) {
+                settle(reservation);
+                inventoryService.restoreStock(reservation.getProductId(), reservation.getQuantity());
+                logger.warn("Reserva {} caducada, devueltas {} unidades del producto {}", reservation.getReservationId(), reservation.getQuantity(), reservation.getProductId());
+            }
+        }
+    }
+}
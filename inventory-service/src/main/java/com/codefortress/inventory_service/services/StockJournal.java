@@ -0,0 +1,827 @@
+package com.codefortress.inventory_service.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Persistencia del stock en {@code inventory.store.dir}: journal append-only de los cambios con
+ * escritura diferida (write-behind) y fotos periódicas en un fichero mapeado en memoria.
+ *
+ * Los hilos que mueven stock solo encolan el cambio en un buffer circular. Un único hilo lo
+ * escribe en lotes, con un fsync por lote cada {@code flush-interval}, y aplica lo escrito a una
+ * copia propia del stock: la foto que saca cada {@code snapshot-interval} sale de esa copia y
+ * corresponde exactamente a un punto del journal. Al arrancar basta con cargar la última foto y
+ * reproducir los journals posteriores.
+ * <p>
+ * Las reservas abiertas también se guardan ({@link #reserved}, {@link #settled}): su stock ya está
+ * descontado en el journal y, si se perdieran al reiniciar, esas unidades no volverían nunca.
+ * Igual las últimas órdenes aplicadas ({@link #processed}), para que un evento redelivered tras
+ * el reinicio no descuente otra vez.
+ * <p>
+ * Lo aceptado en el último intervalo se pierde si el proceso muere sin cerrar; en un cierre
+ * ordenado se escribe todo y se saca una foto final. Sin {@code inventory.store.dir} no hace
+ * nada y el stock vive solo en memoria.
+ * <p>
+ * Un error de disco para el journal y el stock sigue solo en memoria: se ve en
+ * {@link #failed()}, en {@code inventory.store.journal.failed} y en el health del servicio (DOWN).
+ */
+@Component
+public class StockJournal implements StockStore.ChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    private static final byte PUT = 1;
+    private static final byte DELTA = 2;
+    private static final byte RESERVE = 3;
+    private static final byte SETTLE = 4;
+    private static final byte ORDER = 5;
+    // tipo (1) + productId (4) + valor (4)
+    private static final int STOCK_RECORD_BYTES = 9;
+    // tipo (1) + productId (4) + cantidad (4) + id (16) + caducidad (8)
+    private static final int RESERVE_RECORD_BYTES = 33;
+    // tipo (1) + id (16)
+    private static final int SETTLE_RECORD_BYTES = 17;
+    // tipo (1) + huella del orderId (8)
+    private static final int ORDER_RECORD_BYTES = 9;
+    private static final int MAX_RECORD_BYTES = RESERVE_RECORD_BYTES;
+
+    // v1: solo stock. v2: stock y después secciones (tipo, entradas)
+    private static final int SNAPSHOT_MAGIC_V1 = 0x53544B31;
+    private static final int SNAPSHOT_MAGIC = 0x53544B32;
+    // magic (4) + productos (4) + secuencia del journal (8)
+    private static final int SNAPSHOT_HEADER_BYTES = 16;
+    private static final int SNAPSHOT_ENTRY_BYTES = 8;
+    // tipo (4) + entradas (4)
+    private static final int SECTION_HEADER_BYTES = 8;
+    private static final int RESERVATIONS_SECTION = 1;
+    // id (16) + productId (4) + cantidad (4) + caducidad (8)
+    private static final int RESERVATION_ENTRY_BYTES = 32;
+    private static final int PROCESSED_SECTION = 2;
+    private static final int PROCESSED_ENTRY_BYTES = 8;
+
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final long STALL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final MeterRegistry meterRegistry;
+    private final Path dir;
+    private final long flushIntervalNanos;
+    private final long snapshotIntervalNanos;
+    private final RecordQueue queue;
+    private final RecordSink sink = this::write;
+
+    // Solo los toca el hilo del journal (y open(), antes de arrancarlo)
+    private final StockStore shadow = new StockStore(1);
+    private final Map<UUID, HeldStock> reservations = new HashMap<>();
+    // Últimas órdenes aplicadas, de la más antigua a la más nueva (buffer circular)
+    private final int processedCapacity;
+    private long[] processed = new long[0];
+    private int processedNext;
+    private int processedCount;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private FileChannel journal;
+    private long journalSeq;
+    private long lastSnapshotAt;
+    private boolean dirty;
+
+    // Registros del buffer circular que ya están en disco
+    private volatile long durable;
+    private volatile boolean running;
+    private volatile boolean failed;
+    private volatile boolean halted;
+    private Thread flusher;
+    // Reservas vivas al abrir, para ReservationService
+    private List<Map.Entry<UUID, HeldStock>> recoveredReservations = List.of();
+    private long[] recoveredOrders = new long[0];
+
+    private Counter stalls;
+    private Counter dropped;
+    private Timer flushTimer;
+    private DistributionSummary batchSize;
+    private Timer snapshotTimer;
+
+    public StockJournal(MeterRegistry meterRegistry, String dir, Duration flushInterval, Duration snapshotInterval,
+            int queueCapacity) {
+        this(meterRegistry, dir, flushInterval, snapshotInterval, queueCapacity, 200_000);
+    }
+
+    /**
+     * @param processedCapacity cuántas órdenes aplicadas se guardan, como {@link ProcessedOrderIndex}
+     */
+    @Autowired
+    public StockJournal(MeterRegistry meterRegistry,
+            @Value("${inventory.store.dir:}") String dir,
+            @Value("${inventory.store.flush-interval:10ms}") Duration flushInterval,
+            @Value("${inventory.store.snapshot-interval:60s}") Duration snapshotInterval,
+            @Value("${inventory.store.queue-capacity:65536}") int queueCapacity,
+            @Value("${inventory.dedup.max-entries:200000}") int processedCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.processedCapacity = Math.max(1, processedCapacity);
+        this.dir = dir == null || dir.isBlank() ? null : Paths.get(dir);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.snapshotIntervalNanos = snapshotInterval.toNanos();
+        this.queue = new RecordQueue(this.dir == null ? 2 : queueCapacity);
+    }
+
+    /**
+     * Journal apagado: el stock vive solo en memoria (tests y benchmarks).
+     */
+    public static StockJournal inMemory() {
+        return new StockJournal(new SimpleMeterRegistry(), "", Duration.ofMillis(10), Duration.ofSeconds(60), 2);
+    }
+
+    /**
+     * Carga en {@code store} la última foto y los journals posteriores, y desde ese momento
+     * registra cada cambio del store. Sin directorio configurado no hace nada.
+     */
+    public void open(StockStore store) {
+        if (dir == null) {
+            return;
+        }
+        if (flusher != null) {
+            throw new IllegalStateException("El journal de inventario ya está abierto");
+        }
+        try {
+            Files.createDirectories(dir);
+            long started = System.nanoTime();
+            processed = new long[processedCapacity];
+            journalSeq = recover(store) + 1;
+            recoveredReservations = new ArrayList<>(reservations.entrySet());
+            recoveredOrders = processedInOrder();
+            journal = openJournal(journalSeq);
+            long elapsed = System.nanoTime() - started;
+            meterRegistry.timer("inventory.store.recovery").record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Inventario recuperado de {}: {} productos y {} reservas en {} ms", dir, store.size(),
+                    reservations.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo recuperar el inventario de " + dir, ex);
+        }
+        registerMetrics();
+        store.setListener(this);
+        lastSnapshotAt = System.nanoTime();
+        running = true;
+        flusher = new Thread(this::run, "stock-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void put(int productId, int units) {
+        append(PUT, productId, units);
+    }
+
+    @Override
+    public void changed(int productId, int delta) {
+        append(DELTA, productId, delta);
+    }
+
+    /**
+     * Guarda una reserva nueva. Va después del DELTA que descontó su stock.
+     */
+    public void reserved(UUID reservationId, int productId, int quantity, long expiresAt) {
+        if (flusher != null) {
+            append(RESERVE, productId, quantity, reservationId.getMostSignificantBits(),
+                    reservationId.getLeastSignificantBits(), expiresAt);
+        }
+    }
+
+    /**
+     * Da por cerrada una reserva (confirmada, liberada o caducada). Si se libera, va antes del
+     * DELTA que devuelve el stock: una caída entre los dos pierde esas unidades en vez de
+     * devolverlas dos veces.
+     */
+    public void settled(UUID reservationId) {
+        if (flusher != null) {
+            append(SETTLE, 0, 0, reservationId.getMostSignificantBits(), reservationId.getLeastSignificantBits(), 0);
+        }
+    }
+
+    /**
+     * Guarda la huella de una orden aplicada. Va después de los DELTA de la orden: una caída entre
+     * medias puede descontarla dos veces al redeliver, nunca dejarla sin descontar.
+     */
+    public void processed(long orderFingerprint) {
+        if (flusher != null) {
+            append(ORDER, 0, 0, orderFingerprint, 0, 0);
+        }
+    }
+
+    /**
+     * Huellas de las órdenes aplicadas según el disco, de la más antigua a la más nueva.
+     */
+    public void forEachRecoveredOrder(LongConsumer visitor) {
+        requireOpen();
+        for (long fingerprint : recoveredOrders) {
+            visitor.accept(fingerprint);
+        }
+    }
+
+    /**
+     * Reservas que seguían abiertas según el disco, incluidas las ya caducadas: al barrerlas se
+     * devuelve su stock como si no hubiera habido reinicio.
+     */
+    public void forEachRecoveredReservation(ReservationVisitor visitor) {
+        requireOpen();
+        for (Map.Entry<UUID, HeldStock> entry : recoveredReservations) {
+            HeldStock held = entry.getValue();
+            visitor.visit(entry.getKey(), held.productId(), held.quantity(), held.expiresAt());
+        }
+    }
+
+    /**
+     * true si el journal se paró por un error: desde entonces los cambios no llegan a disco y se
+     * perderían al reiniciar.
+     */
+    public boolean failed() {
+        return failed;
+    }
+
+    /**
+     * Espera a que todo lo encolado hasta ahora esté escrito y sincronizado en disco.
+     */
+    public void flush() {
+        if (flusher == null) {
+            return;
+        }
+        long target = queue.claimed();
+        while (durable < target && running && !failed) {
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(STALL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Escribe lo pendiente, saca una foto final y para el hilo del journal.
+     */
+    @PreDestroy
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Para el hilo sin escribir lo pendiente ni sacar foto, como una caída del proceso.
+     */
+    void halt() {
+        halted = true;
+        stop();
+    }
+
+    private void stop() {
+        if (flusher == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void requireOpen() {
+        if (dir != null && flusher == null) {
+            throw new IllegalStateException("El journal de inventario aún no se ha abierto");
+        }
+    }
+
+    private void append(byte type, int productId, int value) {
+        append(type, productId, value, 0, 0, 0);
+    }
+
+    private void append(byte type, int productId, int value, long idHigh, long idLow, long time) {
+        if (failed) {
+            dropped.increment();
+            return;
+        }
+        // Buffer lleno: el disco no da abasto y se frena a quien escribe en vez de perder cambios
+        while (!queue.offer(type, productId, value, idHigh, idLow, time)) {
+            if (failed || !running) {
+                dropped.increment();
+                return;
+            }
+            stalls.increment();
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(STALL_PARK_NANOS);
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                flushPending();
+                if (dirty && System.nanoTime() - lastSnapshotAt >= snapshotIntervalNanos) {
+                    snapshot();
+                }
+            }
+            if (!halted) {
+                flushPending();
+                if (dirty) {
+                    snapshot();
+                }
+            }
+            journal.close();
+        } catch (IOException | RuntimeException ex) {
+            failed = true;
+            logger.error("Journal de inventario detenido, el stock sigue solo en memoria: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Un lote: lo encolado hasta ahora (como mucho una vuelta del buffer) y un solo fsync.
+     */
+    private void flushPending() throws IOException {
+        long started = System.nanoTime();
+        buffer.clear();
+        int records = queue.drain(sink, queue.capacity());
+        if (records == 0) {
+            return;
+        }
+        writeBuffer();
+        journal.force(false);
+        durable = queue.consumed();
+        dirty = true;
+        flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        batchSize.record(records);
+    }
+
+    private void write(byte type, int productId, int value, long idHigh, long idLow, long time) throws IOException {
+        if (buffer.remaining() < MAX_RECORD_BYTES) {
+            writeBuffer();
+        }
+        buffer.put(type);
+        if (type == RESERVE) {
+            buffer.putInt(productId).putInt(value).putLong(idHigh).putLong(idLow).putLong(time);
+        } else if (type == SETTLE) {
+            buffer.putLong(idHigh).putLong(idLow);
+        } else if (type == ORDER) {
+            buffer.putLong(idHigh);
+        } else {
+            buffer.putInt(productId).putInt(value);
+        }
+        apply(shadow, type, productId, value, idHigh, idLow, time);
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Cierra el journal actual, vuelca la copia a {@code snapshot-<n>.dat} (todo lo de los journals
+     * anteriores a n) y borra los ficheros que ya cubre. Si el proceso cae a mitad, la foto
+     * anterior y sus journals siguen intactos.
+     */
+    private void snapshot() throws IOException {
+        long started = System.nanoTime();
+        journal.close();
+        long seq = journalSeq + 1;
+
+        int count = shadow.size();
+        long size = SNAPSHOT_HEADER_BYTES + (long) count * SNAPSHOT_ENTRY_BYTES
+                + SECTION_HEADER_BYTES + (long) reservations.size() * RESERVATION_ENTRY_BYTES
+                + SECTION_HEADER_BYTES + (long) processedCount * PROCESSED_ENTRY_BYTES;
+        Path tmp = dir.resolve(SNAPSHOT_PREFIX + seq + TMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.putInt(SNAPSHOT_MAGIC).putInt(count).putLong(seq);
+            shadow.forEach((productId, units) -> map.putInt(productId).putInt(units));
+            map.putInt(RESERVATIONS_SECTION).putInt(reservations.size());
+            reservations.forEach((id, held) -> map.putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .putInt(held.productId())
+                    .putInt(held.quantity())
+                    .putLong(held.expiresAt()));
+            map.putInt(PROCESSED_SECTION).putInt(processedCount);
+            for (long fingerprint : processedInOrder()) {
+                map.putLong(fingerprint);
+            }
+            map.force();
+        }
+        Files.move(tmp, snapshotPath(seq), StandardCopyOption.ATOMIC_MOVE);
+
+        journalSeq = seq;
+        journal = openJournal(seq);
+        deleteOlderThan(seq);
+        lastSnapshotAt = System.nanoTime();
+        dirty = false;
+        snapshotTimer.record(lastSnapshotAt - started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return la secuencia más alta vista en disco (0 si el directorio está vacío)
+     */
+    private long recover(StockStore store) throws IOException {
+        long snapshotSeq = 0;
+        List<Long> snapshots = sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            if (loadSnapshot(snapshotPath(snapshots.get(i)), store)) {
+                snapshotSeq = snapshots.get(i);
+                break;
+            }
+            logger.warn("Foto de inventario {} inválida, se prueba la anterior", snapshots.get(i));
+        }
+
+        long lastSeq = snapshotSeq;
+        long replayed = 0;
+        for (long seq : sequences(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            if (seq >= snapshotSeq) {
+                replayed += replay(journalPath(seq), store);
+                lastSeq = Math.max(lastSeq, seq);
+            }
+        }
+        if (snapshotSeq > 0 || replayed > 0) {
+            logger.info("Foto {} y {} cambios del journal aplicados", snapshotSeq, replayed);
+        }
+        clampNegatives(store);
+        return lastSeq;
+    }
+
+    /**
+     * Tras reproducirlo todo el stock solo queda negativo si una caída perdió cambios que
+     * precedían a otros ya escritos; se deja en 0, como habría hecho el recorte.
+     */
+    private void clampNegatives(StockStore store) {
+        List<Integer> negative = new ArrayList<>();
+        store.forEach((productId, units) -> {
+            if (units < 0) {
+                negative.add(productId);
+            }
+        });
+        for (int productId : negative) {
+            logger.warn("Stock del producto {} negativo tras recuperar ({}), se deja en 0", productId, store.get(productId));
+            store.load(productId, 0);
+            shadow.load(productId, 0);
+        }
+    }
+
+    private boolean loadSnapshot(Path path, StockStore store) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SNAPSHOT_HEADER_BYTES) {
+                return false;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = map.getInt();
+            int count = map.getInt();
+            map.getLong();
+            long stockEnd = SNAPSHOT_HEADER_BYTES + (long) count * SNAPSHOT_ENTRY_BYTES;
+            if (count < 0 || (magic == SNAPSHOT_MAGIC_V1 ? size != stockEnd : magic != SNAPSHOT_MAGIC || size < stockEnd)) {
+                return false;
+            }
+            Map<UUID, HeldStock> held = new HashMap<>();
+            List<Long> orders = new ArrayList<>();
+            if (!readSections(map.position((int) stockEnd), held, orders)) {
+                return false;
+            }
+            map.position(SNAPSHOT_HEADER_BYTES);
+            store.ensureCapacity(count);
+            shadow.ensureCapacity(count);
+            for (int i = 0; i < count; i++) {
+                int productId = map.getInt();
+                int units = map.getInt();
+                store.load(productId, units);
+                shadow.load(productId, units);
+            }
+            reservations.putAll(held);
+            for (long fingerprint : orders) {
+                addProcessed(fingerprint);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Lee las secciones que siguen al stock. Se comprueban antes de cargar nada para no dejar
+     * una foto a medias en el store si está corrupta.
+     */
+    private static boolean readSections(ByteBuffer map, Map<UUID, HeldStock> held, List<Long> orders) {
+        while (map.hasRemaining()) {
+            if (map.remaining() < SECTION_HEADER_BYTES) {
+                return false;
+            }
+            int section = map.getInt();
+            int entries = map.getInt();
+            int entryBytes = switch (section) {
+                case RESERVATIONS_SECTION -> RESERVATION_ENTRY_BYTES;
+                case PROCESSED_SECTION -> PROCESSED_ENTRY_BYTES;
+                default -> 0;
+            };
+            if (entryBytes == 0 || entries < 0 || map.remaining() < (long) entries * entryBytes) {
+                return false;
+            }
+            for (int i = 0; i < entries; i++) {
+                if (section == RESERVATIONS_SECTION) {
+                    UUID id = new UUID(map.getLong(), map.getLong());
+                    held.put(id, new HeldStock(map.getInt(), map.getInt(), map.getLong()));
+                } else {
+                    orders.add(map.getLong());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aplica un journal al store y a la copia. Un registro incompleto al final (caída a mitad
+     * de una escritura) se descarta.
+     */
+    private long replay(Path path, StockStore store) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte type = buffer.get(buffer.position());
+                    int length = recordBytes(type);
+                    if (length == 0) {
+                        logger.warn("Registro desconocido en {} tras {} cambios, se ignora el resto", path, records);
+                        return records;
+                    }
+                    if (buffer.remaining() < length) {
+                        break;
+                    }
+                    buffer.get();
+                    int productId = 0;
+                    int value = 0;
+                    long idHigh = 0;
+                    long idLow = 0;
+                    long time = 0;
+                    if (type != SETTLE && type != ORDER) {
+                        productId = buffer.getInt();
+                        value = buffer.getInt();
+                    }
+                    if (type == RESERVE || type == SETTLE) {
+                        idHigh = buffer.getLong();
+                        idLow = buffer.getLong();
+                    }
+                    if (type == RESERVE) {
+                        time = buffer.getLong();
+                    }
+                    if (type == ORDER) {
+                        idHigh = buffer.getLong();
+                    }
+                    if (type == PUT || type == DELTA) {
+                        apply(store, type, productId, value, idHigh, idLow, time);
+                    }
+                    apply(shadow, type, productId, value, idHigh, idLow, time);
+                    records++;
+                }
+                buffer.compact();
+            }
+        }
+        return records;
+    }
+
+    private static int recordBytes(byte type) {
+        return switch (type) {
+            case PUT, DELTA -> STOCK_RECORD_BYTES;
+            case RESERVE -> RESERVE_RECORD_BYTES;
+            case SETTLE -> SETTLE_RECORD_BYTES;
+            case ORDER -> ORDER_RECORD_BYTES;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Los DELTA son variaciones ya aplicadas y se suman tal cual, sin recortar a 0: dos hilos
+     * pueden encolarlas en otro orden que sus CAS (de 0, +3 y -3 puede llegar -3 primero) y solo
+     * la suma sin recortes da el stock real. Los PUT (altas) no deben competir con cambios del
+     * mismo producto, como ocurre con la carga inicial. Las reservas y las órdenes solo van a la
+     * copia: su stock ya llega por los DELTA.
+     */
+    private void apply(StockStore target, byte type, int productId, int value, long idHigh, long idLow, long time) {
+        switch (type) {
+            case PUT -> target.put(productId, value);
+            case DELTA -> target.add(productId, value);
+            case RESERVE -> reservations.put(new UUID(idHigh, idLow), new HeldStock(productId, value, time));
+            case SETTLE -> reservations.remove(new UUID(idHigh, idLow));
+            case ORDER -> addProcessed(idHigh);
+            default -> throw new IllegalStateException("Registro desconocido: " + type);
+        }
+    }
+
+    private void addProcessed(long fingerprint) {
+        processed[processedNext] = fingerprint;
+        processedNext = (processedNext + 1) % processed.length;
+        processedCount = Math.min(processedCount + 1, processed.length);
+    }
+
+    private long[] processedInOrder() {
+        long[] result = new long[processedCount];
+        int oldest = (processedNext - processedCount + processed.length) % Math.max(1, processed.length);
+        for (int i = 0; i < processedCount; i++) {
+            result[i] = processed[(oldest + i) % processed.length];
+        }
+        return result;
+    }
+
+    private FileChannel openJournal(long seq) throws IOException {
+        return FileChannel.open(journalPath(seq), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void deleteOlderThan(long seq) throws IOException {
+        for (long old : sequences(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            if (old < seq) {
+                Files.deleteIfExists(journalPath(old));
+            }
+        }
+        for (long old : sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (old < seq) {
+                Files.deleteIfExists(snapshotPath(old));
+            }
+        }
+    }
+
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> {
+                        try {
+                            result.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                        } catch (NumberFormatException ex) {
+                            // no es nuestro
+                        }
+                    });
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private Path journalPath(long seq) {
+        return dir.resolve(JOURNAL_PREFIX + seq + JOURNAL_SUFFIX);
+    }
+
+    private Path snapshotPath(long seq) {
+        return dir.resolve(SNAPSHOT_PREFIX + seq + SNAPSHOT_SUFFIX);
+    }
+
+    private void registerMetrics() {
+        this.stalls = meterRegistry.counter("inventory.store.journal.stalls");
+        // Cambios que ya no llegan a disco porque el journal se paró
+        this.dropped = meterRegistry.counter("inventory.store.journal.dropped");
+        Gauge.builder("inventory.store.journal.failed", this, j -> j.failed ? 1 : 0).register(meterRegistry);
+        this.flushTimer = Timer.builder("inventory.store.journal.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("inventory.store.journal.batch")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.snapshotTimer = meterRegistry.timer("inventory.store.snapshot");
+        Gauge.builder("inventory.store.journal.pending", this, j -> j.queue.claimed() - j.durable)
+                .register(meterRegistry);
+        Gauge.builder("inventory.store.products", shadow, StockStore::size).register(meterRegistry);
+    }
+
+    /**
+     * Recibe las reservas recuperadas del disco.
+     */
+    @FunctionalInterface
+    public interface ReservationVisitor {
+        void visit(UUID reservationId, int productId, int quantity, long expiresAt);
+    }
+
+    private record HeldStock(int productId, int quantity, long expiresAt) {
+    }
+
+    @FunctionalInterface
+    private interface RecordSink {
+        void accept(byte type, int productId, int value, long idHigh, long idLow, long time) throws IOException;
+    }
+
+    /**
+     * Buffer circular acotado de varios productores y un consumidor (esquema de Vyukov): cada
+     * hueco lleva una secuencia que dice si está libre o publicado, sin locks ni un objeto por registro.
+     */
+    private static final class RecordQueue {
+
+        private final int mask;
+        private final AtomicLongArray sequences;
+        private final byte[] types;
+        private final int[] productIds;
+        private final int[] values;
+        // Solo para reservas (id y caducidad) y órdenes (huella)
+        private final long[] idHighs;
+        private final long[] idLows;
+        private final long[] times;
+        private final AtomicLong tail = new AtomicLong();
+        // Solo lo mueve el consumidor
+        private long head;
+
+        RecordQueue(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.mask = size - 1;
+            this.sequences = new AtomicLongArray(size);
+            this.types = new byte[size];
+            this.productIds = new int[size];
+            this.values = new int[size];
+            this.idHighs = new long[size];
+            this.idLows = new long[size];
+            this.times = new long[size];
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(byte type, int productId, int value, long idHigh, long idLow, long time) {
+            long pos = tail.get();
+            while (true) {
+                int i = (int) (pos & mask);
+                long diff = sequences.get(i) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        types[i] = type;
+                        productIds[i] = productId;
+                        values[i] = value;
+                        idHighs[i] = idHigh;
+                        idLows[i] = idLow;
+                        times[i] = time;
+                        // Publica el hueco: el consumidor que lea la secuencia ve también los campos
+                        sequences.set(i, pos + 1);
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false;
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        int drain(RecordSink sink, int max) throws IOException {
+            int drained = 0;
+            while (drained < max) {
+                int i = (int) (head & mask);
+                if (sequences.get(i) != head + 1) {
+                    break;
+                }
+                sink.accept(types[i], productIds[i], values[i], idHighs[i], idLows[i], times[i]);
+                sequences.set(i, head + mask + 1);
+                head++;
+                drained++;
+            }
+            return drained;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        long claimed() {
+            return tail.get();
+        }
+
+        long consumed() {
+            return head;
+        }
+    }
+}
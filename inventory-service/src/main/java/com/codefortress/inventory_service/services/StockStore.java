@@ -0,0 +1,474 @@
+package com.codefortress.inventory_service.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tabla de stock concurrente indexada por {@code int} primitivo.
+ *
+ * Las claves se reparten en segmentos (stripes) y cada segmento es una tabla
+ * de direccionamiento abierto. Las lecturas y los decrementos no toman locks:
+ * usan lecturas volátiles y CAS sobre {@link AtomicLongArray}. Solo las
+ * altas de productos nuevos (poco frecuentes) bloquean su propio segmento.
+ * <p>
+ * Cada hueco guarda en un {@code long} el stock y la versión en la que cambió por última vez,
+ * para las lecturas incrementales ({@link #nextVersion}, {@link #forEachChangedSince}). La
+ * versión solo la avanzan esas lecturas: los decrementos la leen, no la incrementan.
+ */
+public class StockStore {
+
+    /** Valor devuelto cuando el producto no existe. */
+    public static final int NOT_FOUND = -1;
+
+    /** Resultado de {@link #tryDecrement} cuando no hay unidades suficientes. */
+    public static final int INSUFFICIENT = -2;
+
+    private static final int EMPTY_KEY = Integer.MIN_VALUE;
+    // Marca un hueco ya copiado a la tabla nueva durante un resize. Es negativo, y un hueco
+    // ocupado nunca lo es: la versión no pasa de 31 bits (ver slot)
+    private static final long MOVED = Long.MIN_VALUE;
+    // Resultado interno de una búsqueda sin la clave; negativo por lo mismo que MOVED
+    private static final long ABSENT = -1L;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    // Qué hace update si el resultado queda por debajo de 0
+    private static final int STRICT = 0;
+    private static final int CLAMP = 1;
+    private static final int RAW = 2;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile ChangeListener listener = ChangeListener.NONE;
+
+    public StockStore() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public StockStore(int concurrencyLevel) {
+        int count = 1;
+        int bits = 0;
+        while (count < concurrencyLevel) {
+            count <<= 1;
+            bits++;
+        }
+        this.segments = new Segment[count];
+        this.segmentShift = 32 - bits;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(version);
+        }
+    }
+
+    /**
+     * Stock actual del producto o {@link #NOT_FOUND}.
+     */
+    public int get(int productId) {
+        return segmentFor(productId).get(productId);
+    }
+
+    /**
+     * Da de alta o sobreescribe el stock de un producto.
+     */
+    public void put(int productId, int units) {
+        checkKey(productId);
+        if (units < 0) {
+            throw new IllegalArgumentException("El stock no puede ser negativo: " + units);
+        }
+        segmentFor(productId).put(productId, units);
+        listener.put(productId, units);
+    }
+
+    /**
+     * Resta {@code quantity} solo si hay unidades suficientes (compare-and-decrement).
+     *
+     * @return el stock restante, {@link #INSUFFICIENT} o {@link #NOT_FOUND}
+     */
+    public int tryDecrement(int productId, int quantity) {
+        checkQuantity(quantity);
+        return segmentFor(productId).update(productId, quantity, STRICT, listener);
+    }
+
+    /**
+     * Resta {@code quantity} dejando el stock en 0 como mínimo.
+     *
+     * @return el stock restante o {@link #NOT_FOUND}
+     */
+    public int decrementClamped(int productId, int quantity) {
+        checkQuantity(quantity);
+        return segmentFor(productId).update(productId, quantity, CLAMP, listener);
+    }
+
+    /**
+     * Suma {@code quantity} unidades a un producto existente.
+     *
+     * @return el stock resultante o {@link #NOT_FOUND}
+     */
+    public int increment(int productId, int quantity) {
+        checkQuantity(quantity);
+        return segmentFor(productId).update(productId, -quantity, STRICT, listener);
+    }
+
+    /**
+     * Suma {@code delta} con signo y sin mirar el resultado. Solo para reproducir el journal: ahí
+     * los cambios de varios hilos pueden estar en otro orden que sus CAS, así que el stock puede
+     * pasar un momento por negativo y solo la suma final es la real. No avisa al listener.
+     */
+    void add(int productId, int delta) {
+        segmentFor(productId).update(productId, -delta, RAW, ChangeListener.NONE);
+    }
+
+    /**
+     * Como {@link #put} pero admite un valor negativo y no avisa al listener: para cargar una foto
+     * del journal sacada entre dos cambios desordenados.
+     */
+    void load(int productId, int units) {
+        checkKey(productId);
+        segmentFor(productId).put(productId, units);
+    }
+
+    /**
+     * Registra quién recibe cada cambio aplicado (p. ej. {@link StockJournal}). Las escrituras
+     * anteriores no se notifican.
+     */
+    public void setListener(ChangeListener listener) {
+        this.listener = listener == null ? ChangeListener.NONE : listener;
+    }
+
+    /**
+     * Redimensiona los segmentos de una vez para {@code expectedProducts} productos, y así la
+     * carga masiva (recuperación al arrancar) no pasa por los resizes intermedios.
+     */
+    public void ensureCapacity(int expectedProducts) {
+        int perSegment = expectedProducts / segments.length + 1;
+        for (Segment segment : segments) {
+            segment.ensureCapacity(perSegment);
+        }
+    }
+
+    /**
+     * Recorre los productos registrados. No es una foto atómica si hay escrituras concurrentes.
+     */
+    public void forEach(EntryVisitor visitor) {
+        for (Segment segment : segments) {
+            segment.forEach(visitor);
+        }
+    }
+
+    /**
+     * Abre una lectura incremental. Hay que llamarlo antes de {@link #forEachChangedSince}: los
+     * cambios que ese recorrido no llegue a ver quedan con esta versión o una posterior.
+     *
+     * @return el {@code since} de la siguiente lectura
+     */
+    public int nextVersion() {
+        // Vuelve a 1 en vez de pasar a negativo. Un since de antes de la vuelta queda por delante de
+        // la versión actual y el cliente recibe la tabla entera; los huecos con versiones altas se
+        // repiten hasta que cambian, pero ninguno se salta
+        return version.updateAndGet(current -> current == Integer.MAX_VALUE ? 1 : current + 1);
+    }
+
+    /**
+     * Recorre sin locks los productos que cambiaron desde la versión {@code since} (todos con 0).
+     * Puede repetir alguno que no cambió, nunca se salta un cambio; un producto dado de alta
+     * durante el recorrido puede aparecer o no.
+     */
+    public void forEachChangedSince(int since, EntryVisitor visitor) {
+        for (Segment segment : segments) {
+            segment.forEachChangedSince(since, visitor);
+        }
+    }
+
+    /**
+     * Número de productos registrados.
+     */
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    /**
+     * Recibe los cambios en el hilo que los aplica, justo después del CAS.
+     */
+    public interface ChangeListener {
+
+        ChangeListener NONE = new ChangeListener() {
+            @Override
+            public void put(int productId, int units) {
+            }
+
+            @Override
+            public void changed(int productId, int delta) {
+            }
+        };
+
+        /** Alta o sobreescritura con un valor absoluto. */
+        void put(int productId, int units);
+
+        /** Variación aplicada de verdad: con el recorte a 0 puede ser menor que la pedida. */
+        void changed(int productId, int delta);
+    }
+
+    public interface EntryVisitor {
+        void visit(int productId, int units);
+    }
+
+    private Segment segmentFor(int productId) {
+        return segments[segments.length == 1 ? 0 : spread(productId) >>> segmentShift];
+    }
+
+    private static int spread(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkKey(int productId) {
+        if (productId == EMPTY_KEY) {
+            throw new IllegalArgumentException("productId reservado: " + productId);
+        }
+    }
+
+    private static void checkQuantity(int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa: " + quantity);
+        }
+    }
+
+    // Versión (nunca negativa) en los bits 32-62 y unidades, aunque sean negativas, en los 32 bajos.
+    // El bit de signo siempre queda a 0, así que ningún hueco coincide con MOVED ni con ABSENT
+    private static long slot(int version, int units) {
+        return ((long) version << 32) | (units & 0xffffffffL);
+    }
+
+    private static int unitsOf(long slot) {
+        return (int) slot;
+    }
+
+    private static int versionOf(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static final class Table {
+        final AtomicIntegerArray keys;
+        final AtomicLongArray values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicIntegerArray(capacity);
+            this.values = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, EMPTY_KEY);
+            }
+        }
+
+        /** Índice del hueco que contiene la clave, o -1 si no está. */
+        int indexOf(int key) {
+            int i = spread(key) & mask;
+            while (true) {
+                int k = keys.get(i);
+                if (k == key) {
+                    return i;
+                }
+                if (k == EMPTY_KEY) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final AtomicInteger version;
+        private volatile Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        // Escrito solo con el lock del segmento
+        private volatile int size;
+
+        Segment(AtomicInteger version) {
+            this.version = version;
+        }
+
+        int get(int key) {
+            if (key == EMPTY_KEY) {
+                // Es la marca de hueco libre: indexOf lo encontraría en el primer hueco vacío
+                return NOT_FOUND;
+            }
+            long slot = find(key);
+            return slot == ABSENT ? NOT_FOUND : unitsOf(slot);
+        }
+
+        /** Hueco de la clave en la tabla vigente, o ABSENT si no está. */
+        private long find(int key) {
+            while (true) {
+                Table t = table;
+                int i = t.indexOf(key);
+                if (i < 0) {
+                    return ABSENT;
+                }
+                long slot = t.values.get(i);
+                if (slot != MOVED) {
+                    return slot;
+                }
+                awaitResize();
+            }
+        }
+
+        /**
+         * Aplica {@code -delta} con CAS. Si el resultado baja de 0, con STRICT devuelve
+         * INSUFFICIENT, con CLAMP lo deja en 0 y con RAW lo aplica tal cual.
+         */
+        int update(int key, int delta, int mode, ChangeListener listener) {
+            if (key == EMPTY_KEY) {
+                return NOT_FOUND;
+            }
+            while (true) {
+                Table t = table;
+                int i = t.indexOf(key);
+                if (i < 0) {
+                    return NOT_FOUND;
+                }
+                long slot = t.values.get(i);
+                if (slot == MOVED) {
+                    awaitResize();
+                    continue;
+                }
+                int v = unitsOf(slot);
+                int next = v - delta;
+                if (next < 0 && mode != RAW) {
+                    if (mode == STRICT) {
+                        return INSUFFICIENT;
+                    }
+                    next = 0;
+                }
+                // Leída después del hueco: nunca es menor que la que ya tenía
+                int stamp = version.get();
+                if (t.values.compareAndSet(i, slot, slot(stamp, next))) {
+                    if (next != v) {
+                        listener.changed(key, next - v);
+                        restamp(key, stamp);
+                    }
+                    return next;
+                }
+            }
+        }
+
+        synchronized void put(int key, int units) {
+            Table t = table;
+            int i = t.indexOf(key);
+            int stamp = version.get();
+            if (i >= 0) {
+                // Puede competir con un CAS concurrente; el último en escribir gana
+                t.values.set(i, slot(stamp, units));
+            } else {
+                if ((size + 1) * 4 > (t.mask + 1) * 3) {
+                    t = resize(t);
+                }
+                insert(t, key, slot(stamp, units));
+                size = size + 1;
+            }
+            restamp(key, stamp);
+        }
+
+        /**
+         * Si una lectura incremental abrió versión mientras se escribía el hueco, puede que ya lo
+         * haya recorrido: se le pone la versión nueva para que lo vea la siguiente. Al salir, el
+         * hueco tiene la versión vigente cuando quedó escrito.
+         */
+        private void restamp(int key, int stamp) {
+            while (true) {
+                int current = version.get();
+                if (current == stamp) {
+                    return;
+                }
+                Table t = table;
+                int i = t.indexOf(key);
+                if (i < 0) {
+                    // No debería pasar (las claves no se borran), pero sin hueco no hay nada que poner al día
+                    return;
+                }
+                long slot = t.values.get(i);
+                if (slot == MOVED) {
+                    awaitResize();
+                    continue;
+                }
+                if (versionOf(slot) >= current) {
+                    // Otra escritura posterior ya lo dejó al día
+                    return;
+                }
+                if (t.values.compareAndSet(i, slot, slot(current, unitsOf(slot)))) {
+                    stamp = current;
+                }
+            }
+        }
+
+        synchronized void ensureCapacity(int entries) {
+            Table t = table;
+            while ((long) entries * 4 > (long) (t.mask + 1) * 3) {
+                t = resize(t);
+            }
+        }
+
+        // Con el lock no hay resize a mitad del recorrido; los CAS de los decrementos siguen
+        synchronized void forEach(EntryVisitor visitor) {
+            Table t = table;
+            for (int i = 0; i <= t.mask; i++) {
+                int k = t.keys.get(i);
+                if (k != EMPTY_KEY) {
+                    visitor.visit(k, unitsOf(t.values.get(i)));
+                }
+            }
+        }
+
+        // Sin lock: un hueco que el resize ya movió se lee de la tabla nueva
+        void forEachChangedSince(int since, EntryVisitor visitor) {
+            Table t = table;
+            for (int i = 0; i <= t.mask; i++) {
+                int k = t.keys.get(i);
+                if (k == EMPTY_KEY) {
+                    continue;
+                }
+                long slot = t.values.get(i);
+                if (slot == MOVED) {
+                    slot = find(k);
+                }
+                if (slot != ABSENT && versionOf(slot) >= since) {
+                    visitor.visit(k, unitsOf(slot));
+                }
+            }
+        }
+
+        /** Espera a que termine el resize en curso (el lock lo tiene quien redimensiona). */
+        private void awaitResize() {
+            synchronized (this) {
+                // nada: solo sincroniza con el resize
+            }
+        }
+
+        private Table resize(Table old) {
+            Table bigger = new Table((old.mask + 1) << 1);
+            for (int i = 0; i <= old.mask; i++) {
+                int k = old.keys.get(i);
+                if (k != EMPTY_KEY) {
+                    // Congela el hueco: los CAS que lleguen tarde fallan y reintentan
+                    long slot = old.values.getAndSet(i, MOVED);
+                    insert(bigger, k, slot);
+                }
+            }
+            table = bigger;
+            return bigger;
+        }
+
+        private static void insert(Table t, int key, long slot) {
+            int i = spread(key) & t.mask;
+            while (t.keys.get(i) != EMPTY_KEY) {
+                i = (i + 1) & t.mask;
+            }
+            // Primero el valor y después la clave, para que un lector que vea la clave vea también su valor
+            t.values.set(i, slot);
+            t.keys.set(i, key);
+        }
+    }
+}
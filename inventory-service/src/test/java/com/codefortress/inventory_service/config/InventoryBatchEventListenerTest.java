@@ -0,0 +1,182 @@
+package com.codefortress.inventory_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import com.codefortress.inventory_service.dtos.OrderEvent;
+import com.codefortress.inventory_service.dtos.StockReservation;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ProcessedOrderIndex;
+import com.codefortress.inventory_service.services.ReservationService;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventoryBatchEventListenerTest {
+
+    private final StockChangedProducer stockChangedProducer = mock(StockChangedProducer.class);
+    private final InventoryService inventoryService = new InventoryService(stockChangedProducer);
+    private final ReservationService reservationService = new ReservationService(inventoryService, 60_000);
+    private final ProcessedOrderIndex processedOrders = new ProcessedOrderIndex(new SimpleMeterRegistry(), 1_000, 60_000);
+    private final InventoryBatchEventListener listener =
+            new InventoryBatchEventListener(inventoryService, reservationService, processedOrders, new SimpleMeterRegistry());
+
+    @Test
+    void coalescesDecrementsPerProductAndAcksOnce() {
+        StockReservation reservation = reservationService.reserve(2, 100);
+        OrderEvent reserved = new OrderEvent("o-4", 2, 100);
+        reserved.setReservationId(reservation.getReservationId());
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        listener.handleOrderCreatedBatch(List.of(
+                new OrderEvent("o-1", 1, 5),
+                new OrderEvent("o-2", 1, 7),
+                new OrderEvent("o-3", 3, 1),
+                reserved), ack);
+
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_988);
+        assertThat(inventoryService.getStock(3)).isEqualTo(19_999);
+        // La reserva ya había descontado el stock: confirmarla no lo vuelve a restar
+        assertThat(inventoryService.getStock(2)).isEqualTo(49_900);
+        verify(ack, times(1)).acknowledge();
+        verify(stockChangedProducer).sendStockChanged(eq(1), eq(9_988), anyLong());
+    }
+
+    @Test
+    void dropsRedeliveredOrdersWithinAndAcrossBatches() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        listener.handleOrderCreatedBatch(List.of(new OrderEvent("o-1", 1, 5), new OrderEvent("o-1", 1, 5)), ack);
+        listener.handleOrderCreatedBatch(List.of(new OrderEvent("o-1", 1, 5), new OrderEvent("o-2", 1, 1)), ack);
+
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_994);
+    }
+
+    @Test
+    void recordsEndToEndLatencyOfAppliedOrders() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryBatchEventListener timed =
+                new InventoryBatchEventListener(inventoryService, reservationService, processedOrders, meterRegistry);
+        OrderEvent created = new OrderEvent("o-1", 1, 5);
+        created.setCreatedAt(System.currentTimeMillis() - 250);
+
+        timed.handleOrderCreatedBatch(List.of(created, new OrderEvent("o-2", 1, 1), created), mock(Acknowledgment.class));
+
+        // Solo la orden con createdAt, y una vez aunque llegue repetida
+        Timer endToEnd = meterRegistry.get("inventory.order.e2e").timer();
+        assertThat(endToEnd.count()).isEqualTo(1);
+        assertThat(endToEnd.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(250);
+    }
+
+    @Test
+    void invalidEventFailsAtItsIndexAndTheRetryDoesNotDecrementAgain() {
+        StockReservation reservation = reservationService.reserve(2, 100);
+        OrderEvent reserved = new OrderEvent("o-2", 2, 100);
+        reserved.setReservationId(reservation.getReservationId());
+        List<OrderEvent> batch = List.of(
+                new OrderEvent("o-1", 1, 5),
+                reserved,
+                new OrderEvent("o-3", 1, 0),
+                new OrderEvent("o-4", 3, 1));
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        assertThatThrownBy(() -> listener.handleOrderCreatedBatch(batch, ack))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, ex -> assertThat(ex.getIndex()).isEqualTo(2));
+        // El error handler puede volver a entregar el lote entero
+        assertThatThrownBy(() -> listener.handleOrderCreatedBatch(batch, ack))
+                .isInstanceOf(BatchListenerFailedException.class);
+
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_995);
+        assertThat(inventoryService.getStock(2)).isEqualTo(49_900);
+        assertThat(inventoryService.getStock(3)).isEqualTo(20_000);
+        verify(ack, never()).acknowledge();
+
+        // Con el inválido ya en el DLT sigue el resto
+        listener.handleOrderCreatedBatch(batch.subList(3, 4), ack);
+        assertThat(inventoryService.getStock(3)).isEqualTo(19_999);
+    }
+
+    @Test
+    void aLateEventWhoseStockIsGoneFailsAtItsIndexInsteadOfOverselling() {
+        ReservationService expiring = new ReservationService(inventoryService, 0);
+        InventoryBatchEventListener late =
+                new InventoryBatchEventListener(inventoryService, expiring, processedOrders, new SimpleMeterRegistry());
+        StockReservation reservation = expiring.reserve(3, 15_000);
+        expiring.expireReservations();
+        expiring.reserve(3, 10_000);
+        OrderEvent reserved = new OrderEvent("o-2", 3, 15_000);
+        reserved.setReservationId(reservation.getReservationId());
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        assertThatThrownBy(() -> late.handleOrderCreatedBatch(List.of(new OrderEvent("o-1", 1, 5), reserved), ack))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, ex -> {
+                    assertThat(ex.getIndex()).isEqualTo(1);
+                    // Se reintenta: puede reponerse stock antes de acabar en el DLT
+                    assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class);
+                });
+
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_995);
+        assertThat(inventoryService.getStock(3)).isEqualTo(10_000);
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    void failureAfterCommittingAReservationDoesNotDecrementTwiceOnRetry() {
+        StockReservation reservation = reservationService.reserve(2, 100);
+        OrderEvent reserved = new OrderEvent("o-1", 2, 100);
+        reserved.setReservationId(reservation.getReservationId());
+        List<OrderEvent> batch = List.of(reserved, new OrderEvent("o-2", 1, 5));
+        doThrow(new IllegalStateException("Kafka caído"))
+                .doNothing()
+                .when(stockChangedProducer).sendStockChanged(eq(1), eq(9_995), anyLong());
+
+        assertThatThrownBy(() -> listener.handleOrderCreatedBatch(batch, mock(Acknowledgment.class)))
+                .isInstanceOf(IllegalStateException.class);
+        listener.handleOrderCreatedBatch(batch, mock(Acknowledgment.class));
+
+        assertThat(inventoryService.getStock(2)).isEqualTo(49_900);
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_995);
+    }
+
+    @Test
+    void aDecrementThatFailsHalfwayIsAppliedOnTheRedelivery() {
+        InventoryService failing = spy(inventoryService);
+        InventoryBatchEventListener retried =
+                new InventoryBatchEventListener(failing, reservationService, processedOrders, new SimpleMeterRegistry());
+        // Primera entrega: descuenta el producto 1 y falla antes del 3
+        doAnswer(invocation -> {
+            Map<Integer, Integer> pending = invocation.getArgument(0);
+            inventoryService.decrementStock(Map.of(1, pending.get(1)), invocation.getArgument(1));
+            throw new IllegalStateException("Fallo a mitad del lote");
+        }).doCallRealMethod().when(failing).decrementStock(anyMap(), any(IntConsumer.class));
+        List<OrderEvent> batch = List.of(new OrderEvent("o-1", 1, 5), new OrderEvent("o-2", 3, 2));
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        assertThatThrownBy(() -> retried.handleOrderCreatedBatch(batch, ack)).isInstanceOf(IllegalStateException.class);
+        retried.handleOrderCreatedBatch(batch, ack);
+
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_995);
+        assertThat(inventoryService.getStock(3)).isEqualTo(19_998);
+        verify(ack, times(1)).acknowledge();
+    }
+}
@@ -0,0 +1,82 @@
+package com.codefortress.inventory_service.config;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.support.Acknowledgment;
+
+import com.codefortress.inventory_service.dtos.OrderEvent;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ProcessedOrderIndex;
+import com.codefortress.inventory_service.services.ReservationService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Eventos/s del listener registro a registro frente al listener en lote, llamados
+ * directamente (sin broker): mide el coste de procesar y confirmar, no la red.
+ * {@code mvn test -Dtest=InventoryListenerBenchmark -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryListenerBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 200_000);
+    private static final int BATCH = Integer.getInteger("benchmark.batch", 500);
+
+    @Test
+    void singleVersusBatch() {
+        List<OrderEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new OrderEvent(UUID.randomUUID().toString(), 1 + i % 3, 1));
+        }
+        CountingAck ack = new CountingAck();
+
+        for (int round = 0; round < 2; round++) {
+            InventoryService inventory = new InventoryService(mock(StockChangedProducer.class));
+            ReservationService reservations = new ReservationService(inventory, 30_000);
+            InventoryEventListener single = new InventoryEventListener(inventory, reservations, processedOrders(), new SimpleMeterRegistry());
+            ack.count = 0;
+            long start = System.nanoTime();
+            for (OrderEvent event : events) {
+                single.handleOrderCreated(event, ack);
+            }
+            report(round, "registro a registro", start, ack.count);
+
+            inventory = new InventoryService(mock(StockChangedProducer.class));
+            reservations = new ReservationService(inventory, 30_000);
+            InventoryBatchEventListener batch = new InventoryBatchEventListener(inventory, reservations, processedOrders(), new SimpleMeterRegistry());
+            ack.count = 0;
+            start = System.nanoTime();
+            for (int from = 0; from < EVENTS; from += BATCH) {
+                batch.handleOrderCreatedBatch(events.subList(from, Math.min(from + BATCH, EVENTS)), ack);
+            }
+            report(round, "lote de " + BATCH, start, ack.count);
+        }
+    }
+
+    private static ProcessedOrderIndex processedOrders() {
+        return new ProcessedOrderIndex(new SimpleMeterRegistry(), EVENTS * 2, 600_000);
+    }
+
+    private static void report(int round, String mode, long start, int commits) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // La primera vuelta es de calentamiento
+        if (round > 0) {
+            System.out.printf("%-22s %12.0f eventos/s %8d commits%n", mode, EVENTS / seconds, commits);
+        }
+    }
+
+    private static final class CountingAck implements Acknowledgment {
+        int count;
+
+        @Override
+        public void acknowledge() {
+            count++;
+        }
+    }
+}
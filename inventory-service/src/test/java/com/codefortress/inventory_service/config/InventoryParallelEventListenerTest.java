@@ -0,0 +1,98 @@
+package com.codefortress.inventory_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.codefortress.inventory_service.services.InventoryService;
+
+/**
+ * En modo paralelo un producto lento no frena a los demás de su partición, y el offset
+ * confirmado no pasa del primer registro sin terminar.
+ */
+@SpringBootTest(properties = {
+        // Sin application.yml: no se importa la configuración del config-server
+        "spring.config.name=inventory-parallel-test",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "inventory.listener.mode=parallel",
+        "inventory.listener.concurrency=1"
+})
+@EmbeddedKafka(partitions = 1, kraft = true)
+class InventoryParallelEventListenerTest {
+
+    private static final int FAST_EVENTS = 20;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @Value("${spring.embedded.kafka.brokers}")
+    private String brokers;
+
+    @Test
+    void slowProductDoesNotBlockThePartitionAndHoldsTheCommittedOffset() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(30, TimeUnit.SECONDS))
+                .when(inventoryService).decrementStock(eq(1), anyInt());
+
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(
+                Map.of("bootstrap.servers", brokers), new StringSerializer(), new StringSerializer())) {
+            producer.send(new ProducerRecord<>(OrderCreatedTopics.MAIN, "o-0",
+                    "{\"orderId\":\"o-0\",\"productId\":1,\"quantity\":1}")).get();
+            for (int i = 1; i <= FAST_EVENTS; i++) {
+                producer.send(new ProducerRecord<>(OrderCreatedTopics.MAIN, "o-" + i,
+                        "{\"orderId\":\"o-" + i + "\",\"productId\":" + (2 + i % 3) + ",\"quantity\":1}")).get();
+            }
+        }
+
+        // Los productos 2, 3 y 4 se procesan aunque el primer registro sigue en curso
+        verify(inventoryService, timeout(30_000).times(FAST_EVENTS)).decrementStock(
+                intThat(productId -> productId > 1), eq(1));
+        Thread.sleep(500);
+        assertThat(committedOffset()).isZero();
+
+        release.countDown();
+        awaitCommittedOffset(FAST_EVENTS + 1);
+    }
+
+    private long committedOffset() throws Exception {
+        try (AdminClient admin = AdminClient.create(Map.of("bootstrap.servers", brokers))) {
+            Map<TopicPartition, OffsetAndMetadata> offsets = admin.listConsumerGroupOffsets("inventory-group")
+                    .partitionsToOffsetAndMetadata().get(10, TimeUnit.SECONDS);
+            OffsetAndMetadata committed = offsets.get(new TopicPartition(OrderCreatedTopics.MAIN, 0));
+            return committed == null ? 0 : committed.offset();
+        }
+    }
+
+    private void awaitCommittedOffset(long expected) throws Exception {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+        while (committedOffset() < expected && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertThat(committedOffset()).isEqualTo(expected);
+    }
+}
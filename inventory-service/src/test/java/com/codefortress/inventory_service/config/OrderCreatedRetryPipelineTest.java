@@ -0,0 +1,91 @@
+package com.codefortress.inventory_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.timeout;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.codefortress.commons.kafka.DeadLetterReplayer;
+import com.codefortress.inventory_service.services.InventoryService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Un evento que falla siempre recorre los temas de reintento, termina en el DLT y el replay
+ * lo vuelve a entregar al listener.
+ */
+@SpringBootTest(properties = {
+        // Sin application.yml: no se importa la configuración del config-server
+        "spring.config.name=order-created-retry-test",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "inventory.retry.attempts=3",
+        "inventory.retry.delay-ms=200",
+        "inventory.retry.multiplier=2",
+        "inventory.retry.max-delay-ms=1000"
+})
+@EmbeddedKafka(partitions = 1, kraft = true)
+class OrderCreatedRetryPipelineTest {
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @Autowired
+    private DeadLetterReplayer deadLetterReplayer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.embedded.kafka.brokers}")
+    private String brokers;
+
+    @Test
+    void failingEventIsRetriedSentToDltAndReplayed() throws Exception {
+        doThrow(new RuntimeException("Inventario no disponible"))
+                .when(inventoryService).decrementStock(anyInt(), anyInt());
+
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(
+                Map.of("bootstrap.servers", brokers), new StringSerializer(), new StringSerializer())) {
+            producer.send(new ProducerRecord<>(OrderCreatedTopics.MAIN, "1",
+                    "{\"orderId\":\"o-1\",\"productId\":1,\"quantity\":2}")).get();
+        }
+
+        // Intento original y dos reintentos
+        verify(inventoryService, timeout(30_000).times(3)).decrementStock(1, 2);
+        awaitDeadLetters(1);
+
+        doNothing().when(inventoryService).decrementStock(anyInt(), anyInt());
+        assertThat(deadLetterReplayer.replay(10)).isEqualTo(1);
+        verify(inventoryService, timeout(30_000).times(4)).decrementStock(1, 2);
+
+        // El avance del replay queda confirmado: no se re-inyecta dos veces
+        assertThat(deadLetterReplayer.replay(10)).isZero();
+    }
+
+    private void awaitDeadLetters(double expected) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+        while (meterRegistry.counter("inventory.dlt").count() < expected && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertThat(meterRegistry.counter("inventory.dlt").count()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,83 @@
+package com.codefortress.inventory_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.Assignment;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.GroupSubscription;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.Subscription;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import com.codefortress.commons.sharding.ShardRing;
+
+class ShardPartitionAssignorTest {
+
+    private static final int PARTITIONS = 12;
+
+    @Test
+    void eachShardGetsTheOrderCreatedPartitionsOfItsProducts() {
+        Map<String, Subscription> members = new HashMap<>();
+        members.put("a-0", subscription(0));
+        members.put("a-1", subscription(0));
+        members.put("b-0", subscription(1));
+
+        Map<String, Assignment> assignment = assignor(0).assign(cluster(), new GroupSubscription(members))
+                .groupAssignment();
+
+        ShardRing ring = new ShardRing(2, PARTITIONS);
+        List<TopicPartition> all = new ArrayList<>();
+        assignment.forEach((member, assigned) -> {
+            int shard = member.startsWith("a") ? 0 : 1;
+            assigned.partitions().forEach(tp -> assertThat(ring.shardOfPartition(tp.partition())).isEqualTo(shard));
+            all.addAll(assigned.partitions());
+        });
+        assertThat(all).hasSize(PARTITIONS).doesNotHaveDuplicates();
+        // Dentro del shard 0 las particiones se reparten entre sus dos consumidores
+        assertThat(assignment.get("a-0").partitions()).isNotEmpty();
+        assertThat(assignment.get("a-1").partitions()).isNotEmpty();
+    }
+
+    @Test
+    void partitionsOfAShardWithoutConsumersStayUnassigned() {
+        Map<String, Assignment> assignment = assignor(0)
+                .assign(cluster(), new GroupSubscription(Map.of("a-0", subscription(0))))
+                .groupAssignment();
+
+        ShardRing ring = new ShardRing(2, PARTITIONS);
+        assertThat(assignment.get("a-0").partitions())
+                .allMatch(tp -> ring.shardOfPartition(tp.partition()) == 0)
+                .isNotEmpty()
+                .hasSizeLessThan(PARTITIONS);
+    }
+
+    private static ShardPartitionAssignor assignor(int shard) {
+        ShardPartitionAssignor assignor = new ShardPartitionAssignor();
+        assignor.configure(Map.of(
+                ShardPartitionAssignor.SHARD_CONFIG, shard,
+                ShardPartitionAssignor.SHARDS_CONFIG, 2,
+                ShardPartitionAssignor.PARTITIONS_CONFIG, PARTITIONS));
+        return assignor;
+    }
+
+    private static Subscription subscription(int shard) {
+        return new Subscription(List.of(OrderCreatedTopics.MAIN), assignor(shard).subscriptionUserData(Set.of()));
+    }
+
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            partitions.add(new PartitionInfo(OrderCreatedTopics.MAIN, partition, node, new Node[] { node }, new Node[] { node }));
+        }
+        return new Cluster("test", List.of(node), partitions, Set.of(), Set.of());
+    }
+}
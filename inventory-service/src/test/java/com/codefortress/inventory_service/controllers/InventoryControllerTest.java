@@ -0,0 +1,78 @@
+package com.codefortress.inventory_service.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.codefortress.inventory_service.config.InventorySharding;
+import com.codefortress.inventory_service.config.StockChangedProducer;
+import com.codefortress.inventory_service.dtos.ReservationResult;
+import com.codefortress.inventory_service.dtos.ReserveStockRequest;
+import com.codefortress.inventory_service.services.InventoryService;
+import com.codefortress.inventory_service.services.ReservationService;
+
+class InventoryControllerTest {
+
+    private final InventoryService inventoryService = new InventoryService(mock(StockChangedProducer.class), false);
+    private final InventoryController controller = new InventoryController(inventoryService,
+            new ReservationService(inventoryService, 60_000), InventorySharding.unsharded());
+
+    @Test
+    void incrementalReadsNeedTheSameEpoch() throws Exception {
+        ResponseEntity<StreamingResponseBody> first = controller.streamStock(0, null, null, null);
+        int version = Integer.parseInt(first.getHeaders().getFirst(InventoryController.VERSION_HEADER));
+        String epoch = first.getHeaders().getFirst(InventoryController.EPOCH_HEADER);
+        inventoryService.decrementStock(2, 5);
+
+        assertThat(body(controller.streamStock(version, epoch, null, null)))
+                .isEqualTo("{\"productId\":2,\"stock\":49995}\n");
+        // Versión de un arranque anterior: la tabla entera
+        assertThat(body(controller.streamStock(version, "otra", null, null)).split("\n")).hasSize(3);
+        assertThat(body(controller.streamStock(version, null, null, null)).split("\n")).hasSize(3);
+    }
+
+    @Test
+    void versionsAheadOfTheCurrentOneGetTheWholeTable() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.streamStock(1_000, inventoryService.stockEpoch(), null, null);
+
+        assertThat(body(response).split("\n")).hasSize(3);
+        assertThat(response.getHeaders().getFirst(InventoryController.EPOCH_HEADER)).isEqualTo(inventoryService.stockEpoch());
+    }
+
+    @Test
+    void batchLinesWithoutProductAreInvalidEvenWithShards() {
+        InventorySharding probe = new InventorySharding(2, 0, 12);
+        InventorySharding sharding = probe.owns(1) ? probe : new InventorySharding(2, 1, 12);
+        InventoryController sharded = new InventoryController(inventoryService,
+                new ReservationService(inventoryService, 60_000), sharding);
+
+        List<ReservationResult> results = sharded.reserveAll(
+                Arrays.asList(null, new ReserveStockRequest(null, 1), new ReserveStockRequest(1, 5))).getBody();
+
+        assertThat(results).extracting(ReservationResult::getStatus)
+                .containsExactly(ReservationResult.INVALID, ReservationResult.INVALID, ReservationResult.RESERVED);
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_995);
+    }
+
+    @Test
+    void emptyProductIdsAreNotFound() {
+        // GET /api/inventory?productIds=1,,99 llega con un null en medio
+        assertThat(controller.getStocks(Arrays.asList(1, null, 99)).getBody()).containsExactly(entry(1, 10_000));
+        assertThat(inventoryService.getStock(null)).isNull();
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,54 @@
+package com.codefortress.inventory_service.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class StockStreamTest {
+
+    @Test
+    void writesOneJsonLinePerProduct() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StockStream stream = new StockStream(out, false, null);
+        stream.visit(1, 10_000);
+        stream.visit(-42, 0);
+        stream.finish();
+
+        assertThat(out.toString(StandardCharsets.US_ASCII))
+                .isEqualTo("{\"productId\":1,\"stock\":10000}\n{\"productId\":-42,\"stock\":0}\n");
+    }
+
+    @Test
+    void binaryRowsAreTwoIntsAndTheFilterSkipsOtherProducts() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StockStream stream = new StockStream(out, true, new int[] { 3000, 7 });
+        for (int productId = 0; productId < 5_000; productId++) {
+            stream.visit(productId, productId * 2);
+        }
+        stream.finish();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(out.size()).isEqualTo(16);
+        assertThat(new int[] { in.readInt(), in.readInt(), in.readInt(), in.readInt() })
+                .containsExactly(7, 14, 3000, 6000);
+    }
+
+    @Test
+    void largeTablesAreWrittenThroughTheBuffer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StockStream stream = new StockStream(out, false, null);
+        for (int productId = 0; productId < 10_000; productId++) {
+            stream.visit(productId, Integer.MAX_VALUE);
+        }
+        stream.finish();
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertThat(lines).hasSize(10_000);
+        assertThat(lines[9_999]).isEqualTo("{\"productId\":9999,\"stock\":2147483647}");
+    }
+}
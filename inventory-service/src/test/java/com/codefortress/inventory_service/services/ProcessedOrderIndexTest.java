@@ -0,0 +1,89 @@
+package com.codefortress.inventory_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProcessedOrderIndexTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void detectsRecordedOrdersAndCountsDuplicates() {
+        ProcessedOrderIndex index = new ProcessedOrderIndex(meterRegistry, 1_000, 60_000);
+
+        assertThat(index.isDuplicate("o-1")).isFalse();
+        index.record("o-1");
+
+        assertThat(index.isDuplicate("o-1")).isTrue();
+        assertThat(index.isDuplicate("o-2")).isFalse();
+        assertThat(meterRegistry.get("inventory.dedup.duplicates").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("inventory.dedup.entries").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void memoryStaysBoundedAndOldestGenerationIsForgotten() {
+        ProcessedOrderIndex index = new ProcessedOrderIndex(meterRegistry, 1_000, 60_000);
+        long memory = index.memoryBytes();
+        String first = UUID.randomUUID().toString();
+        index.record(first);
+
+        for (int i = 0; i < 10_000; i++) {
+            index.record(UUID.randomUUID().toString());
+        }
+
+        assertThat(index.memoryBytes()).isEqualTo(memory);
+        assertThat(index.size()).isLessThanOrEqualTo(1_000);
+        assertThat(index.isDuplicate(first)).isFalse();
+    }
+
+    @Test
+    void keepsTheWholeRecentWindow() {
+        ProcessedOrderIndex index = new ProcessedOrderIndex(meterRegistry, 1_000, 60_000);
+        String[] recent = new String[500];
+        for (int i = 0; i < recent.length; i++) {
+            recent[i] = UUID.randomUUID().toString();
+            index.record(recent[i]);
+        }
+
+        for (String orderId : recent) {
+            assertThat(index.isDuplicate(orderId)).isTrue();
+        }
+    }
+
+    @Test
+    void recordedOrdersSurviveARestart(@TempDir Path dir) {
+        StockJournal journal = journal(dir);
+        journal.open(new StockStore(1));
+        ProcessedOrderIndex index = new ProcessedOrderIndex(meterRegistry, 1_000, 60_000, journal);
+        index.record("o-1");
+        journal.close();
+
+        // Foto con o-1 y después un journal con o-2, perdido sin cerrar
+        StockJournal reopened = journal(dir);
+        reopened.open(new StockStore(1));
+        ProcessedOrderIndex afterClose = new ProcessedOrderIndex(meterRegistry, 1_000, 60_000, reopened);
+        afterClose.record("o-2");
+        reopened.flush();
+        reopened.halt();
+
+        StockJournal third = journal(dir);
+        third.open(new StockStore(1));
+        ProcessedOrderIndex afterCrash = new ProcessedOrderIndex(meterRegistry, 1_000, 60_000, third);
+        assertThat(afterCrash.isDuplicate("o-1")).isTrue();
+        assertThat(afterCrash.isDuplicate("o-2")).isTrue();
+        assertThat(afterCrash.isDuplicate("o-3")).isFalse();
+        third.close();
+    }
+
+    private static StockJournal journal(Path dir) {
+        return new StockJournal(new SimpleMeterRegistry(), dir.toString(), Duration.ofMillis(1), Duration.ofHours(1), 1024, 1_000);
+    }
+}
@@ -0,0 +1,163 @@
+package com.codefortress.inventory_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.codefortress.inventory_service.config.InventorySharding;
+import com.codefortress.inventory_service.config.StockChangedProducer;
+import com.codefortress.inventory_service.dtos.ReservationResult;
+import com.codefortress.inventory_service.dtos.ReserveStockRequest;
+import com.codefortress.inventory_service.dtos.StockReservation;
+
+class ReservationServiceTest {
+
+    private final InventoryService inventoryService = new InventoryService(mock(StockChangedProducer.class));
+
+    @Test
+    void reserveHoldsStockAndReleaseReturnsIt() {
+        ReservationService reservations = new ReservationService(inventoryService, 60_000);
+
+        StockReservation reservation = reservations.reserve(1, 400);
+        assertThat(inventoryService.getStock(1)).isEqualTo(9_600);
+
+        assertThat(reservations.release(reservation.getReservationId())).isTrue();
+        assertThat(inventoryService.getStock(1)).isEqualTo(10_000);
+        assertThat(reservations.release(reservation.getReservationId())).isFalse();
+    }
+
+    @Test
+    void commitKeepsStockDeducted() {
+        ReservationService reservations = new ReservationService(inventoryService, 60_000);
+
+        StockReservation reservation = reservations.reserve(2, 50);
+        assertThat(reservations.commit(reservation.getReservationId())).isTrue();
+        reservations.expireReservations();
+
+        assertThat(inventoryService.getStock(2)).isEqualTo(49_950);
+    }
+
+    @Test
+    void expiredReservationsGiveStockBack() {
+        ReservationService reservations = new ReservationService(inventoryService, 0);
+
+        StockReservation reservation = reservations.reserve(3, 20_000);
+        reservations.expireReservations();
+
+        assertThat(inventoryService.getStock(3)).isEqualTo(20_000);
+        assertThat(reservations.commit(reservation.getReservationId())).isFalse();
+    }
+
+    @Test
+    void aLateEventReacquiresItsUnitsWhileTheyAreStillFree() {
+        ReservationService reservations = new ReservationService(inventoryService, 0);
+
+        StockReservation reservation = reservations.reserve(3, 500);
+        reservations.expireReservations();
+
+        assertThat(reservations.commitOrReacquire(reservation.getReservationId(), 3, 500)).isTrue();
+        assertThat(inventoryService.getStock(3)).isEqualTo(19_500);
+    }
+
+    @Test
+    void aLateEventDoesNotOversellStockTakenByAnotherReservation() {
+        ReservationService reservations = new ReservationService(inventoryService, 0);
+
+        StockReservation late = reservations.reserve(3, 15_000);
+        reservations.expireReservations();
+        // Las unidades devueltas ya las tiene otra orden
+        reservations.reserve(3, 10_000);
+
+        assertThat(reservations.commitOrReacquire(late.getReservationId(), 3, 15_000)).isFalse();
+        assertThat(inventoryService.getStock(3)).isEqualTo(10_000);
+    }
+
+    @Test
+    void rejectsUnknownProductsAndInsufficientStock() {
+        ReservationService reservations = new ReservationService(inventoryService, 60_000);
+
+        assertThatThrownBy(() -> reservations.reserve(99, 1))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThatThrownBy(() -> reservations.reserve(1, 10_001))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    @Test
+    void reserveAllResolvesEachLineInOrder() {
+        ReservationService reservations = new ReservationService(inventoryService, 60_000);
+
+        List<ReservationResult> results = reservations.reserveAll(Arrays.asList(
+                new ReserveStockRequest(1, 9_000),
+                new ReserveStockRequest(1, 2_000),
+                new ReserveStockRequest(99, 1),
+                new ReserveStockRequest(2, null),
+                new ReserveStockRequest(1, 1_000)));
+
+        assertThat(results).extracting(ReservationResult::getStatus).containsExactly(
+                ReservationResult.RESERVED,
+                ReservationResult.INSUFFICIENT_STOCK,
+                ReservationResult.NOT_FOUND,
+                ReservationResult.INVALID,
+                ReservationResult.RESERVED);
+        assertThat(inventoryService.getStock(1)).isZero();
+        assertThat(inventoryService.getStock(2)).isEqualTo(50_000);
+    }
+
+    @Test
+    void openReservationsSurviveACrash(@TempDir Path dir) {
+        StockJournal journal = journal(dir);
+        InventoryService inventory = new InventoryService(mock(StockChangedProducer.class), false, journal);
+        ReservationService reservations = new ReservationService(inventory, 60_000, InventorySharding.unsharded(), journal);
+        StockReservation open = reservations.reserve(1, 400);
+        StockReservation committed = reservations.reserve(1, 100);
+        reservations.commit(committed.getReservationId());
+        journal.flush();
+        journal.halt();
+
+        StockJournal reopened = journal(dir);
+        InventoryService recovered = new InventoryService(mock(StockChangedProducer.class), false, reopened);
+        ReservationService restored = new ReservationService(recovered, 60_000, InventorySharding.unsharded(), reopened);
+
+        assertThat(recovered.getStock(1)).isEqualTo(9_500);
+        assertThat(restored.commit(committed.getReservationId())).isFalse();
+        assertThat(restored.release(open.getReservationId())).isTrue();
+        assertThat(recovered.getStock(1)).isEqualTo(9_900);
+        reopened.close();
+    }
+
+    @Test
+    void reservationsInTheSnapshotExpireAfterRestart(@TempDir Path dir) {
+        StockJournal journal = journal(dir);
+        InventoryService inventory = new InventoryService(mock(StockChangedProducer.class), false, journal);
+        ReservationService reservations = new ReservationService(inventory, 0, InventorySharding.unsharded(), journal);
+        reservations.reserve(2, 50);
+        journal.close();
+
+        StockJournal reopened = journal(dir);
+        InventoryService recovered = new InventoryService(mock(StockChangedProducer.class), false, reopened);
+        ReservationService restored = new ReservationService(recovered, 0, InventorySharding.unsharded(), reopened);
+        assertThat(recovered.getStock(2)).isEqualTo(49_950);
+
+        restored.expireReservations();
+        assertThat(recovered.getStock(2)).isEqualTo(50_000);
+        reopened.close();
+    }
+
+    private static StockJournal journal(Path dir) {
+        return new StockJournal(new SimpleMeterRegistry(), dir.toString(), Duration.ofMillis(1), Duration.ofHours(1), 1024);
+    }
+}
@@ -0,0 +1,206 @@
+package com.codefortress.inventory_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StockJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysTheJournalAfterACrash() {
+        StockStore store = new StockStore(4);
+        StockJournal journal = journal(Duration.ofHours(1));
+        journal.open(store);
+        store.put(1, 100);
+        store.put(2, 5);
+        store.tryDecrement(1, 30);
+        store.decrementClamped(2, 8);
+        store.increment(1, 10);
+        journal.flush();
+        journal.halt();
+
+        StockStore recovered = new StockStore(4);
+        StockJournal reopened = journal(Duration.ofHours(1));
+        reopened.open(recovered);
+
+        assertThat(recovered.get(1)).isEqualTo(80);
+        assertThat(recovered.get(2)).isZero();
+        reopened.close();
+    }
+
+    @Test
+    void deltasEnqueuedOutOfOrderRecoverTheRealStock() {
+        StockStore store = new StockStore(1);
+        StockJournal journal = journal(Duration.ofHours(1));
+        journal.open(store);
+        store.put(1, 0);
+        // Desde 0 un hilo suma 3 y después otro resta 3, pero el -3 se encola primero
+        journal.changed(1, -3);
+        journal.changed(1, 3);
+        journal.flush();
+        journal.halt();
+
+        StockStore replayed = new StockStore(1);
+        StockJournal reopened = journal(Duration.ofHours(1));
+        reopened.open(replayed);
+        assertThat(replayed.get(1)).isZero();
+        // La foto final sale de la copia del journal, que tiene que coincidir
+        reopened.close();
+
+        StockStore fromSnapshot = new StockStore(1);
+        StockJournal third = journal(Duration.ofHours(1));
+        third.open(fromSnapshot);
+        assertThat(fromSnapshot.get(1)).isZero();
+        third.close();
+    }
+
+    @Test
+    void closeTakesASnapshotAndDropsTheJournalsItCovers() throws Exception {
+        StockStore store = new StockStore(4);
+        StockJournal journal = journal(Duration.ofHours(1));
+        journal.open(store);
+        for (int productId = 1; productId <= 10_000; productId++) {
+            store.put(productId, productId);
+        }
+        journal.close();
+
+        assertThat(files("snapshot-")).containsExactly("snapshot-2.dat");
+        assertThat(files("journal-")).containsExactly("journal-2.log");
+
+        // Foto más un journal posterior
+        StockStore second = new StockStore(4);
+        StockJournal reopened = journal(Duration.ofHours(1));
+        reopened.open(second);
+        assertThat(second.size()).isEqualTo(10_000);
+        second.tryDecrement(7, 7);
+        reopened.flush();
+        reopened.halt();
+
+        StockStore recovered = new StockStore(4);
+        StockJournal third = journal(Duration.ofHours(1));
+        third.open(recovered);
+        assertThat(recovered.size()).isEqualTo(10_000);
+        assertThat(recovered.get(7)).isZero();
+        assertThat(recovered.get(9_999)).isEqualTo(9_999);
+        third.close();
+    }
+
+    @Test
+    void periodicSnapshotsMatchConcurrentWrites() throws Exception {
+        StockStore store = new StockStore(4);
+        StockJournal journal = journal(Duration.ofMillis(20));
+        journal.open(store);
+        for (int productId = 1; productId <= 100; productId++) {
+            store.put(productId, 1_000_000);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            writers.add(pool.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    int productId = 1 + (i + offset) % 100;
+                    if (i % 5 == 0) {
+                        store.increment(productId, 2);
+                    } else {
+                        store.tryDecrement(productId, 1);
+                    }
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        pool.shutdown();
+        journal.flush();
+        journal.halt();
+
+        StockStore recovered = new StockStore(4);
+        StockJournal reopened = journal(Duration.ofHours(1));
+        reopened.open(recovered);
+        for (int productId = 1; productId <= 100; productId++) {
+            assertThat(recovered.get(productId)).as("producto %d", productId).isEqualTo(store.get(productId));
+        }
+        reopened.close();
+    }
+
+    @Test
+    void withoutDirectoryKeepsStockInMemoryOnly() throws Exception {
+        StockStore store = new StockStore(1);
+        StockJournal.inMemory().open(store);
+        store.put(1, 10);
+
+        assertThat(store.get(1)).isEqualTo(10);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void aDiskErrorIsReportedInsteadOfDroppingChangesSilently() throws Exception {
+        Path store = dir.resolve("store");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StockStore stock = new StockStore(1);
+        // Foto en cada vuelta del hilo: la siguiente tras borrar el directorio falla
+        StockJournal journal = new StockJournal(meterRegistry, store.toString(), Duration.ofMillis(1), Duration.ZERO, 1024);
+        journal.open(stock);
+        stock.put(1, 10);
+        journal.flush();
+        assertThat(journal.failed()).isFalse();
+
+        // El hilo puede estar rotando el journal a la vez: se borra hasta que no queda nada
+        while (Files.exists(store)) {
+            try (Stream<Path> files = Files.list(store)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+                Files.delete(store);
+            } catch (IOException ex) {
+                // Apareció otro fichero entre medias
+            }
+        }
+        stock.put(2, 5);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!journal.failed() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(journal.failed()).isTrue();
+        assertThat(meterRegistry.get("inventory.store.journal.failed").gauge().value()).isEqualTo(1);
+
+        double dropped = meterRegistry.get("inventory.store.journal.dropped").counter().count();
+        stock.put(3, 1);
+        assertThat(meterRegistry.get("inventory.store.journal.dropped").counter().count()).isEqualTo(dropped + 1);
+        journal.close();
+    }
+
+    private StockJournal journal(Duration snapshotInterval) {
+        return new StockJournal(new SimpleMeterRegistry(), dir.toString(), Duration.ofMillis(1), snapshotInterval, 1024);
+    }
+
+    private List<String> files(String prefix) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.codefortress.inventory_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class StockStoreTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void tryDecrementNeverOversells() throws Exception {
+        StockStore store = new StockStore(4);
+        store.put(1, 100_000);
+
+        List<Integer> sold = runConcurrently(() -> {
+            int units = 0;
+            while (store.tryDecrement(1, 3) >= 0) {
+                units += 3;
+            }
+            return units;
+        });
+
+        int totalSold = sold.stream().mapToInt(Integer::intValue).sum();
+        assertThat(totalSold).isEqualTo(99_999);
+        assertThat(store.get(1)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDecrementsAndIncrementsLoseNoUpdates() throws Exception {
+        StockStore store = new StockStore(2);
+        for (int p = 0; p < 64; p++) {
+            store.put(p, 1_000_000);
+        }
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                int productId = i & 63;
+                store.tryDecrement(productId, 2);
+                store.increment(productId, 1);
+            }
+            return 0;
+        });
+
+        for (int p = 0; p < 64; p++) {
+            // Cada hilo toca 782 veces los productos 0-15 y 781 veces el resto (neto -1 por vuelta)
+            long perThread = 50_000 / 64 + (p < 50_000 % 64 ? 1 : 0);
+            assertThat(store.get(p)).isEqualTo((int) (1_000_000L - THREADS * perThread));
+        }
+    }
+
+    @Test
+    void decrementsSurviveConcurrentResizes() throws Exception {
+        StockStore store = new StockStore(1);
+        store.put(-7, 1_000_000);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        // Un hilo inserta miles de productos forzando resizes mientras el resto decrementa
+        futures.add(pool.submit(() -> {
+            await(start);
+            for (int p = 1; p <= 20_000; p++) {
+                store.put(p, p);
+            }
+            return null;
+        }));
+        for (int t = 1; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                await(start);
+                for (int i = 0; i < 10_000; i++) {
+                    store.tryDecrement(-7, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(store.get(-7)).isEqualTo(1_000_000 - (THREADS - 1) * 10_000);
+        assertThat(store.size()).isEqualTo(20_001);
+        for (int p = 1; p <= 20_000; p++) {
+            assertThat(store.get(p)).isEqualTo(p);
+        }
+    }
+
+    @Test
+    void missingProductsAndClampedDecrements() {
+        StockStore store = new StockStore();
+        store.put(5, 3);
+
+        assertThat(store.get(42)).isEqualTo(StockStore.NOT_FOUND);
+        assertThat(store.tryDecrement(42, 1)).isEqualTo(StockStore.NOT_FOUND);
+        assertThat(store.tryDecrement(5, 4)).isEqualTo(StockStore.INSUFFICIENT);
+        assertThat(store.decrementClamped(5, 4)).isZero();
+        assertThat(store.increment(5, 2)).isEqualTo(2);
+    }
+
+    @Test
+    void reservedKeyIsNeverFound() {
+        StockStore store = new StockStore(1);
+        store.put(5, 3);
+
+        assertThat(store.get(Integer.MIN_VALUE)).isEqualTo(StockStore.NOT_FOUND);
+        assertThat(store.tryDecrement(Integer.MIN_VALUE, 1)).isEqualTo(StockStore.NOT_FOUND);
+        assertThat(store.decrementClamped(Integer.MIN_VALUE, 1)).isEqualTo(StockStore.NOT_FOUND);
+        assertThat(store.increment(Integer.MIN_VALUE, 1)).isEqualTo(StockStore.NOT_FOUND);
+        assertThat(store.get(5)).isEqualTo(3);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void listenerReceivesTheDeltaActuallyApplied() {
+        StockStore store = new StockStore(1);
+        List<String> changes = new ArrayList<>();
+        store.setListener(new StockStore.ChangeListener() {
+            @Override
+            public void put(int productId, int units) {
+                changes.add("put " + productId + "=" + units);
+            }
+
+            @Override
+            public void changed(int productId, int delta) {
+                changes.add(productId + ":" + delta);
+            }
+        });
+
+        store.put(5, 3);
+        store.decrementClamped(5, 10);
+        store.tryDecrement(5, 1);
+        store.increment(5, 4);
+
+        assertThat(changes).containsExactly("put 5=3", "5:-3", "5:4");
+    }
+
+    @Test
+    void ensureCapacityKeepsEntriesAndForEachVisitsAll() {
+        StockStore store = new StockStore(4);
+        for (int productId = 1; productId <= 1_000; productId++) {
+            store.put(productId, productId * 2);
+        }
+        store.ensureCapacity(100_000);
+
+        long[] sum = new long[1];
+        store.forEach((productId, units) -> sum[0] += units - productId * 2L);
+        assertThat(sum[0]).isZero();
+        assertThat(store.size()).isEqualTo(1_000);
+        assertThat(store.get(777)).isEqualTo(1_554);
+    }
+
+    @Test
+    void incrementalReadsOnlyVisitWhatChangedSinceTheirVersion() {
+        StockStore store = new StockStore(4);
+        for (int productId = 1; productId <= 10; productId++) {
+            store.put(productId, 100);
+        }
+
+        int first = store.nextVersion();
+        Map<Integer, Integer> all = new HashMap<>();
+        store.forEachChangedSince(0, all::put);
+        store.tryDecrement(3, 5);
+        store.increment(7, 1);
+        store.tryDecrement(9, 1_000);
+
+        int second = store.nextVersion();
+        Map<Integer, Integer> changed = new HashMap<>();
+        store.forEachChangedSince(first, changed::put);
+        Map<Integer, Integer> none = new HashMap<>();
+        store.forEachChangedSince(second, none::put);
+
+        assertThat(all).hasSize(10);
+        assertThat(changed).containsOnly(Map.entry(3, 95), Map.entry(7, 101));
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void incrementalReadsMissNoChangeUnderConcurrentWrites() throws Exception {
+        StockStore store = new StockStore(2);
+        for (int productId = 0; productId < 64; productId++) {
+            store.put(productId, 1_000_000);
+        }
+        Map<Integer, Integer> mirror = new HashMap<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        Future<Integer> since = reader.submit(() -> {
+            int version = 0;
+            while (writing.get()) {
+                int next = store.nextVersion();
+                store.forEachChangedSince(version, mirror::put);
+                version = next;
+            }
+            return version;
+        });
+
+        AtomicInteger newProducts = new AtomicInteger(1_000);
+        runConcurrently(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                store.tryDecrement(i & 63, 1);
+                if ((i & 255) == 0) {
+                    // Altas que fuerzan resizes durante las lecturas
+                    store.put(newProducts.getAndIncrement(), i);
+                }
+            }
+            return 0;
+        });
+        writing.set(false);
+        int version = since.get(10, TimeUnit.SECONDS);
+        reader.shutdown();
+        store.forEachChangedSince(version, mirror::put);
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        store.forEach(expected::put);
+        assertThat(mirror).isEqualTo(expected);
+    }
+
+    private static List<Integer> runConcurrently(Callable<Integer> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                await(start);
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        latch.await();
+    }
+}
@@ -0,0 +1,143 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+// Suite de carga: órdenes con tasa de llegada fija, en rampa o sostenida (soak), más lecturas
+// de stock en paralelo. Los umbrales de p95/p99 y de errores hacen fallar la ejecución.
+// Uso: k6 run -e PROFILE=ramping -e PEAK_RATE=2000 /scripts/load-suite.js
+// Perfiles: smoke | constant | ramping | soak
+const BASE_URL = __ENV.BASE_URL || 'http://gateway:8080';
+const PROFILE = __ENV.PROFILE || 'constant';
+
+const RATE = intEnv('RATE', 200); // órdenes/s en constant y soak
+const PEAK_RATE = intEnv('PEAK_RATE', 2000); // órdenes/s en el pico de ramping
+const READ_RATE = intEnv('READ_RATE', 400); // lecturas de stock/s
+const DURATION = __ENV.DURATION || '5m';
+const SOAK_DURATION = __ENV.SOAK_DURATION || '1h';
+
+// Sesgo hacia un producto caliente: HOT_RATIO del tráfico va al primero de PRODUCTS
+const PRODUCTS = (__ENV.PRODUCTS || '1,2,3').split(',');
+const HOT_RATIO = floatEnv('HOT_RATIO', 0.8);
+const QUANTITY = intEnv('QUANTITY', 1);
+
+const P95_MS = intEnv('P95_MS', 500);
+const P99_MS = intEnv('P99_MS', 1000);
+const READ_P95_MS = intEnv('READ_P95_MS', 200);
+const READ_P99_MS = intEnv('READ_P99_MS', 500);
+const MAX_ERROR_RATE = floatEnv('MAX_ERROR_RATE', 0.01);
+
+// Un 400 es una orden rechazada por falta de stock: respuesta válida, no error del sistema
+http.setResponseCallback(http.expectedStatuses(200, 400));
+const ordersRejected = new Counter('orders_rejected');
+
+export const options = {
+  scenarios: scenarios(PROFILE),
+  thresholds: {
+    'http_req_failed{scenario:orders}': [`rate<${MAX_ERROR_RATE}`],
+    'http_req_failed{scenario:stock_reads}': [`rate<${MAX_ERROR_RATE}`],
+    'http_req_duration{scenario:orders,expected_response:true}': [`p(95)<${P95_MS}`, `p(99)<${P99_MS}`],
+    'http_req_duration{scenario:stock_reads,expected_response:true}': [`p(95)<${READ_P95_MS}`, `p(99)<${READ_P99_MS}`],
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+function scenarios(profile) {
+  switch (profile) {
+    case 'smoke':
+      return {
+        orders: constant('createOrder', 1, '30s'),
+        stock_reads: constant('readStock', 1, '30s'),
+      };
+    case 'constant':
+      return {
+        orders: constant('createOrder', RATE, DURATION),
+        stock_reads: constant('readStock', READ_RATE, DURATION),
+      };
+    case 'ramping':
+      // Escalones hasta PEAK_RATE, meseta en el pico y bajada (6m30s en total)
+      return {
+        orders: {
+          executor: 'ramping-arrival-rate',
+          exec: 'createOrder',
+          startRate: Math.max(1, Math.floor(PEAK_RATE / 20)),
+          timeUnit: '1s',
+          preAllocatedVUs: 200,
+          maxVUs: 5000,
+          stages: [
+            { target: Math.floor(PEAK_RATE / 4), duration: '1m' },
+            { target: Math.floor(PEAK_RATE / 2), duration: '1m' },
+            { target: PEAK_RATE, duration: '2m' },
+            { target: PEAK_RATE, duration: '2m' },
+            { target: 0, duration: '30s' },
+          ],
+        },
+        stock_reads: constant('readStock', READ_RATE, '6m30s'),
+      };
+    case 'soak':
+      return {
+        orders: constant('createOrder', RATE, SOAK_DURATION),
+        stock_reads: constant('readStock', READ_RATE, SOAK_DURATION),
+      };
+    default:
+      throw new Error(`PROFILE desconocido: ${profile}`);
+  }
+}
+
+function constant(exec, rate, duration) {
+  return {
+    executor: 'constant-arrival-rate',
+    exec: exec,
+    rate: rate,
+    timeUnit: '1s',
+    duration: duration,
+    preAllocatedVUs: Math.min(Math.max(rate, 10), 1000),
+    maxVUs: Math.max(rate * 5, 50),
+  };
+}
+
+export function createOrder() {
+  const payload = JSON.stringify({ productId: pickProduct(), quantity: QUANTITY });
+  const res = http.post(`${BASE_URL}/api/orders`, payload, {
+    headers: { 'Content-Type': 'application/json', 'X-Client-Id': clientId() },
+    tags: { name: 'POST /api/orders' },
+    timeout: '10s',
+  });
+  if (res.status === 400) {
+    ordersRejected.add(1);
+  }
+  check(res, {
+    'orden creada o rechazada por stock': (r) => r.status === 200 || r.status === 400,
+  });
+}
+
+export function readStock() {
+  // El tag name agrupa todas las URLs en una sola serie (sin un label por productId)
+  const res = http.get(`${BASE_URL}/api/inventory/${pickProduct()}`, {
+    headers: { 'X-Client-Id': clientId() },
+    tags: { name: 'GET /api/inventory/{productId}' },
+    timeout: '10s',
+  });
+  check(res, {
+    'stock consultado': (r) => r.status === 200,
+  });
+}
+
+// Cada VU es un cliente distinto para el rate limiting del gateway, que limita por cliente y ruta
+function clientId() {
+  return `k6-${__VU}`;
+}
+
+function pickProduct() {
+  if (PRODUCTS.length === 1 || Math.random() < HOT_RATIO) {
+    return PRODUCTS[0];
+  }
+  return PRODUCTS[1 + Math.floor(Math.random() * (PRODUCTS.length - 1))];
+}
+
+function intEnv(name, fallback) {
+  return __ENV[name] ? parseInt(__ENV[name]) : fallback;
+}
+
+function floatEnv(name, fallback) {
+  return __ENV[name] ? parseFloat(__ENV[name]) : fallback;
+}
@@ -0,0 +1,45 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+// Tasa constante de órdenes: sirve para comparar order-service con y sin hilos virtuales.
+// Uso: k6 run -e RATE=300 -e DURATION=2m /scripts/orders-throughput.js
+const RATE = parseInt(__ENV.RATE || '200');
+const DURATION = __ENV.DURATION || '2m';
+
+export let options = {
+  scenarios: {
+    sostenido: {
+      executor: 'constant-arrival-rate',
+      rate: RATE, // órdenes por segundo
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+  const products = ['1', '2', '3'];
+  const selectedProduct = products[Math.floor(Math.random() * products.length)];
+
+  let payload = JSON.stringify({
+    productId: selectedProduct,
+    quantity: 1
+  });
+
+  let params = {
+    headers: {
+      'Content-Type': 'application/json',
+      'X-Client-Id': `k6-${__VU}`, // cada VU es un cliente para el rate limiting del gateway
+    },
+    timeout: '10s',
+  };
+
+  let res = http.post('http://gateway:8080/api/orders', payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
@@ -20,6 +20,7 @@ export default function () {
   let params = {
     headers: {
       'Content-Type': 'application/json',
+      'X-Client-Id': `k6-${__VU}`, // cada VU es un cliente para el rate limiting del gateway
     },
   };
 
@@ -0,0 +1,26 @@
+package com.codefortress.notification_service.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.codefortress.notification_service.services.EmailTransport;
+import com.codefortress.notification_service.services.LoggingEmailTransport;
+import com.codefortress.notification_service.services.SmtpEmailTransport;
+
+@Configuration
+public class EmailConfig {
+
+    /**
+     * SMTP si hay {@code spring.mail.host} (Spring Boot crea entonces el JavaMailSender); si no,
+     * los emails solo se escriben en el log.
+     */
+    @Bean
+    public EmailTransport emailTransport(ObjectProvider<JavaMailSender> mailSender,
+            @Value("${notification.email.from:no-reply@codefortress.local}") String from) {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        return sender == null ? new LoggingEmailTransport() : new SmtpEmailTransport(sender, from);
+    }
+}
@@ -1,12 +1,39 @@
 package com.codefortress.notification_service.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.codefortress.commons.kafka.DeadLetterReplayer;
+import com.codefortress.commons.kafka.KeyOrderedExecutor;
+import com.codefortress.commons.kafka.RetryTopicForwarder;
 import com.codefortress.notification_service.dtos.OrderEvent;
+import com.codefortress.schemas.FileSchemaRegistry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Configuration
 public class KafkaConfig {
@@ -14,12 +41,110 @@ public class KafkaConfig {
     
 @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactoryManualAck(
-            ConsumerFactory<String, OrderEvent> consumerFactory) {
+            ConsumerFactory<String, OrderEvent> consumerFactory, MeterRegistry meterRegistry) {
 
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Los workers de NotificationDispatcher confirman desde su hilo y en cualquier orden
+        factory.getContainerProperties().setAsyncAcks(true);
+        // notification.consumer.lag: desde que el broker guarda el registro hasta que llega al listener
+        factory.setRecordInterceptor((record, consumer) -> {
+            long lag = System.currentTimeMillis() - record.timestamp();
+            if (lag >= 0) {
+                Timer.builder("notification.consumer.lag")
+                        .tag("topic", record.topic())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(lag, TimeUnit.MILLISECONDS);
+            }
+            return record;
+        });
         return factory;
     }
+
+    /**
+     * Pool que encola los emails de order-created: en orden entre los de la misma orden, a la vez el resto.
+     */
+    @Bean(destroyMethod = "close")
+    public KeyOrderedExecutor orderCreatedExecutor(
+            @Value("${notification.listener.parallel.threads:4}") int threads,
+            MeterRegistry meterRegistry) {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor("notification-ordered-", threads);
+        Gauge.builder("notification.listener.parallel.keys", executor, KeyOrderedExecutor::pendingKeys)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Bean
+    public FileSchemaRegistry schemaRegistry(@Value("${schemas.registry.dir:./schema-registry}") String directory) {
+        return new FileSchemaRegistry(Path.of(directory));
+    }
+
+    /**
+     * Sustituye al deserializador de valores de la configuración en el consumer factory de Spring Boot.
+     * Un payload ilegible (JSON inválido, Avro con esquema desconocido) llega al listener como error
+     * y el evento va al DLT en vez de bloquear la partición.
+     */
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer orderEventDeserializerCustomizer(FileSchemaRegistry schemaRegistry) {
+        return factory -> {
+            @SuppressWarnings("unchecked")
+            DefaultKafkaConsumerFactory<String, OrderEvent> consumerFactory = (DefaultKafkaConsumerFactory<String, OrderEvent>) factory;
+            consumerFactory.setValueDeserializerSupplier(
+                    () -> new ErrorHandlingDeserializer<>(OrderEventSerde.deserializer(schemaRegistry)));
+        };
+    }
+
+    /**
+     * Publica en los temas de reintento y en el DLT el registro tal como llegó (OrderEvent, o
+     * bytes si viene del replay o no se pudo deserializar), serializando según el tipo.
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> retryKafkaTemplate(
+            @Value("${spring.kafka.bootstrap-servers:kafka:9092}") String bootstrapServers) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, byTypeSerializer(), byTypeSerializer()));
+    }
+
+    /**
+     * Publica en el primer tema de reintento los eventos cuyo email falló; repite el envío hasta
+     * que sale para no dejar la partición sin confirmar, y pasado el plazo escala al DLT.
+     */
+    @Bean(destroyMethod = "close")
+    public RetryTopicForwarder retryTopicForwarder(KafkaTemplate<Object, Object> retryKafkaTemplate,
+            @Value("${notification.retry.delay-ms:1000}") long retryDelayMs,
+            @Value("${notification.retry.forward-give-up-ms:120000}") long giveUpMs,
+            MeterRegistry meterRegistry) {
+        RetryTopicForwarder forwarder = new RetryTopicForwarder(retryKafkaTemplate, "notification-group",
+                OrderCreatedTopics.FIRST_RETRY, Duration.ofMillis(retryDelayMs), OrderCreatedTopics.DLT,
+                Duration.ofMillis(500), Duration.ofSeconds(30), Duration.ofMillis(giveUpMs));
+        Gauge.builder("notification.retry.forward.pending", forwarder, RetryTopicForwarder::pending)
+                .register(meterRegistry);
+        return forwarder;
+    }
+
+    /**
+     * Replay del DLT en el primer tema de reintento ({@code POST /api/notifications/dlt/replay}).
+     */
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(KafkaTemplate<Object, Object> retryKafkaTemplate,
+            @Value("${spring.kafka.bootstrap-servers:kafka:9092}") String bootstrapServers,
+            MeterRegistry meterRegistry) {
+        return new DeadLetterReplayer(retryKafkaTemplate, bootstrapServers, OrderCreatedTopics.DLT,
+                OrderCreatedTopics.FIRST_RETRY, "notification-dlt-replay", meterRegistry, "notification.dlt.replayed");
+    }
+
+    private static DelegatingByTypeSerializer byTypeSerializer() {
+        // Orden relevante: se elige el primer tipo asignable
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(String.class, new StringSerializer());
+        delegates.put(Object.class, new JsonSerializer<>());
+        return new DelegatingByTypeSerializer(delegates, true);
+    }
 }
@@ -0,0 +1,37 @@
+package com.codefortress.notification_service.config;
+
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.codefortress.notification_service.services.NotificationDispatcher;
+
+/**
+ * Pausa el consumo de order-created mientras la cola del dispatcher está llena. Los temas de
+ * reintento no se pausan: envían en su propio hilo, sin pasar por la cola.
+ */
+@Component
+public class ListenerBackpressure implements NotificationDispatcher.Backpressure {
+
+    private final KafkaListenerEndpointRegistry registry;
+
+    public ListenerBackpressure(KafkaListenerEndpointRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void pause() {
+        MessageListenerContainer container = registry.getListenerContainer(NotificationEventListener.LISTENER_ID);
+        if (container != null) {
+            container.pause();
+        }
+    }
+
+    @Override
+    public void resume() {
+        MessageListenerContainer container = registry.getListenerContainer(NotificationEventListener.LISTENER_ID);
+        if (container != null) {
+            container.resume();
+        }
+    }
+}
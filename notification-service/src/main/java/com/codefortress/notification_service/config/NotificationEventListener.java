@@ -1,43 +1,146 @@
 package com.codefortress.notification_service.config;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import com.codefortress.commons.kafka.KeyOrderedExecutor;
+import com.codefortress.commons.kafka.RetryTopicForwarder;
+import com.codefortress.commons.logging.HotPathLogFilter;
 import com.codefortress.notification_service.dtos.OrderEvent;
 import com.codefortress.notification_service.services.NotificationService;
 
-//import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class NotificationEventListener {
 
+    /** Contenedor de order-created que pausa {@link ListenerBackpressure} (y se para si un fallo no sale). */
+    public static final String LISTENER_ID = "notification-order-created";
+
     private static final Logger logger = LoggerFactory.getLogger(NotificationEventListener.class);
-    //private final MeterRegistry meterRegistry;
+    private final MeterRegistry meterRegistry;
     private final NotificationService notificationService;
+    private final RetryTopicForwarder retryForwarder;
+    private final KeyOrderedExecutor keyOrdered;
+    private final KafkaListenerEndpointRegistry registry;
 
-    public NotificationEventListener(NotificationService notificationService) {
+    public NotificationEventListener(NotificationService notificationService, MeterRegistry meterRegistry,
+            RetryTopicForwarder retryTopicForwarder, KeyOrderedExecutor orderCreatedExecutor,
+            KafkaListenerEndpointRegistry registry) {
         this.notificationService = notificationService;
-        //this.meterRegistry = meterRegistry;
+        this.meterRegistry = meterRegistry;
+        this.retryForwarder = retryTopicForwarder;
+        this.keyOrdered = orderCreatedExecutor;
+        this.registry = registry;
     }
 
+    /**
+     * En order-created el email se encola en el dispatcher y el registro se confirma cuando sale
+     * (acks asíncronos: Kafka solo hace commit de offsets contiguos). Los eventos de una misma orden
+     * no se encolan hasta que sale el email del anterior, así no se adelantan entre workers; los de
+     * órdenes distintas van a la vez. Si el envío falla, el evento se publica en el primer tema de
+     * reintento, como hace el replay del DLT, y se confirma cuando esa publicación sale.
+     * <p>
+     * En los temas de reintento el envío es síncrono: un fallo no se confirma aquí y el evento
+     * pasa al siguiente nivel con backoff exponencial y, agotados los intentos, al DLT.
+     */
+    @RetryableTopic(
+        attempts = "${notification.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${notification.retry.delay-ms:1000}",
+            multiplierExpression = "${notification.retry.multiplier:4}",
+            maxDelayExpression = "${notification.retry.max-delay-ms:60000}"),
+        retryTopicSuffix = OrderCreatedTopics.RETRY_SUFFIX,
+        dltTopicSuffix = OrderCreatedTopics.DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        dltStrategy = DltStrategy.FAIL_ON_ERROR,
+        kafkaTemplate = "retryKafkaTemplate"
+    )
     @KafkaListener(
-        topics = "order-created",
+        id = LISTENER_ID,
+        topics = OrderCreatedTopics.MAIN,
         groupId = "notification-group",
         containerFactory = "kafkaListenerContainerFactoryManualAck"
     )
-    public void handleOrderCreated(OrderEvent orderEvent, Acknowledgment ack) {
-        logger.info("Recibido evento de orden creada: {}", orderEvent.getOrderId());
-        try {
-            notificationService.publicEmail(orderEvent); 
-        } catch (Exception e) {
-            logger.error("Error procesando evento de orden: {}", orderEvent.getOrderId(), e);
-            //meterRegistry.counter("notification.errors", "type", "simulated", "productId", "example") si hay algo que se quiera medir
-        } finally {
-            ack.acknowledge(); // Siempre confirmar, incluso en error, para evitar el loop 
+    public void handleOrderCreated(ConsumerRecord<Object, OrderEvent> record, Acknowledgment ack) {
+        OrderEvent orderEvent = record.value();
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Recibido evento de orden creada: {}", orderEvent.getOrderId());
+        }
+        if (!OrderCreatedTopics.MAIN.equals(record.topic())) {
+            try {
+                notificationService.publicEmail(orderEvent);
+            } catch (RuntimeException e) {
+                countError(orderEvent, e);
+                throw e;
+            }
+            ack.acknowledge();
+            return;
         }
+
+        CompletableFuture<Void> sending = keyOrdered.submit(orderingKey(record),
+                () -> notificationService.dispatchEmail(orderEvent));
+        sending.whenComplete((sent, error) -> {
+            if (error == null) {
+                ack.acknowledge();
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            countError(orderEvent, cause);
+            retryForwarder.toRetryTopic(record, cause, ack).exceptionally(forwardError -> {
+                stopConsuming(forwardError);
+                return null;
+            });
+        });
     }
-}
 
+    /**
+     * Ni el tema de reintento ni el DLT aceptaron el registro: se para el contenedor sin confirmarlo
+     * para que el grupo lo reparta y se reentregue.
+     */
+    private void stopConsuming(Throwable error) {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isRunning()) {
+            logger.error("Se para el consumo de {}: un fallo no se pudo publicar en reintento ni en el DLT",
+                    OrderCreatedTopics.MAIN, error);
+            // Asíncrono: este hilo no puede esperar a que el consumidor termine
+            container.stop(() -> { });
+        }
+    }
+
+    private static Object orderingKey(ConsumerRecord<Object, OrderEvent> record) {
+        String orderId = record.value().getOrderId();
+        return orderId != null ? orderId : String.valueOf(record.key());
+    }
+
+    private void countError(OrderEvent orderEvent, Throwable e) {
+        logger.error("Error procesando evento de orden: {}", orderEvent.getOrderId(), e);
+        meterRegistry.counter("notification.errors", "type", e.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * Eventos que agotaron los reintentos. Quedan en el DLT hasta que se re-inyectan con
+     * POST /api/notifications/dlt/replay; aquí solo se registran y se cuentan.
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, ?> record, Acknowledgment ack) {
+        logger.error("Evento de orden enviado al DLT {} (partición {}, offset {}): {}",
+                record.topic(), record.partition(), record.offset(), record.value());
+        meterRegistry.counter("notification.dlt").increment();
+        ack.acknowledge();
+    }
+}
@@ -0,0 +1,32 @@
+package com.codefortress.notification_service.config;
+
+import org.apache.avro.message.SchemaStore;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.codefortress.notification_service.dtos.OrderEvent;
+import com.codefortress.schemas.EventDeserializer;
+import com.codefortress.schemas.avro.OrderCreated;
+
+/**
+ * Traducción entre el esquema compartido OrderCreated y el OrderEvent de este servicio.
+ */
+public final class OrderEventSerde {
+
+    private OrderEventSerde() {
+    }
+
+    /**
+     * Acepta JSON y Avro; el JSON ignora las cabeceras de tipo del productor.
+     */
+    public static Deserializer<OrderEvent> deserializer(SchemaStore schemaStore) {
+        return new EventDeserializer<>(new JsonDeserializer<>(OrderEvent.class, false), OrderEventSerde::fromRecord,
+                OrderCreated.createDecoder(schemaStore));
+    }
+
+    public static OrderEvent fromRecord(OrderCreated record) {
+        Integer productId = record.getProductId();
+        return new OrderEvent(record.getOrderId(), productId == null ? null : String.valueOf(productId),
+                record.getQuantity(), record.getStatus());
+    }
+}
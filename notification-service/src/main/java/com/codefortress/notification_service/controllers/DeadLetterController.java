@@ -0,0 +1,31 @@
+package com.codefortress.notification_service.controllers;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codefortress.commons.kafka.DeadLetterReplayer;
+
+
+@RestController
+@RequestMapping("/api/notifications/dlt")
+public class DeadLetterController {
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    public DeadLetterController(DeadLetterReplayer deadLetterReplayer) {
+        this.deadLetterReplayer = deadLetterReplayer;
+    }
+
+    /**
+     * Re-inyecta hasta {@code max} eventos del DLT de order-created en el pipeline de reintentos.
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Integer>> replay(@RequestParam(defaultValue = "1000") int max) {
+        return ResponseEntity.ok(Map.of("replayed", deadLetterReplayer.replay(max)));
+    }
+}
@@ -0,0 +1,8 @@
+package com.codefortress.notification_service.services;
+
+/**
+ * Un email ya renderizado. {@code template} identifica el tipo de mensaje: el dispatcher agrupa
+ * los lotes por destinatario y plantilla. {@code html} es {@code null} en los emails solo de texto.
+ */
+public record EmailMessage(String recipient, String template, String subject, String body, String html) {
+}
@@ -0,0 +1,121 @@
+package com.codefortress.notification_service.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codefortress.notification_service.dtos.OrderEvent;
+
+/**
+ * Plantilla ya compilada: el texto se parte una sola vez en literales y variables
+ * ({@code {{orderId}}}, {@code {{productId}}}, {@code {{quantity}}}, {@code {{status}}}), así que
+ * renderizar es recorrer un array y añadir al buffer, sin volver a parsear ni crear cadenas
+ * intermedias. En las plantillas HTML los valores se escapan al escribirlos.
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    /** Variables que puede usar una plantilla. */
+    enum Variable {
+        ORDER_ID("orderId"),
+        PRODUCT_ID("productId"),
+        QUANTITY("quantity"),
+        STATUS("status");
+
+        private final String placeholder;
+
+        Variable(String placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        static Variable of(String placeholder) {
+            for (Variable variable : values()) {
+                if (variable.placeholder.equals(placeholder)) {
+                    return variable;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Cada parte es un String (literal) o una Variable
+    private final Object[] parts;
+    private final boolean html;
+
+    private EmailTemplate(Object[] parts, boolean html) {
+        this.parts = parts;
+        this.html = html;
+    }
+
+    /**
+     * @throws IllegalArgumentException si la plantilla usa una variable desconocida o deja un {@code {{} sin cerrar
+     */
+    public static EmailTemplate compile(String source, boolean html) {
+        List<Object> parts = new ArrayList<>();
+        int from = 0;
+        while (from < source.length()) {
+            int open = source.indexOf(OPEN, from);
+            if (open < 0) {
+                parts.add(source.substring(from));
+                break;
+            }
+            if (open > from) {
+                parts.add(source.substring(from, open));
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Variable sin cerrar en la posición " + open + ": " + source);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            Variable variable = Variable.of(name);
+            if (variable == null) {
+                throw new IllegalArgumentException("Variable desconocida en la plantilla: " + name);
+            }
+            parts.add(variable);
+            from = close + CLOSE.length();
+        }
+        return new EmailTemplate(parts.toArray(), html);
+    }
+
+    public void render(OrderEvent event, StringBuilder out) {
+        for (Object part : parts) {
+            if (part instanceof String literal) {
+                out.append(literal);
+                continue;
+            }
+            switch ((Variable) part) {
+                case ORDER_ID -> appendValue(event.getOrderId(), out);
+                case PRODUCT_ID -> appendValue(event.getProductId(), out);
+                case QUANTITY -> {
+                    Integer quantity = event.getQuantity();
+                    if (quantity != null) {
+                        out.append(quantity.intValue());
+                    }
+                }
+                case STATUS -> appendValue(event.getStatus(), out);
+            }
+        }
+    }
+
+    private void appendValue(String value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+        if (!html) {
+            out.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
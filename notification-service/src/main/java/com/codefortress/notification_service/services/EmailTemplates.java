@@ -0,0 +1,180 @@
+package com.codefortress.notification_service.services;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.codefortress.notification_service.dtos.OrderEvent;
+
+/**
+ * Plantillas de los emails por status de la orden, compiladas una sola vez.
+ *
+ * Se leen de {@code notification.templates.<STATUS>.{subject,text,html}} (normalmente desde el
+ * config server); {@code notification.templates.default} cubre los status sin plantilla propia y,
+ * si no está configurada, se usa la que trae el servicio. Tras un {@code /actuator/refresh} que
+ * toque esas claves se recompilan todas; si alguna no compila se registra el error y se siguen
+ * usando las anteriores. Al arrancar, en cambio, una plantilla inválida impide levantar el servicio.
+ */
+@Component
+public class EmailTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplates.class);
+
+    static final String PREFIX = "notification.templates";
+    static final String DEFAULT = "default";
+
+    static final String DEFAULT_SUBJECT = "Orden {{orderId}} confirmada";
+    static final String DEFAULT_TEXT = "orden {{orderId}}, producto {{productId}}, cantidad {{quantity}}, status {{status}}";
+    static final String DEFAULT_HTML = "<p>Tu orden <strong>{{orderId}}</strong> está en estado {{status}}.</p>"
+            + "<p>Producto {{productId}}, cantidad {{quantity}}.</p>";
+
+    // Buffers grandes no se guardan: una plantilla enorme no deja memoria retenida en cada hilo
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    /** Textos de una plantilla tal como vienen de la configuración. */
+    public static class Source {
+
+        private String subject;
+        private String text;
+        private String html;
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public void setSubject(String subject) {
+            this.subject = subject;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+
+        public void setHtml(String html) {
+            this.html = html;
+        }
+    }
+
+    /** Asunto, cuerpo de texto y, opcionalmente, cuerpo HTML ya compilados. */
+    record Compiled(EmailTemplate subject, EmailTemplate text, EmailTemplate html) {
+    }
+
+    private final Environment environment;
+    private volatile Map<String, Compiled> templates;
+
+    public EmailTemplates(Environment environment) {
+        this.environment = environment;
+        this.templates = compileAll();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean touched = event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX));
+        if (!touched) {
+            return;
+        }
+        try {
+            templates = compileAll();
+            logger.info("Plantillas de email recargadas: {}", templates.keySet());
+        } catch (RuntimeException ex) {
+            logger.error("Plantillas de email inválidas, se mantienen las anteriores: {}", ex.getMessage());
+        }
+    }
+
+    public String subject(OrderEvent event) {
+        return render(template(event).subject(), event);
+    }
+
+    public String text(OrderEvent event) {
+        return render(template(event).text(), event);
+    }
+
+    /**
+     * @return el cuerpo HTML, o {@code null} si la plantilla del status no tiene
+     */
+    public String html(OrderEvent event) {
+        EmailTemplate html = template(event).html();
+        return html == null ? null : render(html, event);
+    }
+
+    private Compiled template(OrderEvent event) {
+        Map<String, Compiled> current = templates;
+        String status = event.getStatus();
+        Compiled compiled = status == null ? null : current.get(status.toUpperCase(Locale.ROOT));
+        return compiled != null ? compiled : current.get(DEFAULT);
+    }
+
+    private static String render(EmailTemplate template, OrderEvent event) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.render(event, buffer);
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    private Map<String, Compiled> compileAll() {
+        Map<String, Source> sources = Binder.get(environment)
+                .bind(PREFIX, Bindable.mapOf(String.class, Source.class))
+                .orElseGet(Map::of);
+
+        Source builtIn = new Source();
+        builtIn.setSubject(DEFAULT_SUBJECT);
+        builtIn.setText(DEFAULT_TEXT);
+        builtIn.setHtml(DEFAULT_HTML);
+        Source defaults = merge(sources.get(DEFAULT), builtIn);
+
+        Map<String, Compiled> compiled = new HashMap<>();
+        compiled.put(DEFAULT, compile(DEFAULT, defaults));
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            if (!entry.getKey().equalsIgnoreCase(DEFAULT)) {
+                String status = entry.getKey().toUpperCase(Locale.ROOT);
+                compiled.put(status, compile(status, merge(entry.getValue(), defaults)));
+            }
+        }
+        return Map.copyOf(compiled);
+    }
+
+    /** Lo que no trae {@code source} se toma de {@code fallback}. */
+    private static Source merge(Source source, Source fallback) {
+        if (source == null) {
+            return fallback;
+        }
+        Source merged = new Source();
+        merged.setSubject(source.getSubject() != null ? source.getSubject() : fallback.getSubject());
+        merged.setText(source.getText() != null ? source.getText() : fallback.getText());
+        merged.setHtml(source.getHtml() != null ? source.getHtml() : fallback.getHtml());
+        return merged;
+    }
+
+    private static Compiled compile(String name, Source source) {
+        String html = source.getHtml();
+        try {
+            return new Compiled(EmailTemplate.compile(source.getSubject(), false),
+                    EmailTemplate.compile(source.getText(), false),
+                    html == null || html.isBlank() ? null : EmailTemplate.compile(html, true));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Plantilla " + name + ": " + ex.getMessage(), ex);
+        }
+    }
+}
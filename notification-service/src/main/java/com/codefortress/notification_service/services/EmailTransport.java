@@ -0,0 +1,15 @@
+package com.codefortress.notification_service.services;
+
+import java.util.List;
+
+/**
+ * Envío real de los emails. Recibe lotes del mismo destinatario y plantilla y lanza una excepción
+ * si el lote no se pudo entregar; en ese caso todos sus mensajes se reintentan. Si solo fallaron
+ * algunos, lanza una {@link org.springframework.mail.MailSendException} cuyos
+ * {@code getFailedMessages()} son los {@link EmailMessage} del lote que fallaron, y solo esos se
+ * reintentan.
+ */
+public interface EmailTransport {
+
+    void send(List<EmailMessage> batch);
+}
@@ -0,0 +1,27 @@
+package com.codefortress.notification_service.services;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codefortress.commons.logging.HotPathLogFilter;
+
+
+/**
+ * Transporte sin servidor de correo: solo deja los emails en el log. Es el que se usa si no hay
+ * {@code spring.mail.host} configurado.
+ */
+public class LoggingEmailTransport implements EmailTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingEmailTransport.class);
+
+    @Override
+    public void send(List<EmailMessage> batch) {
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            for (EmailMessage message : batch) {
+                logger.info("Enviando email de confirmación: {}", message.body());
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.codefortress.notification_service.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Envía los emails fuera del hilo del consumidor de Kafka.
+ *
+ * Los mensajes esperan en una cola acotada a que un worker los recoja. Cada worker junta hasta
+ * {@code batch-size} mensajes (esperando como mucho {@code linger} a que lleguen más) y hace una
+ * llamada al {@link EmailTransport} por cada destinatario y plantilla del lote; si el transporte
+ * dice qué mensajes fallaron, solo esos se dan por fallidos. Cuando la cola
+ * llega a {@code pause-at} se pide a {@link Backpressure} que deje de consumir, y se reanuda al
+ * bajar a la mitad de esa marca.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Quién deja de alimentar la cola mientras está llena (el contenedor de Kafka).
+     */
+    public interface Backpressure {
+
+        Backpressure NONE = new Backpressure() {
+            @Override
+            public void pause() {
+            }
+
+            @Override
+            public void resume() {
+            }
+        };
+
+        void pause();
+
+        void resume();
+    }
+
+    private final EmailTransport transport;
+    private final Backpressure backpressure;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int pauseAt;
+    private final int resumeAt;
+    private final ExecutorService workers;
+    // Con el lock del dispatcher: pausa y reanudación no se adelantan la una a la otra
+    private boolean paused;
+    private volatile boolean running = true;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+    private final DistributionSummary batches;
+    private final Counter pauses;
+
+    public NotificationDispatcher(EmailTransport transport, Backpressure backpressure, MeterRegistry meterRegistry,
+            @Value("${notification.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${notification.dispatch.pause-at:800}") int pauseAt,
+            @Value("${notification.dispatch.workers:4}") int workers,
+            @Value("${notification.dispatch.batch-size:50}") int batchSize,
+            @Value("${notification.dispatch.linger:20ms}") Duration linger) {
+        this.transport = transport;
+        this.backpressure = backpressure;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.pauseAt = Math.min(pauseAt, queueCapacity);
+        this.resumeAt = this.pauseAt / 2;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = linger.toNanos();
+
+        this.meterRegistry = meterRegistry;
+        this.latency = Timer.builder("notification.dispatch.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batches = DistributionSummary.builder("notification.dispatch.batch")
+                .baseUnit("emails")
+                .register(meterRegistry);
+        this.pauses = meterRegistry.counter("notification.dispatch.pauses");
+        Gauge.builder("notification.dispatch.queue", queue, BlockingQueue::size).register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers,
+                task -> new Thread(task, "notification-dispatch-" + threadNumber.incrementAndGet()));
+        for (int i = 0; i < workers; i++) {
+            this.workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Encola el mensaje. Si la cola está llena espera a que haya hueco: solo pasa con los
+     * registros que el consumidor ya tenía en la mano al pausarse.
+     *
+     * @return se completa cuando el email se envió, o con la excepción del transporte
+     */
+    public CompletableFuture<Void> submit(EmailMessage message) {
+        Pending pending = new Pending(message, System.nanoTime());
+        if (!queue.offer(pending)) {
+            pause();
+            try {
+                queue.put(pending);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.result.completeExceptionally(ex);
+                return pending.result;
+            }
+        }
+        if (queue.size() >= pauseAt) {
+            pause();
+        }
+        return pending.result;
+    }
+
+    /**
+     * Envía un mensaje en el hilo que llama, sin pasar por la cola (reintentos).
+     */
+    public void sendNow(EmailMessage message) {
+        send(List.of(message));
+    }
+
+    /**
+     * Espera a que los workers vacíen la cola y los para.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Quedaron {} emails sin enviar al parar; Kafka los volverá a entregar", queue.size());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private void work() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                if (queue.size() <= resumeAt) {
+                    resume();
+                }
+                dispatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Completa el lote con lo que ya hay en cola y lo que llegue durante {@code linger}. */
+    private void fill(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        batches.record(batch.size());
+        Map<String, List<Pending>> groups = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            EmailMessage message = pending.message;
+            groups.computeIfAbsent(message.recipient() + '|' + message.template(), key -> new ArrayList<>())
+                    .add(pending);
+        }
+        for (List<Pending> group : groups.values()) {
+            List<EmailMessage> messages = new ArrayList<>(group.size());
+            for (Pending pending : group) {
+                messages.add(pending.message);
+            }
+            Map<Object, Exception> failed = Map.of();
+            try {
+                send(messages);
+            } catch (MailSendException ex) {
+                if (ex.getFailedMessages().isEmpty()) {
+                    failAll(group, ex);
+                    continue;
+                }
+                failed = ex.getFailedMessages();
+            } catch (RuntimeException ex) {
+                failAll(group, ex);
+                continue;
+            }
+            long now = System.nanoTime();
+            for (Pending pending : group) {
+                Exception cause = failed.get(pending.message);
+                if (cause != null) {
+                    pending.result.completeExceptionally(cause);
+                } else {
+                    latency.record(now - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+                    pending.result.complete(null);
+                }
+            }
+        }
+    }
+
+    private static void failAll(List<Pending> group, RuntimeException ex) {
+        for (Pending pending : group) {
+            pending.result.completeExceptionally(ex);
+        }
+    }
+
+    private void send(List<EmailMessage> messages) {
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            transport.send(messages);
+        } catch (RuntimeException ex) {
+            outcome = "error";
+            throw ex;
+        } finally {
+            Timer.builder("notification.email.send")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void pause() {
+        if (!paused) {
+            paused = true;
+            pauses.increment();
+            backpressure.pause();
+            logger.warn("Cola de notificaciones llena ({} emails): se pausa el consumo", queue.size());
+        }
+    }
+
+    private synchronized void resume() {
+        if (paused) {
+            paused = false;
+            backpressure.resume();
+            logger.info("Cola de notificaciones en {} emails: se reanuda el consumo", queue.size());
+        }
+    }
+
+    private static final class Pending {
+        final EmailMessage message;
+        final long enqueuedAt;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        Pending(EmailMessage message, long enqueuedAt) {
+            this.message = message;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
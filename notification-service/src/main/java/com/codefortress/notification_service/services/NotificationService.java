@@ -1,19 +1,53 @@
 package com.codefortress.notification_service.services;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.codefortress.notification_service.dtos.OrderEvent;
 
 @Service
 public class NotificationService {
-    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    static final String CONFIRMATION_TEMPLATE = "order-confirmation";
+
+    private final NotificationDispatcher dispatcher;
+    private final EmailTemplates templates;
+    // order-created no trae el email del cliente: las confirmaciones van al buzón de pedidos
+    private final String recipient;
+
+    public NotificationService(NotificationDispatcher dispatcher, EmailTemplates templates,
+            @Value("${notification.email.recipient:pedidos@codefortress.local}") String recipient) {
+        this.dispatcher = dispatcher;
+        this.templates = templates;
+        this.recipient = recipient;
+    }
+
+    /**
+     * Encola el email de confirmación; el envío lo hacen los workers del dispatcher en lotes.
+     */
+    public CompletableFuture<Void> dispatchEmail(OrderEvent orderEvent) {
+        return dispatcher.submit(confirmation(orderEvent));
+    }
+
+    /**
+     * Envía el email de confirmación en el hilo que llama y lanza si falla.
+     */
     public void publicEmail(OrderEvent orderEvent) {
-        // Aquí se implementaría la lógica para enviar un email de confirmación
-        // Por ejemplo, podrías usar un servicio de correo electrónico como JavaMailSender 
-        logger.info("Enviando email de confirmación para la orden: {}, con el producto {}, cantidad {} y status {}", orderEvent.getOrderId(), orderEvent.getProductId(), orderEvent.getQuantity(), orderEvent.getStatus());
+        dispatcher.sendNow(confirmation(orderEvent));
+    }
+
+    public EmailMessage confirmation(OrderEvent orderEvent) {
+        return new EmailMessage(recipient, CONFIRMATION_TEMPLATE, templates.subject(orderEvent),
+                formatConfirmation(orderEvent), templates.html(orderEvent));
+    }
 
+    /**
+     * Texto del email de confirmación de una orden, con la plantilla de su status.
+     */
+    public String formatConfirmation(OrderEvent orderEvent) {
+        return templates.text(orderEvent);
     }
 
 }
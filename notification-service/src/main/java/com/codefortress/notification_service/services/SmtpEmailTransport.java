@@ -0,0 +1,72 @@
+package com.codefortress.notification_service.services;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Envío por SMTP con {@link JavaMailSender}: todo el lote sale por una sola conexión. Los emails
+ * con cuerpo HTML van como multipart con la versión de texto como alternativa. Si el servidor
+ * rechaza parte del lote, la excepción dice qué {@link EmailMessage} fallaron.
+ */
+public class SmtpEmailTransport implements EmailTransport {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    public SmtpEmailTransport(JavaMailSender mailSender, String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    @Override
+    public void send(List<EmailMessage> batch) {
+        MimeMessage[] messages = new MimeMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = toMimeMessage(batch.get(i));
+        }
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException ex) {
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            ex.getFailedMessages().forEach((message, cause) -> {
+                for (int i = 0; i < messages.length; i++) {
+                    if (messages[i] == message) {
+                        failed.put(batch.get(i), cause);
+                    }
+                }
+            });
+            if (failed.isEmpty()) {
+                // Sin detalle por mensaje (p. ej. no se pudo conectar): falla el lote entero
+                throw ex;
+            }
+            throw new MailSendException(ex.getMessage(), ex, failed);
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailMessage email) {
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(message, email.html() != null, "UTF-8");
+            helper.setFrom(from);
+            helper.setTo(email.recipient());
+            helper.setSubject(email.subject());
+            if (email.html() != null) {
+                helper.setText(email.body(), email.html());
+            } else {
+                helper.setText(email.body());
+            }
+        } catch (MessagingException ex) {
+            throw new MailPreparationException("No se pudo preparar el email para " + email.recipient(), ex);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,98 @@
+package com.codefortress.notification_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.codefortress.commons.kafka.DeadLetterReplayer;
+import com.codefortress.notification_service.services.EmailTransport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Un JSON inválido va directo al DLT sin bloquear la partición; un evento cuyo email falla siempre
+ * (primero en el dispatcher, luego en los temas de reintento) termina en el DLT y el replay lo
+ * vuelve a entregar.
+ */
+@SpringBootTest(properties = {
+        // Sin application.yml: no se importa la configuración del config-server
+        "spring.config.name=order-created-retry-test",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "spring.kafka.consumer.properties.spring.json.value.default.type=com.codefortress.notification_service.dtos.OrderEvent",
+        "spring.kafka.consumer.properties.spring.json.use.type.headers=false",
+        "notification.retry.attempts=3",
+        "notification.retry.delay-ms=200",
+        "notification.retry.multiplier=2",
+        "notification.retry.max-delay-ms=1000"
+})
+@EmbeddedKafka(partitions = 1, kraft = true)
+class OrderCreatedRetryPipelineTest {
+
+    @MockitoBean
+    private EmailTransport emailTransport;
+
+    @Autowired
+    private DeadLetterReplayer deadLetterReplayer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.embedded.kafka.brokers}")
+    private String brokers;
+
+    @Test
+    void poisonAndFailingEventsEndInDltAndCanBeReplayed() throws Exception {
+        doThrow(new RuntimeException("SMTP no disponible")).when(emailTransport).send(any());
+
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(
+                Map.of("bootstrap.servers", brokers), new StringSerializer(), new StringSerializer())) {
+            producer.send(new ProducerRecord<>(OrderCreatedTopics.MAIN, "1", "{no es json")).get();
+            producer.send(new ProducerRecord<>(OrderCreatedTopics.MAIN, "1",
+                    "{\"orderId\":\"o-1\",\"productId\":\"1\",\"quantity\":2}")).get();
+        }
+
+        // Envío desde el dispatcher y dos reintentos; el JSON inválido no se reintenta ni llega al handler del DLT
+        verify(emailTransport, timeout(30_000).times(3)).send(any());
+        awaitDeadLetters(1);
+
+        doNothing().when(emailTransport).send(any());
+        assertThat(deadLetterReplayer.replay(10)).isEqualTo(2);
+        verify(emailTransport, timeout(30_000).times(4)).send(any());
+
+        // El JSON inválido vuelve al DLT y queda pendiente para el siguiente replay, sin bucle
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+        int replayedAgain = 0;
+        while (replayedAgain == 0 && Instant.now().isBefore(deadline)) {
+            replayedAgain = deadLetterReplayer.replay(10);
+        }
+        assertThat(replayedAgain).isEqualTo(1);
+    }
+
+    private void awaitDeadLetters(double expected) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+        while (meterRegistry.counter("notification.dlt").count() < expected && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertThat(meterRegistry.counter("notification.dlt").count()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,72 @@
+package com.codefortress.notification_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.codefortress.notification_service.dtos.OrderEvent;
+
+class EmailTemplatesTest {
+
+    private final OrderEvent created = new OrderEvent("o-1", "2", 3, "CREATED");
+
+    @Test
+    void builtInTemplateMatchesTheConfirmationText() {
+        EmailTemplates templates = new EmailTemplates(new MockEnvironment());
+
+        assertThat(templates.subject(created)).isEqualTo("Orden o-1 confirmada");
+        assertThat(templates.text(created)).isEqualTo("orden o-1, producto 2, cantidad 3, status CREATED");
+        assertThat(templates.html(created)).contains("<strong>o-1</strong>");
+    }
+
+    @Test
+    void picksTheTemplateOfTheStatusAndFallsBackToDefault() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notification.templates.default.subject", "Orden {{orderId}}")
+                .withProperty("notification.templates.cancelled.text", "La orden {{ orderId }} fue cancelada")
+                .withProperty("notification.templates.cancelled.html", "");
+        EmailTemplates templates = new EmailTemplates(environment);
+        OrderEvent cancelled = new OrderEvent("o-2", "2", 1, "cancelled");
+
+        assertThat(templates.text(cancelled)).isEqualTo("La orden o-2 fue cancelada");
+        assertThat(templates.subject(cancelled)).isEqualTo("Orden o-2");
+        assertThat(templates.html(cancelled)).isNull();
+        assertThat(templates.text(created)).isEqualTo("orden o-1, producto 2, cantidad 3, status CREATED");
+    }
+
+    @Test
+    void escapesValuesOnlyInHtml() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notification.templates.default.text", "{{productId}}")
+                .withProperty("notification.templates.default.html", "<b>{{productId}}</b>");
+        EmailTemplates templates = new EmailTemplates(environment);
+        OrderEvent event = new OrderEvent("o-3", "<script>&'\"", null, null);
+
+        assertThat(templates.text(event)).isEqualTo("<script>&'\"");
+        assertThat(templates.html(event)).isEqualTo("<b>&lt;script&gt;&amp;&#39;&quot;</b>");
+    }
+
+    @Test
+    void invalidTemplateFailsAtStartupButKeepsThePreviousOnesOnReload() {
+        assertThatThrownBy(() -> new EmailTemplates(new MockEnvironment()
+                .withProperty("notification.templates.default.text", "orden {{customer}}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("customer");
+
+        MockEnvironment environment = new MockEnvironment();
+        EmailTemplates templates = new EmailTemplates(environment);
+
+        environment.setProperty("notification.templates.default.text", "orden {{orderId");
+        templates.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("notification.templates.default.text")));
+        assertThat(templates.text(created)).isEqualTo("orden o-1, producto 2, cantidad 3, status CREATED");
+
+        environment.setProperty("notification.templates.default.text", "orden {{orderId}}");
+        templates.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("notification.templates.default.text")));
+        assertThat(templates.text(created)).isEqualTo("orden o-1");
+    }
+}
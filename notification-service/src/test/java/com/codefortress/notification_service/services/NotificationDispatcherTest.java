@@ -0,0 +1,151 @@
+package com.codefortress.notification_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<EmailMessage>> sent = new CopyOnWriteArrayList<>();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    void groupsEachBatchByRecipientAndTemplate() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher = dispatcher(batch -> {
+            entered.countDown();
+            await(release);
+            sent.add(List.copyOf(batch));
+        }, NotificationDispatcher.Backpressure.NONE, 100, 100, 1, 10);
+
+        // El primero ocupa al único worker; los demás se acumulan en cola y salen en un lote
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(dispatcher.submit(email("a@x", "confirmation", 0)));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 6; i++) {
+            results.add(dispatcher.submit(email(i % 2 == 0 ? "a@x" : "b@x", "confirmation", i)));
+        }
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(sent).hasSize(3);
+        assertThat(sent.get(1)).extracting(EmailMessage::recipient).containsOnly("b@x").hasSize(3);
+        assertThat(sent.get(2)).extracting(EmailMessage::recipient).containsOnly("a@x").hasSize(3);
+        assertThat(meterRegistry.get("notification.dispatch.latency").timer().count()).isEqualTo(7);
+    }
+
+    @Test
+    void failedBatchFailsEveryMessageInIt() {
+        dispatcher = dispatcher(batch -> {
+            throw new IllegalStateException("SMTP no disponible");
+        }, NotificationDispatcher.Backpressure.NONE, 100, 100, 2, 10);
+
+        CompletableFuture<Void> result = dispatcher.submit(email("a@x", "confirmation", 1));
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("SMTP no disponible");
+        assertThat(meterRegistry.get("notification.email.send").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void partialFailureFailsOnlyTheRejectedMessages() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EmailMessage rejected = email("a@x", "confirmation", 2);
+        dispatcher = dispatcher(batch -> {
+            entered.countDown();
+            await(release);
+            if (batch.contains(rejected)) {
+                throw new MailSendException("Destinatario rechazado", null,
+                        Map.of(rejected, new IllegalStateException("550 buzón lleno")));
+            }
+        }, NotificationDispatcher.Backpressure.NONE, 100, 100, 1, 10);
+
+        CompletableFuture<Void> first = dispatcher.submit(email("a@x", "confirmation", 0));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> delivered = dispatcher.submit(email("a@x", "confirmation", 1));
+        CompletableFuture<Void> failed = dispatcher.submit(rejected);
+        CompletableFuture<Void> alsoDelivered = dispatcher.submit(email("a@x", "confirmation", 3));
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        delivered.get(5, TimeUnit.SECONDS);
+        alsoDelivered.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("550 buzón lleno");
+    }
+
+    @Test
+    void pausesWhenTheQueueFillsAndResumesOnceItDrains() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger pauses = new AtomicInteger();
+        AtomicInteger resumes = new AtomicInteger();
+        NotificationDispatcher.Backpressure backpressure = new NotificationDispatcher.Backpressure() {
+            @Override
+            public void pause() {
+                pauses.incrementAndGet();
+            }
+
+            @Override
+            public void resume() {
+                resumes.incrementAndGet();
+            }
+        };
+        dispatcher = dispatcher(batch -> await(release), backpressure, 10, 8, 1, 1);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            results.add(dispatcher.submit(email("a@x", "confirmation", i)));
+        }
+        assertThat(pauses).hasValue(1);
+        assertThat(resumes).hasValue(0);
+
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertThat(resumes).hasValue(1);
+        assertThat(meterRegistry.get("notification.dispatch.pauses").counter().count()).isEqualTo(1.0);
+    }
+
+    private NotificationDispatcher dispatcher(EmailTransport transport, NotificationDispatcher.Backpressure backpressure,
+            int capacity, int pauseAt, int workers, int batchSize) {
+        return new NotificationDispatcher(transport, backpressure, meterRegistry, capacity, pauseAt, workers, batchSize,
+                Duration.ZERO);
+    }
+
+    private static EmailMessage email(String recipient, String template, int n) {
+        return new EmailMessage(recipient, template, "Orden " + n, "orden " + n, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.codefortress.notification_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+class SmtpEmailTransportTest {
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final SmtpEmailTransport transport = new SmtpEmailTransport(mailSender, "noreply@x");
+
+    @Test
+    void reportsWhichMessagesOfTheBatchFailed() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        Exception rejected = new IllegalStateException("550 buzón lleno");
+        doAnswer(invocation -> {
+            MimeMessage second = invocation.getArgument(1);
+            throw new MailSendException(Map.of(second, rejected));
+        }).when(mailSender).send(any(MimeMessage[].class));
+        EmailMessage first = new EmailMessage("a@x", "confirmation", "Orden 1", "orden 1", null);
+        EmailMessage second = new EmailMessage("a@x", "confirmation", "Orden 2", "orden 2", null);
+
+        assertThatThrownBy(() -> transport.send(List.of(first, second)))
+                .isInstanceOfSatisfying(MailSendException.class,
+                        ex -> assertThat(ex.getFailedMessages()).containsExactly(Map.entry(second, rejected)));
+    }
+}
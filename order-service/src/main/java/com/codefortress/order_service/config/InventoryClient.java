@@ -1,12 +1,41 @@
 package com.codefortress.order_service.config;
 
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.order_service.dtos.ReservationResult;
+import com.codefortress.order_service.dtos.ReserveStockRequest;
+import com.codefortress.order_service.dtos.StockReservation;
 
-@FeignClient(name = "inventory-service")
+/**
+ * El primer parámetro es el shard de inventario que atiende la llamada ({@link InventoryShards});
+ * null si el inventario no está repartido.
+ */
+@FeignClient(name = InventoryShards.SERVICE)
 public interface InventoryClient {
 
     @GetMapping("/api/inventory/{productId}")
-    Integer getStock(@PathVariable("productId") Integer productId);
-}
\ No newline at end of file
+    Integer getStock(@RequestHeader(name = InventoryShards.HEADER, required = false) String shard,
+            @PathVariable("productId") Integer productId);
+
+    @PostMapping("/api/inventory/reservations")
+    StockReservation reserve(@RequestHeader(name = InventoryShards.HEADER, required = false) String shard,
+            @RequestBody ReserveStockRequest request);
+
+    /** Todas las líneas tienen que ser del mismo shard. */
+    @PostMapping("/api/inventory/reservations/batch")
+    List<ReservationResult> reserveAll(@RequestHeader(name = InventoryShards.HEADER, required = false) String shard,
+            @RequestBody List<ReserveStockRequest> lines);
+
+    @DeleteMapping("/api/inventory/reservations/{reservationId}")
+    void release(@RequestHeader(name = InventoryShards.HEADER, required = false) String shard,
+            @PathVariable("reservationId") String reservationId);
+}
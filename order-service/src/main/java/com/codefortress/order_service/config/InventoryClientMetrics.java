@@ -0,0 +1,47 @@
+package com.codefortress.order_service.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tiempo de cada llamada Feign a inventory-service ({@code orders.inventory.request}), por
+ * método del cliente. Mide cada intento por separado: los reintentos de @Retry suman muestras.
+ * Es el primer Capability en aplicarse: queda pegado al cliente HTTP, dentro del límite de concurrencia.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InventoryClientMetrics implements Capability {
+
+    private final MeterRegistry meterRegistry;
+
+    public InventoryClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            long start = System.nanoTime();
+            String outcome = LatencyMetrics.ERROR;
+            try {
+                Response response = client.execute(request, options);
+                outcome = response.status() < 400 ? LatencyMetrics.SUCCESS
+                        : response.status() < 500 ? LatencyMetrics.REJECTED : LatencyMetrics.ERROR;
+                return response;
+            } finally {
+                String method = request.requestTemplate().methodMetadata() != null
+                        ? request.requestTemplate().methodMetadata().method().getName() : "unknown";
+                LatencyMetrics.timer(meterRegistry, "orders.inventory.request", "method", method, "outcome", outcome)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.codefortress.order_service.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Límite adaptativo (AIMD) de llamadas concurrentes a inventory-service. Sube de uno en uno
+ * mientras las respuestas llegan por debajo de {@code latency-threshold} y se multiplica por
+ * {@code backoff-ratio} con cada respuesta lenta, 5xx o error de red. Por encima del límite la
+ * llamada no sale: lanza {@link InventoryOverloadedException} al instante.
+ * <p>
+ * Es el último Capability en aplicarse, así que envuelve a {@link InventoryClientMetrics}:
+ * las llamadas rechazadas no cuentan en {@code orders.inventory.request}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class InventoryConcurrencyLimit implements Capability {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private final Counter shed;
+
+    public InventoryConcurrencyLimit(MeterRegistry meterRegistry,
+            @Value("${orders.inventory.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${orders.inventory.concurrency.min-limit:2}") int minLimit,
+            @Value("${orders.inventory.concurrency.max-limit:200}") int maxLimit,
+            @Value("${orders.inventory.concurrency.latency-threshold:300ms}") Duration latencyThreshold,
+            @Value("${orders.inventory.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("orders.inventory.concurrency.limit", this, InventoryConcurrencyLimit::getLimit).register(meterRegistry);
+        Gauge.builder("orders.inventory.concurrency.inflight", inFlight, AtomicInteger::get).register(meterRegistry);
+        this.shed = meterRegistry.counter("orders.inventory.shed");
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            if (!tryAcquire()) {
+                shed.increment();
+                throw new InventoryOverloadedException(limit);
+            }
+            long start = System.nanoTime();
+            boolean overloaded = true;
+            try {
+                Response response = client.execute(request, options);
+                overloaded = response.status() >= 500;
+                return response;
+            } finally {
+                // Una excepción (timeout, conexión rechazada) cuenta como sobrecarga
+                release(System.nanoTime() - start, overloaded);
+            }
+        };
+    }
+
+    /**
+     * Ocupa un hueco si quedan por debajo del límite actual.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco y ajusta el límite con la latencia observada.
+     */
+    void release(long rttNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (overloaded || rttNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (inFlightBefore * 2 >= limit) {
+            // Solo crece si el límite se está usando; en reposo no se infla sin control
+            increase();
+        }
+    }
+
+    private synchronized void decrease() {
+        limit = Math.max(minLimit, (int) (limit * backoffRatio));
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,12 @@
+package com.codefortress.order_service.config;
+
+/**
+ * La llamada a inventory-service no salió porque se alcanzó el límite de concurrencia.
+ * No se reintenta ni cuenta como fallo para el Circuit Breaker: se responde 503 en el acto.
+ */
+public class InventoryOverloadedException extends RuntimeException {
+
+    public InventoryOverloadedException(int limit) {
+        super("Inventario saturado: " + limit + " llamadas en curso");
+    }
+}
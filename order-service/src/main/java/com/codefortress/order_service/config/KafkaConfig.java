@@ -1,34 +1,73 @@
 package com.codefortress.order_service.config;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.dtos.StockChangedEvent;
+import com.codefortress.schemas.EventFormat;
+import com.codefortress.schemas.FileSchemaRegistry;
+import com.codefortress.schemas.avro.OrderCreated;
 
 @Configuration
+@EnableConfigurationProperties(KafkaProducerProperties.class)
 public class KafkaConfig {
 
     @Bean
-    public ProducerFactory<String, OrderEvent> producerFactory() {
+    public FileSchemaRegistry schemaRegistry(@Value("${schemas.registry.dir:./schema-registry}") String directory) {
+        return new FileSchemaRegistry(Path.of(directory));
+    }
+
+    @Bean
+    public ProducerFactory<String, OrderEvent> producerFactory(KafkaProducerProperties producerProperties,
+            FileSchemaRegistry schemaRegistry) {
+        EventFormat format = producerProperties.getValueFormat();
+        if (format == EventFormat.AVRO) {
+            // Los consumidores resuelven la huella de cada mensaje contra el registro compartido
+            schemaRegistry.register(OrderCreated.getClassSchema());
+        }
+        return new DefaultKafkaProducerFactory<>(producerProperties.toProducerConfig(),
+                new StringSerializer(), OrderEventSerde.serializer(format));
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderEvent> kafkaTemplate(ProducerFactory<String, OrderEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    @Bean
+    public ConsumerFactory<String, StockChangedEvent> stockChangedConsumerFactory(KafkaProducerProperties producerProperties) {
         Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, producerProperties.getBootstrapServers());
+        // La caché solo necesita el estado actual: al arrancar basta con los cambios nuevos
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(),
+                new JsonDeserializer<>(StockChangedEvent.class, false));
     }
 
     @Bean
-    public KafkaTemplate<String, OrderEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public ConcurrentKafkaListenerContainerFactory<String, StockChangedEvent> stockChangedListenerContainerFactory(
+            ConsumerFactory<String, StockChangedEvent> stockChangedConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, StockChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(stockChangedConsumerFactory);
+        return factory;
     }
 
     /* @Bean //no se usara
@@ -0,0 +1,52 @@
+package com.codefortress.order_service.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.codefortress.schemas.EventFormat;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Perfil del productor de order-created, configurable desde el config server con el prefijo
+ * {@code orders.kafka.producer}. Los valores por defecto priorizan throughput sin perder
+ * durabilidad: lotes grandes, algo de linger, compresión lz4 e idempotencia con acks=all.
+ */
+@ConfigurationProperties(prefix = "orders.kafka.producer")
+@Getter
+@Setter
+public class KafkaProducerProperties {
+    private String bootstrapServers = "kafka:9092";
+    private int batchSize = 65_536;
+    private int lingerMs = 10;
+    // none, gzip, snappy, lz4 o zstd
+    private String compressionType = "lz4";
+    private String acks = "all";
+    private boolean idempotence = true;
+    private int maxInFlightRequests = 5;
+    private long bufferMemory = 33_554_432L;
+    // JSON o AVRO; los consumidores leen ambos, así que se puede cambiar sin coordinar despliegues
+    private EventFormat valueFormat = EventFormat.JSON;
+
+    public Map<String, Object> toProducerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.ACKS_CONFIG, acks);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        // Con idempotencia Kafka conserva el orden por partición con hasta 5 peticiones en vuelo
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        return config;
+    }
+}
@@ -0,0 +1,37 @@
+package com.codefortress.order_service.config;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers por etapa del camino de una orden. Todos publican histograma para sacar p95/p99
+ * en Prometheus con histogram_quantile.
+ */
+public final class LatencyMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String REJECTED = "rejected";
+    public static final String ERROR = "error";
+
+    private LatencyMetrics() {
+    }
+
+    public static Timer timer(MeterRegistry meterRegistry, String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@link #REJECTED} para los 4xx (stock insuficiente, producto inexistente), {@link #ERROR} para el resto.
+     */
+    public static String outcomeOf(RuntimeException ex) {
+        if (ex instanceof ResponseStatusException status && status.getStatusCode().is4xxClientError()) {
+            return REJECTED;
+        }
+        return ERROR;
+    }
+}
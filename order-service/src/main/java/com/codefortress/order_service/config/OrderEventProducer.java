@@ -1,19 +1,68 @@
 package com.codefortress.order_service.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import com.codefortress.order_service.dtos.OrderEvent;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class OrderEventProducer {
      private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
-    public OrderEventProducer(KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+    public OrderEventProducer(KafkaTemplate<String, OrderEvent> kafkaTemplate, MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return future que se completa con el ack del broker o con el error de publicación
+     */
+    public CompletableFuture<SendResult<String, OrderEvent>> sendOrderCreatedEvent(OrderEvent event) {
+        return send(event);
+    }
+
+    /**
+     * Publica todos los eventos sin esperar uno a uno y hace un único flush al final,
+     * así el productor los agrupa en los mínimos lotes posibles.
+     *
+     * @return un future por evento, en el mismo orden
+     */
+    public List<CompletableFuture<SendResult<String, OrderEvent>>> sendOrderCreatedEvents(List<OrderEvent> events) {
+        List<CompletableFuture<SendResult<String, OrderEvent>>> futures = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            try {
+                futures.add(send(event));
+            } catch (RuntimeException ex) {
+                futures.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+        kafkaTemplate.flush();
+        return futures;
+    }
+
+    /**
+     * Publica y mide en {@code orders.kafka.send} desde el envío hasta el ack del broker (o el error).
+     */
+    private CompletableFuture<SendResult<String, OrderEvent>> send(OrderEvent event) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, OrderEvent>> future = kafkaTemplate.send("order-created", keyOf(event), event);
+        future.whenComplete((result, ex) -> LatencyMetrics
+                .timer(meterRegistry, "orders.kafka.send", "outcome", ex == null ? LatencyMetrics.SUCCESS : LatencyMetrics.ERROR)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        return future;
     }
 
-    public void sendOrderCreatedEvent(OrderEvent event) {
-        kafkaTemplate.send("order-created", event);
+    // Clave por producto: todos los eventos de un producto van a la misma partición y conservan su orden
+    private static String keyOf(OrderEvent event) {
+        return String.valueOf(event.getProductId());
     }
 }
@@ -0,0 +1,32 @@
+package com.codefortress.order_service.config;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.schemas.EventFormat;
+import com.codefortress.schemas.EventSerializer;
+import com.codefortress.schemas.avro.OrderCreated;
+
+/**
+ * Traducción entre el OrderEvent de este servicio y el esquema compartido OrderCreated.
+ */
+public final class OrderEventSerde {
+
+    private OrderEventSerde() {
+    }
+
+    public static Serializer<OrderEvent> serializer(EventFormat format) {
+        return new EventSerializer<>(format, new JsonSerializer<>(), OrderEventSerde::toRecord, OrderCreated.getEncoder());
+    }
+
+    public static OrderCreated toRecord(OrderEvent event) {
+        return OrderCreated.newBuilder()
+                .setOrderId(event.getOrderId())
+                .setProductId(event.getProductId())
+                .setQuantity(event.getQuantity())
+                .setReservationId(event.getReservationId())
+                .setCreatedAt(event.getCreatedAt())
+                .build();
+    }
+}
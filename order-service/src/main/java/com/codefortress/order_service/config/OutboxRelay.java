@@ -0,0 +1,80 @@
+package com.codefortress.order_service.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.entities.OutboxEvent;
+import com.codefortress.order_service.repositories.OutboxEventRepository;
+
+/**
+ * Vacía la tabla order_outbox hacia order-created en lotes grandes.
+ * Entrega al menos una vez: si el borrado falla tras el ack, el evento se reenvía.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventProducer orderEventProducer;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OrderEventProducer orderEventProducer,
+            @Value("${orders.outbox.batch-size:500}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderEventProducer = orderEventProducer;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-ms:200}")
+    public void drain() {
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            int published = publish(batch);
+            // Si Kafka rechazó algo o el lote no venía lleno, se espera al siguiente ciclo
+            if (published < batch.size() || batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int publish(List<OutboxEvent> batch) {
+        List<OrderEvent> events = new ArrayList<>(batch.size());
+        for (OutboxEvent pending : batch) {
+            events.add(new OrderEvent(pending.getOrderId(), pending.getProductId(), pending.getQuantity(),
+                    pending.getReservationId(), pending.getCreatedAt().toEpochMilli()));
+        }
+
+        List<CompletableFuture<SendResult<String, OrderEvent>>> sends = orderEventProducer.sendOrderCreatedEvents(events);
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                sends.get(i).join();
+                sent.add(batch.get(i).getId());
+            } catch (RuntimeException ex) {
+                logger.warn("Kafka no confirmó la orden {}, se reintentará: {}", batch.get(i).getOrderId(), ex.getMessage());
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(sent);
+        }
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Outbox: publicados {} de {} eventos", sent.size(), batch.size());
+        }
+        return sent.size();
+    }
+}
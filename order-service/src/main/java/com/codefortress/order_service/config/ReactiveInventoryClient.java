@@ -0,0 +1,62 @@
+package com.codefortress.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.order_service.dtos.ReserveStockRequest;
+import com.codefortress.order_service.dtos.StockReservation;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión no bloqueante de {@link InventoryClient} sobre WebClient: ningún hilo
+ * queda esperando mientras inventory-service responde.
+ */
+@Component
+public class ReactiveInventoryClient {
+
+    private final WebClient webClient;
+    private final Duration timeout;
+    private final InventoryShards shards;
+
+    public ReactiveInventoryClient(WebClient.Builder loadBalancedWebClientBuilder,
+            @Value("${orders.inventory.timeout-ms:2000}") long timeoutMillis,
+            InventoryShards shards) {
+        this.webClient = loadBalancedWebClientBuilder.baseUrl("http://" + InventoryShards.SERVICE).build();
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.shards = shards;
+    }
+
+    /**
+     * Errores HTTP como WebClientResponseException (NotFound, Conflict...).
+     */
+    public Mono<StockReservation> reserve(ReserveStockRequest request) {
+        return webClient.post()
+                .uri("/api/inventory/reservations")
+                .headers(headers -> shardHeader(headers, shards.shardOf(request.getProductId())))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(StockReservation.class)
+                .timeout(timeout);
+    }
+
+    public Mono<Void> release(String reservationId) {
+        return webClient.delete()
+                .uri("/api/inventory/reservations/{reservationId}", reservationId)
+                .headers(headers -> shardHeader(headers, shards.shardOfReservation(reservationId)))
+                .retrieve()
+                .bodyToMono(Void.class)
+                .timeout(timeout);
+    }
+
+    private static void shardHeader(HttpHeaders headers, String shard) {
+        if (shard != null) {
+            headers.set(InventoryShards.HEADER, shard);
+        }
+    }
+}
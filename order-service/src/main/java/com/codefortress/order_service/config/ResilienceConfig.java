@@ -0,0 +1,50 @@
+package com.codefortress.order_service.config;
+
+import java.util.function.Predicate;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.common.circuitbreaker.configuration.CircuitBreakerConfigCustomizer;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+
+/**
+ * Ajustes de {@code inventoryServiceCB} que no caben en propiedades. Se aplican después de la
+ * configuración del config server.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    private static final String INVENTORY = "inventoryServiceCB";
+
+    // Solo se reintentan los fallos de inventory-service, y solo si queda presupuesto
+    @Bean
+    public RetryConfigCustomizer inventoryRetryBudget(RetryBudget retryBudget) {
+        Predicate<Throwable> retryable = ex -> !isShedOrRejected(ex) && retryBudget.tryWithdraw();
+        return RetryConfigCustomizer.of(INVENTORY, builder -> builder.retryOnException(retryable));
+    }
+
+    // Un 4xx o una llamada descartada por carga no dicen nada de la salud de inventory-service
+    @Bean
+    public CircuitBreakerConfigCustomizer inventoryCircuitBreakerIgnores() {
+        return CircuitBreakerConfigCustomizer.of(INVENTORY,
+                builder -> builder.ignoreException(ResilienceConfig::isClientErrorOrShed));
+    }
+
+    static boolean isShedOrRejected(Throwable ex) {
+        return ex instanceof ResponseStatusException
+                || ex instanceof InventoryOverloadedException
+                || ex instanceof BulkheadFullException
+                || ex instanceof CallNotPermittedException;
+    }
+
+    private static boolean isClientErrorOrShed(Throwable ex) {
+        if (ex instanceof ResponseStatusException status) {
+            return status.getStatusCode().is4xxClientError();
+        }
+        return ex instanceof InventoryOverloadedException;
+    }
+}
@@ -0,0 +1,73 @@
+package com.codefortress.order_service.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Presupuesto de reintentos: cada intento deposita {@code ratio} de un reintento y cada reintento
+ * gasta uno entero, así que los reintentos nunca superan esa fracción del tráfico. Además se
+ * permiten {@code min-per-second} reintentos por segundo para que con poco tráfico se siga
+ * reintentando. Sin presupuesto, el fallo se devuelve tal cual en vez de multiplicar la carga
+ * sobre un inventory-service que ya va lento.
+ */
+@Component
+public class RetryBudget {
+
+    private static final long UNIT = 1_000;
+
+    private final long depositPerAttempt;
+    private final long maxBalance;
+    private final int minPerSecond;
+
+    private final AtomicLong balance = new AtomicLong();
+    private volatile long currentSecond;
+    private final AtomicInteger usedInSecond = new AtomicInteger();
+    private final Counter exhausted;
+
+    public RetryBudget(MeterRegistry meterRegistry,
+            @Value("${orders.retry-budget.ratio:0.1}") double ratio,
+            @Value("${orders.retry-budget.min-per-second:5}") int minPerSecond,
+            @Value("${orders.retry-budget.max-balance:100}") int maxBalance) {
+        this.depositPerAttempt = Math.round(ratio * UNIT);
+        this.maxBalance = maxBalance * UNIT;
+        this.minPerSecond = minPerSecond;
+        this.exhausted = meterRegistry.counter("orders.retry.budget.exhausted");
+    }
+
+    /**
+     * Se llama una vez por intento, sea el primero o un reintento.
+     */
+    public void deposit() {
+        balance.accumulateAndGet(depositPerAttempt, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * Gasta un reintento si hay presupuesto.
+     */
+    public boolean tryWithdraw() {
+        long second = System.nanoTime() / 1_000_000_000L;
+        if (second != currentSecond) {
+            currentSecond = second;
+            usedInSecond.set(0);
+        }
+        if (usedInSecond.incrementAndGet() <= minPerSecond) {
+            return true;
+        }
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                exhausted.increment();
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.codefortress.order_service.config;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import com.codefortress.order_service.dtos.StockChangedEvent;
+import com.codefortress.order_service.services.StockCache;
+
+@Service
+public class StockChangedListener {
+
+    private final StockCache stockCache;
+
+    public StockChangedListener(StockCache stockCache) {
+        this.stockCache = stockCache;
+    }
+
+    // Grupo único por instancia: cada order-service necesita ver todos los cambios para su propia caché
+    @KafkaListener(
+        topics = "stock-changed",
+        groupId = "order-stock-cache-${random.uuid}",
+        containerFactory = "stockChangedListenerContainerFactory"
+    )
+    public void handleStockChanged(StockChangedEvent event) {
+        if (event.getProductId() != null && event.getStock() != null) {
+            stockCache.update(event.getProductId(), event.getStock(), event.getVersion());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.codefortress.order_service.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.commons.sharding.ShardLoadBalancerConfig;
+
+@Configuration
+// Feign y WebClient eligen la instancia de inventory-service por el shard del producto
+@LoadBalancerClient(name = InventoryShards.SERVICE, configuration = ShardLoadBalancerConfig.class)
+@Import(InventoryShards.class)
+public class WebClientConfig {
+
+    // Resuelve http://inventory-service vía Eureka, igual que el FeignClient
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+}
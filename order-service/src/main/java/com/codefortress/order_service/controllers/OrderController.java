@@ -1,15 +1,23 @@
 package com.codefortress.order_service.controllers;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.codefortress.order_service.config.LatencyMetrics;
 import com.codefortress.order_service.dtos.CreateOrderRequest;
 import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.dtos.OrderLineResult;
+import com.codefortress.order_service.services.AsyncOrderService;
 import com.codefortress.order_service.services.OrderService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 
 @RestController
@@ -18,12 +26,43 @@ import lombok.AllArgsConstructor;
 public class OrderController {
 
     private final OrderService orderService;
+    private final AsyncOrderService asyncOrderService;
+    private final MeterRegistry meterRegistry;
 
 
+    /**
+     * {@code orders.create} incluye Circuit Breaker, Retry (con sus esperas) y Bulkhead alrededor del servicio.
+     */
     @PostMapping
     public ResponseEntity<OrderEvent> create(@RequestBody CreateOrderRequest request) {
-        OrderEvent created = orderService.createOrder(request.getProductId(), request.getQuantity());
-        return ResponseEntity.ok(created);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = LatencyMetrics.SUCCESS;
+        try {
+            OrderEvent created = orderService.createOrder(request.getProductId(), request.getQuantity());
+            return ResponseEntity.ok(created);
+        } catch (RuntimeException ex) {
+            outcome = LatencyMetrics.outcomeOf(ex);
+            throw ex;
+        } finally {
+            sample.stop(LatencyMetrics.timer(meterRegistry, "orders.create", "outcome", outcome));
+        }
+    }
+
+    /**
+     * Variante no bloqueante: responde cuando Kafka confirma el evento y devuelve 503 si la publicación falla.
+     */
+    @PostMapping("/async")
+    public CompletableFuture<ResponseEntity<OrderEvent>> createAsync(@RequestBody CreateOrderRequest request) {
+        return asyncOrderService.createOrder(request.getProductId(), request.getQuantity())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Crea varias órdenes en una sola petición; responde un resultado por línea.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderLineResult>> createBatch(@RequestBody List<CreateOrderRequest> requests) {
+        return ResponseEntity.ok(orderService.createOrders(requests));
     }
 }
 
@@ -13,4 +13,11 @@ public class OrderEvent {
     private String orderId;
     private Integer productId;
     private Integer quantity;
+    private String reservationId;
+    // Creación de la orden (epoch ms): inventory-service mide con él la latencia de punta a punta
+    private Long createdAt;
+
+    public OrderEvent(String orderId, Integer productId, Integer quantity, String reservationId) {
+        this(orderId, productId, quantity, reservationId, System.currentTimeMillis());
+    }
 }
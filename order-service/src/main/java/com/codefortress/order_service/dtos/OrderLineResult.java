@@ -0,0 +1,24 @@
+package com.codefortress.order_service.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resultado de una línea de POST /api/orders/batch, en el mismo orden que la petición.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class OrderLineResult {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private String status;
+    // Solo presente cuando status es CREATED
+    private OrderEvent order;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.codefortress.order_service.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class ReservationResult {
+    public static final String RESERVED = "RESERVED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
+
+    private String status;
+    private StockReservation reservation;
+}
@@ -0,0 +1,15 @@
+package com.codefortress.order_service.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class ReserveStockRequest {
+    private Integer productId;
+    private Integer quantity;
+}
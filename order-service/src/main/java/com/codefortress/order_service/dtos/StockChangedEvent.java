@@ -0,0 +1,18 @@
+package com.codefortress.order_service.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class StockChangedEvent {
+    private Integer productId;
+    private Integer stock;
+    private long changedAt;
+    // Crece con cada cambio del producto; la caché descarta los eventos de versión menor
+    private long version;
+}
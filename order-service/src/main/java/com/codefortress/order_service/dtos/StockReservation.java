@@ -0,0 +1,17 @@
+package com.codefortress.order_service.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class StockReservation {
+    private String reservationId;
+    private Integer productId;
+    private Integer quantity;
+    private long expiresAt;
+}
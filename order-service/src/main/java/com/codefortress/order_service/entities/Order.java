@@ -1,15 +1,27 @@
 package com.codefortress.order_service.entities;
 
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+@Entity
+@Table(name = "orders")
 @AllArgsConstructor
+@NoArgsConstructor
 @Setter
 @Getter
 public class Order {
+    @Id
     private String id;
-    private String productId;
+    private Integer productId;
     private Integer quantity;
     private String status;
+    private String reservationId;
+    private Instant createdAt;
 }
@@ -0,0 +1,35 @@
+package com.codefortress.order_service.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Evento order-created pendiente de publicar. Se guarda en la misma transacción que la orden
+ * y {@code OutboxRelay} lo borra cuando Kafka lo confirma.
+ */
+@Entity
+@Table(name = "order_outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class OutboxEvent {
+    // El orden del id es el orden de publicación
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String orderId;
+    private Integer productId;
+    private Integer quantity;
+    private String reservationId;
+    private Instant createdAt;
+}
@@ -0,0 +1,8 @@
+package com.codefortress.order_service.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.codefortress.order_service.entities.Order;
+
+public interface OrderRepository extends JpaRepository<Order, String> {
+}
@@ -0,0 +1,105 @@
+package com.codefortress.order_service.services;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.order_service.config.OrderEventProducer;
+import com.codefortress.order_service.config.ReactiveInventoryClient;
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.dtos.ReserveStockRequest;
+import com.codefortress.order_service.dtos.StockReservation;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.AllArgsConstructor;
+
+/**
+ * Creación de órdenes sin bloquear hilos: la reserva va por WebClient y la
+ * orden solo se da por creada cuando el broker confirma el evento.
+ */
+@Service
+@AllArgsConstructor
+public class AsyncOrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncOrderService.class);
+
+    private final ReactiveInventoryClient reactiveInventoryClient;
+    private final OrderEventProducer orderEventProducer;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public CompletableFuture<OrderEvent> createOrder(Integer productId, Integer quantity) {
+        // Mismo circuit breaker que la ruta síncrona, aplicado sobre el CompletionStage
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("inventoryServiceCB");
+
+        return circuitBreaker.executeCompletionStage(
+                        () -> reactiveInventoryClient.reserve(new ReserveStockRequest(productId, quantity)).toFuture())
+                .toCompletableFuture()
+                .exceptionally(ex -> {
+                    throw toResponseStatus(productId, unwrap(ex));
+                })
+                .thenCompose(reservation -> publish(productId, quantity, reservation));
+    }
+
+    private CompletableFuture<OrderEvent> publish(Integer productId, Integer quantity, StockReservation reservation) {
+        OrderEvent newOrder = new OrderEvent(
+                UUID.randomUUID().toString(),
+                productId,
+                quantity,
+                reservation.getReservationId()
+        );
+
+        CompletableFuture<SendResult<String, OrderEvent>> send;
+        try {
+            send = orderEventProducer.sendOrderCreatedEvent(newOrder);
+        } catch (RuntimeException ex) {
+            send = CompletableFuture.failedFuture(ex);
+        }
+
+        return send.handle((result, ex) -> {
+            if (ex != null) {
+                logger.error("No se pudo publicar la orden {}: {}", newOrder.getOrderId(), unwrap(ex).getMessage());
+                releaseQuietly(reservation.getReservationId());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No se pudo publicar la orden");
+            }
+            if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+                logger.info("Orden {} confirmada por Kafka en partición {} offset {}", newOrder.getOrderId(),
+                        result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+            }
+            return newOrder;
+        });
+    }
+
+    private void releaseQuietly(String reservationId) {
+        reactiveInventoryClient.release(reservationId)
+                .subscribe(null, ex -> logger.warn("No se pudo liberar la reserva {}: {}", reservationId, ex.getMessage()));
+    }
+
+    private RuntimeException toResponseStatus(Integer productId, Throwable ex) {
+        if (ex instanceof ResponseStatusException responseStatus) {
+            return responseStatus;
+        }
+        if (ex instanceof WebClientResponseException.NotFound) {
+            logger.warn("Producto no encontrado en inventario: {}", productId);
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no disponible en inventario");
+        }
+        if (ex instanceof WebClientResponseException.Conflict) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "No hay suficiente stock disponible.");
+        }
+        logger.error("Inventario no disponible al reservar producto {}: {}", productId, ex.getMessage());
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventario temporalmente no disponible");
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
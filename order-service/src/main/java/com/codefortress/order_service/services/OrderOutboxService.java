@@ -0,0 +1,48 @@
+package com.codefortress.order_service.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.entities.Order;
+import com.codefortress.order_service.entities.OutboxEvent;
+import com.codefortress.order_service.repositories.OrderRepository;
+import com.codefortress.order_service.repositories.OutboxEventRepository;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Guarda la orden y su evento de salida en una sola transacción local.
+ * La publicación en Kafka la hace después {@code OutboxRelay}.
+ */
+@Service
+@AllArgsConstructor
+public class OrderOutboxService {
+
+    private final OrderRepository orderRepository;
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Transactional
+    public void save(OrderEvent event) {
+        saveAll(List.of(event));
+    }
+
+    @Transactional
+    public void saveAll(List<OrderEvent> events) {
+        Instant now = Instant.now();
+        List<Order> orders = new ArrayList<>(events.size());
+        List<OutboxEvent> outbox = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            orders.add(new Order(event.getOrderId(), event.getProductId(), event.getQuantity(), "CREATED",
+                    event.getReservationId(), now));
+            outbox.add(new OutboxEvent(null, event.getOrderId(), event.getProductId(), event.getQuantity(),
+                    event.getReservationId(), now));
+        }
+        orderRepository.saveAll(orders);
+        outboxEventRepository.saveAll(outbox);
+    }
+}
@@ -1,5 +1,10 @@
 package com.codefortress.order_service.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -8,13 +13,26 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.codefortress.commons.logging.HotPathLogFilter;
+import com.codefortress.commons.sharding.InventoryShards;
 import com.codefortress.order_service.config.InventoryClient;
-import com.codefortress.order_service.config.OrderEventProducer;
+import com.codefortress.order_service.config.InventoryOverloadedException;
+import com.codefortress.order_service.config.LatencyMetrics;
+import com.codefortress.order_service.config.RetryBudget;
+import com.codefortress.order_service.dtos.CreateOrderRequest;
 import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.dtos.OrderLineResult;
+import com.codefortress.order_service.dtos.ReservationResult;
+import com.codefortress.order_service.dtos.ReserveStockRequest;
+import com.codefortress.order_service.dtos.StockReservation;
 
 import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 
 
@@ -25,41 +43,183 @@ public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
     private final InventoryClient inventoryClient;
-    private final OrderEventProducer orderEventProducer;
+    private final OrderOutboxService orderOutboxService;
+    private final StockCache stockCache;
+    private final MeterRegistry meterRegistry;
+    private final RetryBudget retryBudget;
+    private final InventoryShards inventoryShards;
 
     
 
+    /**
+     * Los reintentos de @Retry salen de {@link RetryBudget}; con el bulkhead lleno o el límite de
+     * concurrencia alcanzado se responde 503 sin esperar ni reintentar.
+     */
     @CircuitBreaker(name = "inventoryServiceCB", fallbackMethod = "fallbackGetStock")
     @Retry(name = "inventoryServiceCB")
+    @Bulkhead(name = "inventoryServiceBH")
     public OrderEvent createOrder(Integer productId, Integer quantity) {
-        logger.info("Verificando stock para producto: {} cantidad solicitada: {}", productId, quantity);
-
+        retryBudget.deposit();
+        // Un intento, sin la espera ni los reintentos de @Retry: frente a orders.create da su sobrecoste
+        Timer.Sample attempt = Timer.start(meterRegistry);
+        String outcome = LatencyMetrics.SUCCESS;
         try {
-            Integer availableStock = inventoryClient.getStock(productId);
-            logger.info("Stock disponible para producto {}: {}", productId, availableStock);
+            return reserveAndSave(productId, quantity);
+        } catch (RuntimeException ex) {
+            outcome = LatencyMetrics.outcomeOf(ex);
+            throw ex;
+        } finally {
+            attempt.stop(LatencyMetrics.timer(meterRegistry, "orders.create.attempt", "outcome", outcome));
+        }
+    }
+
+    private OrderEvent reserveAndSave(Integer productId, Integer quantity) {
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Reservando stock para producto: {} cantidad solicitada: {}", productId, quantity);
+        }
 
-            if (availableStock == null || availableStock < quantity) {
+        try {
+            // Si la caché ya sabe que el stock no alcanza, se rechaza sin reservar. Sin dato no se
+            // consulta a inventory-service: la reserva valida igual y sería una llamada de más
+            Integer knownStock = stockCache.getIfPresent(productId);
+            if (knownStock != null && knownStock < quantity) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No hay suficiente stock disponible.");
             }
 
+            // Una sola llamada valida y retiene el stock; el evento confirma la reserva en inventory-service
+            StockReservation reservation = inventoryClient.reserve(inventoryShards.shardOf(productId),
+                    new ReserveStockRequest(productId, quantity));
+            if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+                logger.info("Reserva {} creada para producto {}", reservation.getReservationId(), productId);
+            }
+
             OrderEvent newOrder = new OrderEvent(
                     UUID.randomUUID().toString(),
                     productId,
-                    quantity
+                    quantity,
+                    reservation.getReservationId()
             );
 
-            orderEventProducer.sendOrderCreatedEvent(newOrder);
+            // Una escritura local: OutboxRelay publica el evento en Kafka en segundo plano
+            try {
+                orderOutboxService.save(newOrder);
+            } catch (RuntimeException ex) {
+                releaseQuietly(reservation.getReservationId());
+                throw ex;
+            }
 
-            logger.info("Orden creada y evento publicado en Kafka: {}", newOrder.getOrderId());
+            if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+                logger.info("Orden creada y registrada en el outbox: {}", newOrder.getOrderId());
+            }
             return newOrder;
 
         } catch (FeignException.NotFound ex) {
             logger.warn("Producto no encontrado en inventario: {}", productId);
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no disponible en inventario");
+        } catch (FeignException.Conflict ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No hay suficiente stock disponible.");
         }
         // Otros FeignException NO los capturas aquí → los maneja @Retry + CircuitBreaker
     }
 
+    /**
+     * Crea varias órdenes con una sola reserva en lote y una sola transacción local en el outbox.
+     * Sin @Retry: reintentar el lote entero dejaría reservas duplicadas hasta que caduquen.
+     */
+    @CircuitBreaker(name = "inventoryServiceCB", fallbackMethod = "fallbackCreateOrders")
+    @Bulkhead(name = "inventoryServiceBH")
+    public List<OrderLineResult> createOrders(List<CreateOrderRequest> lines) {
+        List<ReserveStockRequest> reserveRequests = new ArrayList<>(lines.size());
+        for (CreateOrderRequest line : lines) {
+            reserveRequests.add(new ReserveStockRequest(line.getProductId(), line.getQuantity()));
+        }
+        List<ReservationResult> reservations = reserveByShard(reserveRequests);
+
+        OrderLineResult[] results = new OrderLineResult[lines.size()];
+        List<OrderEvent> events = new ArrayList<>();
+        List<Integer> eventLines = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            ReservationResult reservation = reservations.get(i);
+            if (!ReservationResult.RESERVED.equals(reservation.getStatus())) {
+                results[i] = new OrderLineResult(OrderLineResult.REJECTED, null, reservation.getStatus());
+                continue;
+            }
+            CreateOrderRequest line = lines.get(i);
+            events.add(new OrderEvent(
+                    UUID.randomUUID().toString(),
+                    line.getProductId(),
+                    line.getQuantity(),
+                    reservation.getReservation().getReservationId()
+            ));
+            eventLines.add(i);
+        }
+
+        try {
+            orderOutboxService.saveAll(events);
+            for (int j = 0; j < events.size(); j++) {
+                results[eventLines.get(j)] = new OrderLineResult(OrderLineResult.CREATED, events.get(j), null);
+            }
+        } catch (RuntimeException ex) {
+            logger.error("No se pudo registrar el lote en el outbox: {}", ex.getMessage(), ex);
+            for (int j = 0; j < events.size(); j++) {
+                releaseQuietly(events.get(j).getReservationId());
+                results[eventLines.get(j)] = new OrderLineResult(OrderLineResult.FAILED, null, "No se pudo registrar la orden");
+            }
+        }
+
+        if (logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)) {
+            logger.info("Lote de {} líneas procesado, {} órdenes reservadas", lines.size(), events.size());
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Una reserva en lote por shard de inventario, con los resultados en el orden de las líneas.
+     * Si falla un shard se liberan las reservas ya hechas en los otros.
+     */
+    private List<ReservationResult> reserveByShard(List<ReserveStockRequest> requests) {
+        Map<String, List<Integer>> linesByShard = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            linesByShard.computeIfAbsent(inventoryShards.shardOf(requests.get(i).getProductId()), shard -> new ArrayList<>())
+                    .add(i);
+        }
+        if (linesByShard.size() < 2) {
+            String shard = linesByShard.isEmpty() ? null : linesByShard.keySet().iterator().next();
+            return inventoryClient.reserveAll(shard, requests);
+        }
+
+        ReservationResult[] results = new ReservationResult[requests.size()];
+        try {
+            linesByShard.forEach((shard, lines) -> {
+                List<ReserveStockRequest> shardRequests = new ArrayList<>(lines.size());
+                lines.forEach(line -> shardRequests.add(requests.get(line)));
+                List<ReservationResult> shardResults = inventoryClient.reserveAll(shard, shardRequests);
+                for (int j = 0; j < lines.size(); j++) {
+                    results[lines.get(j)] = shardResults.get(j);
+                }
+            });
+        } catch (RuntimeException ex) {
+            for (ReservationResult result : results) {
+                if (result != null && ReservationResult.RESERVED.equals(result.getStatus())) {
+                    releaseQuietly(result.getReservation().getReservationId());
+                }
+            }
+            throw ex;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Libera una reserva sin propagar errores; si falla, el TTL de inventory-service la devuelve igualmente.
+     */
+    private void releaseQuietly(String reservationId) {
+        try {
+            inventoryClient.release(inventoryShards.shardOfReservation(reservationId), reservationId);
+        } catch (FeignException ex) {
+            logger.warn("No se pudo liberar la reserva {}: {}", reservationId, ex.getMessage());
+        }
+    }
+
 
 
 
@@ -67,8 +227,24 @@ public class OrderService {
      * Fallback method ejecutado si falla el Circuit Breaker o los retries.
      */
     public OrderEvent fallbackGetStock(Integer productId, Integer quantity, Throwable t) {
+        if (t instanceof ResponseStatusException status) {
+            // Stock insuficiente o producto inexistente: no es un fallo de inventario
+            throw status;
+        }
+        if (t instanceof InventoryOverloadedException || t instanceof BulkheadFullException) {
+            // Descarte por carga: lo cuentan orders.inventory.shed y el bulkhead, sin log por petición
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventario saturado, reintente más tarde");
+        }
         logger.error("Circuit Breaker activado al consultar inventario: {}", t.getMessage(), t);
         throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventario temporalmente no disponible");
     }
 
+    public List<OrderLineResult> fallbackCreateOrders(List<CreateOrderRequest> lines, Throwable t) {
+        if (t instanceof InventoryOverloadedException || t instanceof BulkheadFullException) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventario saturado, reintente más tarde");
+        }
+        logger.error("Circuit Breaker activado al reservar un lote de {} líneas: {}", lines.size(), t.getMessage(), t);
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventario temporalmente no disponible");
+    }
+
 }
\ No newline at end of file
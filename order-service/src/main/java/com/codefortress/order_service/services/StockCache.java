@@ -0,0 +1,94 @@
+package com.codefortress.order_service.services;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.order_service.config.InventoryClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché local del stock de inventory-service, acotada por tamaño y TTL.
+ * Se mantiene fresca con los eventos de stock-changed; el TTL solo cubre los eventos perdidos.
+ * Los eventos pueden llegar desordenados: cada entrada guarda la versión del evento que la
+ * escribió y uno más viejo no la pisa.
+ */
+@Service
+public class StockCache {
+
+    // Versión de lo que llega por HTTP: cualquier evento es más nuevo
+    private static final long UNVERSIONED = Long.MIN_VALUE;
+
+    private final InventoryClient inventoryClient;
+    private final InventoryShards shards;
+    private final Cache<Integer, VersionedStock> cache;
+    private final SingleFlight<Integer, Integer> lookups;
+
+    public StockCache(InventoryClient inventoryClient, InventoryShards shards, MeterRegistry meterRegistry,
+            @Value("${orders.stock-cache.max-size:10000}") long maxSize,
+            @Value("${orders.stock-cache.ttl-ms:5000}") long ttlMillis) {
+        this.inventoryClient = inventoryClient;
+        this.shards = shards;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        // Expone cache_gets_total{result=hit|miss}, cache_evictions_total y cache_size en Prometheus
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventoryStock");
+        this.lookups = new SingleFlight<>(meterRegistry, "orders.stock.lookups");
+    }
+
+    /**
+     * Stock del producto, consultando a inventory-service solo si no está en caché.
+     * Las consultas simultáneas del mismo producto comparten una sola llamada.
+     * Devuelve null si el producto no existe (y no se cachea).
+     */
+    public Integer getStock(Integer productId) {
+        VersionedStock cached = cache.getIfPresent(productId);
+        if (cached != null) {
+            return cached.stock();
+        }
+        return lookups.load(productId, this::fetch);
+    }
+
+    /**
+     * Stock cacheado o null, sin salir a la red.
+     */
+    public Integer getIfPresent(Integer productId) {
+        VersionedStock cached = cache.getIfPresent(productId);
+        return cached == null ? null : cached.stock();
+    }
+
+    /**
+     * Guarda el stock de un evento stock-changed salvo que ya haya uno de versión mayor.
+     *
+     * @return false si el evento era viejo y se descartó
+     */
+    public boolean update(Integer productId, Integer stock, long version) {
+        VersionedStock offered = new VersionedStock(stock, version);
+        return cache.asMap().merge(productId, offered, StockCache::newer) == offered;
+    }
+
+    private Integer fetch(Integer productId) {
+        Integer stock = inventoryClient.getStock(shards.shardOf(productId), productId);
+        if (stock == null) {
+            return null;
+        }
+        // Si mientras tanto llegó un evento, gana el evento
+        return cache.asMap().merge(productId, new VersionedStock(stock, UNVERSIONED), StockCache::newer).stock();
+    }
+
+    private static VersionedStock newer(VersionedStock current, VersionedStock offered) {
+        return offered.version() >= current.version() ? offered : current;
+    }
+
+    private record VersionedStock(int stock, long version) {
+    }
+}
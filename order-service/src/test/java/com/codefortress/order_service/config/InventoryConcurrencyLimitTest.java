@@ -0,0 +1,86 @@
+package com.codefortress.order_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventoryConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1_500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryConcurrencyLimit limiter =
+            new InventoryConcurrencyLimit(meterRegistry, 4, 2, 6, Duration.ofMillis(300), 0.5);
+
+    @Test
+    void rejectsAboveTheCurrentLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+    }
+
+    @Test
+    void growsWhileBusyAndFastUpToMax() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    void doesNotGrowWhileIdle() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void backsOffOnSlowResponsesAndErrorsDownToMin() {
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void shedsWithoutCallingInventoryWhenFull() throws Exception {
+        Request request = Request.create(Request.HttpMethod.GET, "http://inventory-service/api/inventory/1",
+                Collections.emptyMap(), Request.Body.empty(), null);
+        Client ok = (req, options) -> Response.builder().status(200).request(req).headers(Collections.emptyMap()).build();
+        Client limited = limiter.enrich(ok);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+
+        assertThatThrownBy(() -> limited.execute(request, new Request.Options()))
+                .isInstanceOf(InventoryOverloadedException.class);
+        assertThat(meterRegistry.counter("orders.inventory.shed").count()).isEqualTo(1);
+
+        limiter.release(FAST, false);
+        assertThat(limited.execute(request, new Request.Options()).status()).isEqualTo(200);
+        assertThat(limiter.getInFlight()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,111 @@
+package com.codefortress.order_service.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.codefortress.order_service.dtos.OrderEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compara perfiles de {@link KafkaProducerProperties} contra un broker embebido.
+ * No corre en el build normal:
+ * {@code mvn test -Dtest=KafkaProducerProfileBenchmark -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class KafkaProducerProfileBenchmark {
+
+    private static final int RECORDS = Integer.getInteger("benchmark.records", 200_000);
+    private static final String TOPIC = "order-created";
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void compareProfiles() {
+        Map<String, KafkaProducerProperties> profiles = new LinkedHashMap<>();
+        profiles.put("defaults-kafka", profile(16_384, 0, "none", "all", true));
+        profiles.put("acks1-sin-idempotencia", profile(16_384, 0, "none", "1", false));
+        profiles.put("throughput-lz4", profile(65_536, 10, "lz4", "all", true));
+        profiles.put("throughput-zstd", profile(65_536, 10, "zstd", "all", true));
+        profiles.put("throughput-snappy", profile(131_072, 20, "snappy", "all", true));
+
+        List<OrderEvent> events = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            events.add(new OrderEvent(UUID.randomUUID().toString(), 1 + i % 50, 1 + i % 5, UUID.randomUUID().toString()));
+        }
+
+        System.out.printf("%-24s %12s %14s %12s%n", "perfil", "records/s", "bytes enviados", "bytes/record");
+        for (Map.Entry<String, KafkaProducerProperties> entry : profiles.entrySet()) {
+            // Una pasada de calentamiento y otra medida, cada una con su propio productor
+            run(entry.getValue(), events.subList(0, Math.min(20_000, RECORDS)));
+            Result result = run(entry.getValue(), events);
+            System.out.printf("%-24s %12.0f %14.0f %12.1f%n", entry.getKey(),
+                    RECORDS / (result.nanos / 1e9), result.bytes, result.bytes / RECORDS);
+        }
+    }
+
+    private static Result run(KafkaProducerProperties properties, List<OrderEvent> events) {
+        DefaultKafkaProducerFactory<String, OrderEvent> factory =
+                new DefaultKafkaProducerFactory<>(properties.toProducerConfig());
+        KafkaTemplate<String, OrderEvent> template = new KafkaTemplate<>(factory);
+        OrderEventProducer producer = new OrderEventProducer(template, new SimpleMeterRegistry());
+        try {
+            long start = System.nanoTime();
+            List<? extends CompletableFuture<?>> sends = producer.sendOrderCreatedEvents(events);
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+            long nanos = System.nanoTime() - start;
+            return new Result(nanos, metric(template.metrics(), "outgoing-byte-total"));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static double metric(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> metric : metrics.entrySet()) {
+            if (metric.getKey().name().equals(name) && metric.getKey().group().equals("producer-metrics")) {
+                return ((Number) metric.getValue().metricValue()).doubleValue();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static KafkaProducerProperties profile(int batchSize, int lingerMs, String compression, String acks,
+            boolean idempotence) {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setBootstrapServers(broker.getBrokersAsString());
+        properties.setBatchSize(batchSize);
+        properties.setLingerMs(lingerMs);
+        properties.setCompressionType(compression);
+        properties.setAcks(acks);
+        properties.setIdempotence(idempotence);
+        return properties;
+    }
+
+    private record Result(long nanos, double bytes) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.codefortress.order_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.schemas.EventDeserializer;
+import com.codefortress.schemas.EventFormat;
+import com.codefortress.schemas.avro.OrderCreated;
+
+class OrderEventSerdeTest {
+
+    private final OrderEvent event = new OrderEvent(UUID.randomUUID().toString(), 2, 3, UUID.randomUUID().toString());
+
+    @Test
+    void avroCarriesEveryFieldInFewerBytesThanJson() throws IOException {
+        Serializer<OrderEvent> avro = OrderEventSerde.serializer(EventFormat.AVRO);
+        Serializer<OrderEvent> json = OrderEventSerde.serializer(EventFormat.JSON);
+
+        byte[] avroBytes = avro.serialize("order-created", event);
+        byte[] jsonBytes = json.serialize("order-created", event);
+
+        assertThat(EventDeserializer.isAvro(avroBytes)).isTrue();
+        assertThat(EventDeserializer.isAvro(jsonBytes)).isFalse();
+        assertThat(avroBytes.length).isLessThan(jsonBytes.length);
+
+        OrderCreated decoded = OrderCreated.getDecoder().decode(avroBytes);
+        assertThat(decoded.getOrderId()).isEqualTo(event.getOrderId());
+        assertThat(decoded.getProductId()).isEqualTo(2);
+        assertThat(decoded.getQuantity()).isEqualTo(3);
+        assertThat(decoded.getReservationId()).isEqualTo(event.getReservationId());
+    }
+}
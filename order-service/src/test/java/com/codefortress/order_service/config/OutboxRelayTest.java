@@ -0,0 +1,90 @@
+package com.codefortress.order_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.SendResult;
+
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.entities.OutboxEvent;
+import com.codefortress.order_service.repositories.OutboxEventRepository;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final OrderEventProducer producer = mock(OrderEventProducer.class);
+
+    @Test
+    void deletesOnlyTheEventsTheBrokerAcked() {
+        when(repository.findAllByOrderByIdAsc(any())).thenReturn(pending(1, 2, 3));
+        when(producer.sendOrderCreatedEvents(anyList())).thenReturn(List.of(
+                acked(), CompletableFuture.failedFuture(new IllegalStateException("broker caído")), acked()));
+
+        new OutboxRelay(repository, producer, 3).drain();
+
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 3L));
+        // Con un rechazo no sigue vaciando: el evento 2 se reintenta en el siguiente ciclo
+        verify(repository, times(1)).findAllByOrderByIdAsc(any());
+    }
+
+    @Test
+    void deletesNothingWhenTheBrokerAcksNothing() {
+        when(repository.findAllByOrderByIdAsc(any())).thenReturn(pending(1));
+        when(producer.sendOrderCreatedEvents(anyList()))
+                .thenReturn(List.of(CompletableFuture.failedFuture(new IllegalStateException("timeout"))));
+
+        new OutboxRelay(repository, producer, 10).drain();
+
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void keepsDrainingWhileBatchesComeBackFull() {
+        when(repository.findAllByOrderByIdAsc(any())).thenReturn(pending(1, 2), pending(3), List.of());
+        when(producer.sendOrderCreatedEvents(anyList()))
+                .thenAnswer(invocation -> acks(invocation.<List<?>>getArgument(0).size()));
+
+        new OutboxRelay(repository, producer, 2).drain();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderEvent>> published = ArgumentCaptor.forClass(List.class);
+        verify(producer, times(2)).sendOrderCreatedEvents(published.capture());
+        assertThat(published.getAllValues()).flatExtracting(events -> events)
+                .extracting(OrderEvent::getOrderId).containsExactly("o-1", "o-2", "o-3");
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    private static List<OutboxEvent> pending(long... ids) {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (long id : ids) {
+            events.add(new OutboxEvent(id, "o-" + id, 1, 1, "0:r-" + id, Instant.EPOCH));
+        }
+        return events;
+    }
+
+    private static CompletableFuture<SendResult<String, OrderEvent>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static List<CompletableFuture<SendResult<String, OrderEvent>>> acks(int count) {
+        List<CompletableFuture<SendResult<String, OrderEvent>>> acks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            acks.add(acked());
+        }
+        return acks;
+    }
+}
@@ -0,0 +1,50 @@
+package com.codefortress.order_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void retriesAreCappedAtTheRatioOfAttempts() {
+        RetryBudget budget = new RetryBudget(meterRegistry, 0.1, 0, 100);
+        for (int i = 0; i < 50; i++) {
+            budget.deposit();
+        }
+
+        int granted = 0;
+        while (budget.tryWithdraw()) {
+            granted++;
+        }
+
+        assertThat(granted).isEqualTo(5);
+        assertThat(meterRegistry.counter("orders.retry.budget.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void minPerSecondAllowsRetriesWithoutTraffic() {
+        RetryBudget budget = new RetryBudget(meterRegistry, 0.1, 3, 100);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    void balanceIsCapped() {
+        RetryBudget budget = new RetryBudget(meterRegistry, 1.0, 0, 2);
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+}
@@ -0,0 +1,36 @@
+package com.codefortress.order_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.order_service.dtos.StockChangedEvent;
+import com.codefortress.order_service.services.StockCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StockChangedListenerTest {
+
+    private final StockCache cache = new StockCache(mock(InventoryClient.class), InventoryShards.unsharded(),
+            new SimpleMeterRegistry(), 100, 60_000);
+    private final StockChangedListener listener = new StockChangedListener(cache);
+
+    @Test
+    void keepsTheNewestStockWhenEventsArriveOutOfOrder() {
+        // Dos hilos de inventory publicaron 5 y luego 2; llegan al revés
+        listener.handleStockChanged(new StockChangedEvent(1, 2, 1_000L, 101L));
+        listener.handleStockChanged(new StockChangedEvent(1, 5, 1_000L, 100L));
+
+        assertThat(cache.getIfPresent(1)).isEqualTo(2);
+    }
+
+    @Test
+    void ignoresIncompleteEvents() {
+        listener.handleStockChanged(new StockChangedEvent(1, null, 1_000L, 1L));
+        listener.handleStockChanged(new StockChangedEvent(null, 3, 1_000L, 2L));
+
+        assertThat(cache.getIfPresent(1)).isNull();
+    }
+}
@@ -0,0 +1,72 @@
+package com.codefortress.order_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.codefortress.order_service.dtos.OrderEvent;
+import com.codefortress.order_service.entities.OutboxEvent;
+import com.codefortress.order_service.repositories.OrderRepository;
+import com.codefortress.order_service.repositories.OutboxEventRepository;
+
+// Sin application.yml, que importa el config-server sin opción de seguir si no está.
+// Sin la transacción de la prueba: cada llamada al servicio confirma o deshace la suya
+@DataJpaTest(properties = { "spring.config.name=order-outbox-test", "spring.cloud.config.enabled=false" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OrderOutboxService.class)
+class OrderOutboxServiceTest {
+
+    @Autowired
+    private OrderOutboxService outboxService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockitoSpyBean
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void savesEachOrderWithItsOutboxEvent() {
+        outboxService.saveAll(List.of(
+                new OrderEvent("o-1", 1, 2, "0:r-1", 0L),
+                new OrderEvent("o-2", 3, 1, "0:r-2", 0L)));
+
+        assertThat(orderRepository.findAll()).extracting("id").containsExactlyInAnyOrder("o-1", "o-2");
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getOrderId, OutboxEvent::getProductId, OutboxEvent::getReservationId)
+                .containsExactlyInAnyOrder(
+                        tuple("o-1", 1, "0:r-1"),
+                        tuple("o-2", 3, "0:r-2"));
+    }
+
+    @Test
+    void aFailedOutboxWriteRollsBackTheOrders() {
+        doThrow(new DataIntegrityViolationException("outbox")).when(outboxEventRepository).saveAll(anyList());
+
+        assertThatThrownBy(() -> outboxService.saveAll(List.of(new OrderEvent("o-3", 1, 2, "0:r-3", 0L))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(orderRepository.count()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package com.codefortress.order_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Integer, Integer> singleFlight = new SingleFlight<>(meterRegistry, "lookups");
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsOfTheSameKeyShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Integer>> results = submit(() -> singleFlight.load(1, key -> {
+            calls.incrementAndGet();
+            await(release);
+            return 42;
+        }));
+
+        waitForCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.counter("lookups", "role", "leader").count()).isEqualTo(1);
+    }
+
+    @Test
+    void waitersGetTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Integer>> results = submit(() -> singleFlight.load(1, key -> {
+            await(release);
+            throw new IllegalStateException("inventario caído");
+        }));
+
+        waitForCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void nextLoadAfterCompletionCallsAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.load(1, key -> calls.incrementAndGet());
+        singleFlight.load(1, key -> calls.incrementAndGet());
+        singleFlight.load(2, key -> calls.incrementAndGet());
+
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.counter("lookups", "role", "coalesced").count()).isZero();
+    }
+
+    private List<Future<Integer>> submit(Callable<Integer> task) {
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(task));
+        }
+        return results;
+    }
+
+    private void waitForCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("lookups", "role", "coalesced").count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
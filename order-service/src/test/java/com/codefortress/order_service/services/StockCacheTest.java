@@ -0,0 +1,61 @@
+package com.codefortress.order_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.codefortress.commons.sharding.InventoryShards;
+import com.codefortress.order_service.config.InventoryClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StockCacheTest {
+
+    private final InventoryClient inventoryClient = mock(InventoryClient.class);
+    private final StockCache cache = new StockCache(inventoryClient, InventoryShards.unsharded(),
+            new SimpleMeterRegistry(), 100, 60_000);
+
+    @Test
+    void olderEventsDoNotOverwriteNewerOnes() {
+        assertThat(cache.update(1, 7, 20)).isTrue();
+        assertThat(cache.update(1, 10, 10)).isFalse();
+        assertThat(cache.getIfPresent(1)).isEqualTo(7);
+
+        assertThat(cache.update(1, 4, 30)).isTrue();
+        assertThat(cache.getIfPresent(1)).isEqualTo(4);
+    }
+
+    @Test
+    void eventsWinOverFetchedValues() {
+        when(inventoryClient.getStock(any(), eq(1))).thenReturn(50);
+        assertThat(cache.getStock(1)).isEqualTo(50);
+
+        cache.update(1, 45, 1);
+        assertThat(cache.getStock(1)).isEqualTo(45);
+    }
+
+    @Test
+    void fetchDoesNotOverwriteAnEventThatArrivedMeanwhile() {
+        when(inventoryClient.getStock(any(), eq(1))).thenAnswer(invocation -> {
+            cache.update(1, 8, 5);
+            return 9;
+        });
+
+        assertThat(cache.getStock(1)).isEqualTo(8);
+        assertThat(cache.getIfPresent(1)).isEqualTo(8);
+    }
+
+    @Test
+    void cachedValuesSkipTheCall() {
+        cache.update(2, 3, 1);
+
+        assertThat(cache.getStock(2)).isEqualTo(3);
+        verify(inventoryClient, never()).getStock(any(), eq(2));
+    }
+}
@@ -0,0 +1,168 @@
+package com.codefortress.commons.kafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Re-inyecta en bloque los eventos del DLT en el primer tema de reintento, de modo que vuelven a
+ * pasar por el pipeline completo (reintentos y, si fallan otra vez, DLT) solo para este servicio.
+ *
+ * El avance se guarda como offset de un grupo propio: cada llamada sigue donde quedó la anterior
+ * y un evento no se marca como re-inyectado hasta que Kafka confirma su envío.
+ *
+ * Cada servicio crea el suyo con sus temas, su grupo de replay y el nombre de su contador.
+ */
+public class DeadLetterReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    // Cabeceras de los intentos anteriores: sin ellas el evento empieza de nuevo la escalera de reintentos
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final String RETRY_HEADER_PREFIX = "retry_topic-";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final KafkaTemplate<Object, Object> retryKafkaTemplate;
+    private final String bootstrapServers;
+    private final String deadLetterTopic;
+    private final String retryTopic;
+    private final String replayGroup;
+    private final Counter replayed;
+
+    /**
+     * @param deadLetterTopic DLT del servicio
+     * @param retryTopic primer tema de reintento, donde se re-inyectan los eventos
+     * @param replayGroup grupo de consumo que guarda el avance del replay
+     * @param metricName contador de eventos re-inyectados
+     */
+    public DeadLetterReplayer(KafkaTemplate<Object, Object> retryKafkaTemplate, String bootstrapServers,
+            String deadLetterTopic, String retryTopic, String replayGroup,
+            MeterRegistry meterRegistry, String metricName) {
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.bootstrapServers = bootstrapServers;
+        this.deadLetterTopic = deadLetterTopic;
+        this.retryTopic = retryTopic;
+        this.replayGroup = replayGroup;
+        this.replayed = meterRegistry.counter(metricName);
+    }
+
+    /**
+     * Re-inyecta hasta {@code maxRecords} eventos pendientes del DLT.
+     *
+     * @return cuántos eventos se re-inyectaron
+     */
+    public synchronized int replay(int maxRecords) {
+        if (maxRecords <= 0) {
+            return 0;
+        }
+        try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerConfig(maxRecords))) {
+            List<TopicPartition> partitions = partitionsOf(consumer);
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+            // Solo lo que había al empezar: un evento que vuelve a fallar durante el replay no se re-inyecta en bucle
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            while (sends.size() < maxRecords) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    if (sends.size() == maxRecords) {
+                        break;
+                    }
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= endOffsets.get(partition)) {
+                        consumer.pause(List.of(partition));
+                        continue;
+                    }
+                    sends.add(retryKafkaTemplate.send(toRetry(record)));
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+            if (sends.isEmpty()) {
+                return 0;
+            }
+
+            awaitSends(sends);
+            consumer.commitSync(offsets);
+            replayed.increment(sends.size());
+            logger.info("Re-inyectados {} eventos del DLT {} en {}", sends.size(), deadLetterTopic, retryTopic);
+            return sends.size();
+        }
+    }
+
+    private Map<String, Object> consumerConfig(int maxRecords) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroup);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(maxRecords, 500));
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return config;
+    }
+
+    private List<TopicPartition> partitionsOf(Consumer<?, ?> consumer) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        List<PartitionInfo> infos = consumer.partitionsFor(deadLetterTopic);
+        if (infos != null) {
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+        }
+        return partitions;
+    }
+
+    private ProducerRecord<Object, Object> toRetry(ConsumerRecord<byte[], byte[]> record) {
+        ProducerRecord<Object, Object> retry = new ProducerRecord<>(retryTopic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX) && !header.key().startsWith(RETRY_HEADER_PREFIX)) {
+                retry.headers().add(header);
+            }
+        }
+        return retry;
+    }
+
+    private static void awaitSends(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay del DLT interrumpido", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Sin commit: la próxima llamada vuelve a leer estos eventos
+            throw new IllegalStateException("No se pudo re-inyectar el DLT: " + e.getMessage(), e);
+        }
+    }
+}
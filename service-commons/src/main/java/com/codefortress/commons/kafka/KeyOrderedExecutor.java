@@ -0,0 +1,76 @@
+package com.codefortress.commons.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta tareas en paralelo sin desordenar las que comparten clave: cada una empieza cuando
+ * termina (bien o mal) la anterior de su clave, y las de claves distintas no se esperan entre sí.
+ * Un registro lento solo retrasa a los de su misma clave, no a toda la partición.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    // Última tarea de cada clave; se quita al terminar si no se encoló otra detrás
+    private final ConcurrentHashMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(String threadPrefix, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads,
+                task -> new Thread(task, threadPrefix + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Ejecuta {@code task} en el pool detrás de las tareas pendientes de {@code key}.
+     *
+     * @return se completa al terminar la tarea, o con su excepción
+     */
+    public CompletableFuture<Void> execute(Object key, Runnable task) {
+        return submit(key, () -> {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Como {@link #execute}, para tareas asíncronas: la siguiente de la clave espera a que se
+     * complete lo que devuelve {@code task}.
+     */
+    public CompletableFuture<Void> submit(Object key, Supplier<? extends CompletionStage<?>> task) {
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> {
+            CompletableFuture<Void> previous = tail != null ? tail : CompletableFuture.completedFuture(null);
+            // La tarea siempre en el pool: nunca en el hilo que encola ni dentro del compute
+            return previous.handle((ignored, error) -> (Void) null)
+                    .thenComposeAsync(ignored -> task.get().thenApply(result -> (Void) null), executor);
+        });
+        next.whenComplete((ignored, error) -> tails.remove(key, next));
+        return next;
+    }
+
+    /** Claves con tareas en curso o esperando. */
+    public int pendingKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Deja terminar lo que está en curso y para el pool.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
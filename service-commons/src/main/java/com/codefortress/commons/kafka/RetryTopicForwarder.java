@@ -0,0 +1,229 @@
+package com.codefortress.commons.kafka;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+
+/**
+ * Pasa al primer tema de reintento (o al DLT) un registro que falló en un listener con acks
+ * asíncronos, y lo confirma cuando Kafka acepta el envío.
+ *
+ * El registro sale con su valor y sus cabeceras, más las que pone
+ * {@code DeadLetterPublishingRecoverer}: origen (tema, partición, offset, grupo) y excepción. En
+ * el tema de reintento lleva además las de {@code @RetryableTopic} (intento y momento de la
+ * siguiente ejecución), así que ese nivel respeta su backoff como si hubiera llegado por el
+ * camino normal.
+ *
+ * Con acks asíncronos un registro sin confirmar frena el commit de toda su partición, así que un
+ * envío fallido se repite con backoff exponencial, hasta {@code maxDelay} entre intentos, en un
+ * hilo propio: el del consumidor sigue con el resto del poll. Pasado {@code giveUpAfter} sin
+ * publicar en el tema de reintento, el registro va al DLT con el mismo plazo; si tampoco sale, el
+ * futuro falla sin confirmar y el listener decide (parar el contenedor para que se reentregue).
+ */
+public class RetryTopicForwarder implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryTopicForwarder.class);
+
+    // El registro llega al primer nivel de reintento en su segundo intento
+    private static final int FIRST_RETRY_ATTEMPT = 2;
+
+    private final KafkaTemplate<Object, Object> retryKafkaTemplate;
+    private final String consumerGroup;
+    private final String retryTopic;
+    private final long retryTopicDelayMs;
+    private final String deadLetterTopic;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final long giveUpAfterMs;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * @param consumerGroup grupo del listener que falló
+     * @param retryTopicDelay backoff del primer nivel de reintento ({@code @RetryableTopic})
+     * @param initialDelay espera antes de repetir un envío fallido; se dobla en cada intento
+     * @param maxDelay espera máxima entre envíos
+     * @param giveUpAfter tiempo reintentando un destino antes de pasar al DLT o darse por vencido
+     */
+    public RetryTopicForwarder(KafkaTemplate<Object, Object> retryKafkaTemplate, String consumerGroup,
+            String retryTopic, Duration retryTopicDelay, String deadLetterTopic,
+            Duration initialDelay, Duration maxDelay, Duration giveUpAfter) {
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.consumerGroup = consumerGroup;
+        this.retryTopic = retryTopic;
+        this.retryTopicDelayMs = retryTopicDelay.toMillis();
+        this.deadLetterTopic = deadLetterTopic;
+        this.initialDelayMs = Math.max(1, initialDelay.toMillis());
+        this.maxDelayMs = Math.max(initialDelayMs, maxDelay.toMillis());
+        this.giveUpAfterMs = giveUpAfter.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "retry-topic-forwarder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Publica el registro en el primer tema de reintento y lo confirma con {@code ack}.
+     *
+     * @return se completa cuando el envío salió (aquí o en el DLT) y el registro quedó confirmado;
+     *         falla si ninguno de los dos salió a tiempo, con el registro sin confirmar
+     */
+    public CompletableFuture<Void> toRetryTopic(ConsumerRecord<?, ?> record, Throwable error, Acknowledgment ack) {
+        return forward(record, retryTopic, error, ack);
+    }
+
+    /**
+     * Publica el registro en el DLT (eventos que reintentar no arregla) y lo confirma con {@code ack}.
+     */
+    public CompletableFuture<Void> toDeadLetterTopic(ConsumerRecord<?, ?> record, Throwable error, Acknowledgment ack) {
+        return forward(record, deadLetterTopic, error, ack);
+    }
+
+    /** Registros esperando a que su envío salga. */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Para el hilo de reintentos. Lo que siga pendiente queda sin confirmar y se reentrega.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private CompletableFuture<Void> forward(ConsumerRecord<?, ?> record, String topic, Throwable error,
+            Acknowledgment ack) {
+        CompletableFuture<Void> forwarded = new CompletableFuture<>();
+        pending.incrementAndGet();
+        forwarded.whenComplete((ignored, forwardError) -> pending.decrementAndGet());
+        send(record, topic, error, ack, initialDelayMs, System.currentTimeMillis() + giveUpAfterMs, forwarded);
+        return forwarded;
+    }
+
+    private void send(ConsumerRecord<?, ?> record, String topic, Throwable error, Acknowledgment ack, long delayMs,
+            long deadline, CompletableFuture<Void> forwarded) {
+        CompletableFuture<?> sending;
+        try {
+            // Cabeceras nuevas en cada intento: el productor deja las enviadas en solo lectura
+            sending = retryKafkaTemplate.send(new ProducerRecord<>(topic, null, record.key(), record.value(),
+                    headers(record, topic, error)));
+        } catch (RuntimeException ex) {
+            sending = CompletableFuture.failedFuture(ex);
+        }
+        sending.whenComplete((result, sendError) -> {
+            if (sendError == null) {
+                ack.acknowledge();
+                forwarded.complete(null);
+                return;
+            }
+            if (System.currentTimeMillis() + delayMs > deadline) {
+                giveUp(record, topic, error, ack, sendError, forwarded);
+                return;
+            }
+            logger.warn("No se pudo pasar el registro {}-{}@{} a {}, se reintenta en {} ms: {}", record.topic(),
+                    record.partition(), record.offset(), topic, delayMs, sendError.getMessage());
+            schedule(record, delayMs, () -> send(record, topic, error, ack, Math.min(delayMs * 2, maxDelayMs),
+                    deadline, forwarded));
+        });
+    }
+
+    private void giveUp(ConsumerRecord<?, ?> record, String topic, Throwable error, Acknowledgment ack,
+            Throwable sendError, CompletableFuture<Void> forwarded) {
+        if (topic.equals(retryTopic)) {
+            logger.error("El registro {}-{}@{} no salió a {} en {} ms, se pasa a {}", record.topic(), record.partition(),
+                    record.offset(), topic, giveUpAfterMs, deadLetterTopic, sendError);
+            // En el hilo propio, no en el de red del productor que completó el envío
+            schedule(record, 0, () -> send(record, deadLetterTopic, error, ack, initialDelayMs,
+                    System.currentTimeMillis() + giveUpAfterMs, forwarded));
+            return;
+        }
+        logger.error("El registro {}-{}@{} no salió a {} en {} ms, queda sin confirmar", record.topic(),
+                record.partition(), record.offset(), topic, giveUpAfterMs, sendError);
+        forwarded.completeExceptionally(new KafkaException("No se pudo publicar el registro en " + topic, sendError));
+    }
+
+    private void schedule(ConsumerRecord<?, ?> record, long delayMs, Runnable attempt) {
+        try {
+            scheduler.schedule(attempt, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Cerrando: el registro se queda sin confirmar y se reentrega al volver
+            logger.warn("Forwarder cerrado, el registro {}-{}@{} queda sin confirmar", record.topic(),
+                    record.partition(), record.offset());
+        }
+    }
+
+    private Headers headers(ConsumerRecord<?, ?> record, String topic, Throwable error) {
+        Headers headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            // Las de la excepción y el intento anteriores se sustituyen
+            String key = header.key();
+            if (!key.equals(KafkaHeaders.EXCEPTION_FQCN) && !key.equals(KafkaHeaders.EXCEPTION_CAUSE_FQCN)
+                    && !key.equals(KafkaHeaders.EXCEPTION_MESSAGE) && !key.equals(KafkaHeaders.EXCEPTION_STACKTRACE)
+                    && !key.equals(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS)
+                    && !key.equals(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP)) {
+                headers.add(header);
+            }
+        }
+        // El origen es el del primer fallo, como en DeadLetterPublishingRecoverer
+        if (headers.lastHeader(KafkaHeaders.ORIGINAL_TOPIC) == null) {
+            headers.add(KafkaHeaders.ORIGINAL_TOPIC, bytes(record.topic()));
+            headers.add(KafkaHeaders.ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array());
+            headers.add(KafkaHeaders.ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+            headers.add(KafkaHeaders.ORIGINAL_TIMESTAMP, ByteBuffer.allocate(Long.BYTES).putLong(record.timestamp()).array());
+            headers.add(KafkaHeaders.ORIGINAL_TIMESTAMP_TYPE, bytes(record.timestampType().toString()));
+            headers.add(KafkaHeaders.ORIGINAL_CONSUMER_GROUP, bytes(consumerGroup));
+        }
+        headers.add(KafkaHeaders.EXCEPTION_FQCN, bytes(error.getClass().getName()));
+        if (error.getCause() != null) {
+            headers.add(KafkaHeaders.EXCEPTION_CAUSE_FQCN, bytes(error.getCause().getClass().getName()));
+        }
+        headers.add(KafkaHeaders.EXCEPTION_MESSAGE, bytes(String.valueOf(error.getMessage())));
+        headers.add(KafkaHeaders.EXCEPTION_STACKTRACE, bytes(stackTrace(error)));
+        if (topic.equals(retryTopic)) {
+            // Mismo formato que DeadLetterPublishingRecovererFactory
+            headers.add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS,
+                    ByteBuffer.allocate(Integer.BYTES).putInt(FIRST_RETRY_ATTEMPT).array());
+            if (headers.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP) == null) {
+                headers.add(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP,
+                        BigInteger.valueOf(record.timestamp()).toByteArray());
+            }
+            headers.add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+                    BigInteger.valueOf(System.currentTimeMillis() + retryTopicDelayMs).toByteArray());
+        }
+        return headers;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String stackTrace(Throwable error) {
+        StringWriter trace = new StringWriter();
+        error.printStackTrace(new PrintWriter(trace, true));
+        return trace.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.codefortress.commons.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Limita los logs del camino caliente (uno por petición o por evento) a {@code maxPerSecond}
+ * líneas por segundo en todo el servicio. Se configura en logback-spring.xml.
+ * <p>
+ * El muestreo se decide en el guard: {@code logger.isInfoEnabled(HOT_PATH)} devuelve false
+ * cuando se agotó el cupo del segundo, así que tampoco se construyen los parámetros.
+ * Las llamadas de log con el marker no vuelven a pasar por el cupo.
+ */
+public class HotPathLogFilter extends TurboFilter {
+
+    public static final Marker HOT_PATH = MarkerFactory.getMarker("HOT_PATH");
+
+    // Negativo: sin límite (todas las líneas, como antes)
+    private int maxPerSecond = -1;
+
+    private volatile long currentSecond;
+    private final AtomicInteger usedInSecond = new AtomicInteger();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format != null || maxPerSecond < 0 || marker == null || !marker.contains(HOT_PATH)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            // El nivel ya lo descarta: no gasta cupo
+            return FilterReply.NEUTRAL;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        if (second != currentSecond) {
+            // Carrera benigna al cambiar de segundo: como mucho pasan unas líneas de más
+            currentSecond = second;
+            usedInSecond.set(0);
+        }
+        return usedInSecond.incrementAndGet() <= maxPerSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+}
@@ -0,0 +1,103 @@
+package com.codefortress.commons.sharding;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shard de inventory-service al que va cada producto. Las instancias de inventario publican en
+ * Eureka cuántos shards hay y cuántas particiones tiene order-created; con esos dos números
+ * {@link ShardRing} da el dueño de cada producto, y {@link ShardServiceInstanceListSupplier} elige
+ * la instancia por la cabecera {@link #HEADER}.
+ *
+ * Sin metadata de shards (un solo inventario o aún sin registro de Eureka) devuelve null y la
+ * llamada va a cualquier instancia, como antes.
+ *
+ * No está en el paquete que escanea cada servicio: la registra el {@code @Import} junto a su
+ * {@code @LoadBalancerClient}.
+ */
+@Component
+public class InventoryShards {
+
+    public static final String SERVICE = "inventory-service";
+    public static final String HEADER = "X-Inventory-Shard";
+
+    // Metadata que cada instancia de inventory-service publica en Eureka
+    public static final String SHARD_METADATA = "shard";
+    public static final String SHARDS_METADATA = "shards";
+    public static final String PARTITIONS_METADATA = "partitions";
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryShards.class);
+
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private volatile ShardRing ring;
+
+    public InventoryShards(ObjectProvider<DiscoveryClient> discoveryClient) {
+        this.discoveryClient = discoveryClient;
+        refresh();
+    }
+
+    public static InventoryShards unsharded() {
+        return new InventoryShards(null);
+    }
+
+    /** Shard dueño del producto, o null si el inventario no está repartido. */
+    public String shardOf(Integer productId) {
+        ShardRing current = ring;
+        return current == null || productId == null ? null : String.valueOf(current.shardOf(productId));
+    }
+
+    /** Shard que guarda la reserva: inventory-service lo pone delante del id ({@code "<shard>:<uuid>"}). */
+    public String shardOfReservation(String reservationId) {
+        int separator = reservationId == null ? -1 : reservationId.indexOf(':');
+        return ring == null || separator < 0 ? null : reservationId.substring(0, separator);
+    }
+
+    /**
+     * Relee la metadata con cada refresco del registro de Eureka (cada 30s por defecto).
+     */
+    @EventListener(HeartbeatEvent.class)
+    public void refresh() {
+        DiscoveryClient client = discoveryClient == null ? null : discoveryClient.getIfAvailable();
+        if (client == null) {
+            return;
+        }
+        ShardRing updated = ringOf(client.getInstances(SERVICE));
+        ShardRing current = ring;
+        if (!sameLayout(current, updated)) {
+            logger.info("Reparto de inventario: {} shards sobre {} particiones",
+                    updated == null ? 1 : updated.shards(), updated == null ? 0 : updated.partitions());
+            ring = updated;
+        }
+    }
+
+    static ShardRing ringOf(List<ServiceInstance> instances) {
+        int shards = 1;
+        int partitions = 0;
+        for (ServiceInstance instance : instances) {
+            Map<String, String> metadata = instance.getMetadata();
+            try {
+                shards = Math.max(shards, Integer.parseInt(metadata.getOrDefault(SHARDS_METADATA, "1")));
+                partitions = Math.max(partitions, Integer.parseInt(metadata.getOrDefault(PARTITIONS_METADATA, "0")));
+            } catch (NumberFormatException ex) {
+                logger.warn("Metadata de shard inválida en {}: {}", instance.getInstanceId(), metadata);
+            }
+        }
+        return shards > 1 && partitions > 0 ? new ShardRing(shards, partitions) : null;
+    }
+
+    private static boolean sameLayout(ShardRing a, ShardRing b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.shards() == b.shards() && a.partitions() == b.partitions();
+    }
+}
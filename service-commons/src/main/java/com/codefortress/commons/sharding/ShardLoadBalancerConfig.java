@@ -0,0 +1,22 @@
+package com.codefortress.commons.sharding;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Balanceador de inventory-service (rutas {@code lb://} del gateway, Feign y WebClient de
+ * order-service): las instancias de Eureka (con caché) filtradas por shard. Sin
+ * {@code @Configuration}: solo la carga {@code @LoadBalancerClient} en el contexto hijo de ese
+ * servicio.
+ */
+public class ShardLoadBalancerConfig {
+
+    @Bean
+    public ServiceInstanceListSupplier shardServiceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return new ShardServiceInstanceListSupplier(ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withCaching()
+                .build(context));
+    }
+}
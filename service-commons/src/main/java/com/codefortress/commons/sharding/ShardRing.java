@@ -0,0 +1,113 @@
+package com.codefortress.commons.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reparto de productos entre los shards de inventory-service.
+ *
+ * Un producto cae en la partición de order-created que le da el particionador por defecto de
+ * Kafka (murmur2 de la clave, que es el productId), y cada partición pertenece al shard que la
+ * sigue en un anillo de hashing consistente con {@link #VIRTUAL_NODES} puntos por shard. Así las
+ * lecturas, las reservas y los eventos de un producto llegan al mismo shard, y al añadir un shard
+ * solo cambian de dueño las particiones que caen en sus tramos del anillo.
+ *
+ * La usan inventory-service, order-service y el gateway: los tres tienen que repartir igual.
+ */
+public final class ShardRing {
+
+    static final int VIRTUAL_NODES = 64;
+
+    private final int shards;
+    private final int partitions;
+    private final int[] ownerByPartition;
+
+    public ShardRing(int shards, int partitions) {
+        if (shards < 1 || partitions < 1) {
+            throw new IllegalArgumentException("Shards y particiones tienen que ser al menos 1: " + shards + "/" + partitions);
+        }
+        this.shards = shards;
+        this.partitions = partitions;
+
+        // Cada punto: posición en el anillo en los 32 bits altos, shard en los bajos
+        long[] ring = new long[shards * VIRTUAL_NODES];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring[shard * VIRTUAL_NODES + node] = ((long) position("shard-" + shard + "-" + node) << 32) | shard;
+            }
+        }
+        Arrays.sort(ring);
+
+        this.ownerByPartition = new int[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            long key = (long) position("partition-" + partition) << 32;
+            int index = Arrays.binarySearch(ring, key);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            ownerByPartition[partition] = (int) ring[index % ring.length];
+        }
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    /** Partición de order-created en la que Kafka deja los eventos del producto. */
+    public int partitionOf(int productId) {
+        return position(String.valueOf(productId)) % partitions;
+    }
+
+    public int shardOfPartition(int partition) {
+        return ownerByPartition[partition];
+    }
+
+    public int shardOf(int productId) {
+        return ownerByPartition[partitionOf(productId)];
+    }
+
+    private static int position(String key) {
+        return murmur2(key.getBytes(StandardCharsets.UTF_8)) & 0x7fffffff;
+    }
+
+    /** El murmur2 del particionador de Kafka ({@code Utils.murmur2}). */
+    static int murmur2(byte[] data) {
+        int length = data.length;
+        int m = 0x5bd1e995;
+        int r = 24;
+        int h = 0x9747b28c ^ length;
+
+        int length4 = length / 4;
+        for (int i = 0; i < length4; i++) {
+            int i4 = i * 4;
+            int k = (data[i4] & 0xff) + ((data[i4 + 1] & 0xff) << 8) + ((data[i4 + 2] & 0xff) << 16)
+                    + ((data[i4 + 3] & 0xff) << 24);
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h *= m;
+            h ^= k;
+        }
+
+        int tail = length & ~3;
+        switch (length % 4) {
+            case 3:
+                h ^= (data[tail + 2] & 0xff) << 16;
+            case 2:
+                h ^= (data[tail + 1] & 0xff) << 8;
+            case 1:
+                h ^= data[tail] & 0xff;
+                h *= m;
+            default:
+        }
+
+        h ^= h >>> 13;
+        h *= m;
+        h ^= h >>> 15;
+        return h;
+    }
+}
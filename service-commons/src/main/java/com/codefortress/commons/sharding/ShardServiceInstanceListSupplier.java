@@ -0,0 +1,47 @@
+package com.codefortress.commons.sharding;
+
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Deja en la lista del balanceador solo las instancias del shard de la cabecera
+ * {@link InventoryShards#HEADER}. Sin cabecera no filtra. Si el shard no tiene instancias la lista
+ * queda vacía: otra instancia no tiene el stock de esos productos.
+ */
+public class ShardServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    public ShardServiceInstanceListSupplier(ServiceInstanceListSupplier delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get();
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        String shard = shardOf(request);
+        if (shard == null) {
+            return delegate.get(request);
+        }
+        return delegate.get(request).map(instances -> instances.stream()
+                .filter(instance -> shard.equals(instance.getMetadata().get(InventoryShards.SHARD_METADATA)))
+                .toList());
+    }
+
+    private static String shardOf(Request request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null && context.getClientRequest().getHeaders() != null) {
+            return context.getClientRequest().getHeaders().getFirst(InventoryShards.HEADER);
+        }
+        return null;
+    }
+}
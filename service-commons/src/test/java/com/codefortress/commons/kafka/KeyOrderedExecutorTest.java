@@ -0,0 +1,121 @@
+package com.codefortress.commons.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test-", 8);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void tasksOfTheSameKeyRunInOrderOneAtATime() throws Exception {
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            results.add(executor.execute("producto-1", () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                seen.add(n);
+                running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(overlaps).hasValue(0);
+        assertThat(seen).hasSize(200).isSorted();
+        assertThat(executor.pendingKeys()).isZero();
+    }
+
+    @Test
+    void aSlowKeyDoesNotHoldBackTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = executor.execute(1, () -> await(release));
+        CompletableFuture<Void> behindSlow = executor.execute(1, () -> { });
+        CompletableFuture<Void> other = executor.execute(2, () -> { });
+
+        other.get(5, TimeUnit.SECONDS);
+        assertThat(slow).isNotDone();
+        assertThat(behindSlow).isNotDone();
+        assertThat(executor.pendingKeys()).isEqualTo(1);
+
+        release.countDown();
+        behindSlow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tasksNeverRunOnTheSubmittingThread() throws Exception {
+        Thread submitter = Thread.currentThread();
+        AtomicInteger onSubmitter = new AtomicInteger();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            results.add(executor.execute(i % 4, () -> {
+                if (Thread.currentThread() == submitter) {
+                    onSubmitter.incrementAndGet();
+                }
+            }));
+            if (i % 100 == 0) {
+                // Deja que las colas se vacíen para que la siguiente encuentre la anterior terminada
+                results.get(i).get(5, TimeUnit.SECONDS);
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(onSubmitter).hasValue(0);
+    }
+
+    @Test
+    void aFailureCompletesItsFutureAndTheKeyKeepsGoing() throws Exception {
+        CompletableFuture<Void> failed = executor.execute("k", () -> {
+            throw new IllegalStateException("falla");
+        });
+        CompletableFuture<Void> next = executor.execute("k", () -> { });
+
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("falla");
+        next.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void asynchronousTasksHoldTheKeyUntilTheyComplete() throws Exception {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        CompletableFuture<Void> first = executor.submit("k", () -> sent);
+        CompletableFuture<Void> second = executor.execute("k", () -> { });
+
+        Thread.sleep(50);
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+
+        sent.complete(null);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.codefortress.commons.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+
+class RetryTopicForwarderTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<Object, Object> template = mock(KafkaTemplate.class);
+    private final Acknowledgment ack = mock(Acknowledgment.class);
+    private final RetryTopicForwarder forwarder =
+            new RetryTopicForwarder(template, "inventory-group", "order-created-retry-0", Duration.ofSeconds(1),
+                    "order-created-dlt", Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMinutes(1));
+    // Se rinde con cada destino a los 100 ms
+    private final RetryTopicForwarder impatient =
+            new RetryTopicForwarder(template, "inventory-group", "order-created-retry-0", Duration.ofSeconds(1),
+                    "order-created-dlt", Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100));
+    private final ConsumerRecord<Object, Object> record = record();
+
+    @AfterEach
+    void close() {
+        forwarder.close();
+        impatient.close();
+    }
+
+    @Test
+    void aFailedSendIsRetriedUntilItGoesThroughAndOnlyThenAcked() throws Exception {
+        CompletableFuture<SendResult<Object, Object>> failed = CompletableFuture.failedFuture(new KafkaException("sin broker"));
+        when(template.send(any(ProducerRecord.class)))
+                .thenReturn(failed)
+                .thenThrow(new KafkaException("timeout de metadata"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        forwarder.toRetryTopic(record, new IllegalStateException("smtp caído"), ack).get(5, TimeUnit.SECONDS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template, times(3)).send(sent.capture());
+        assertThat(sent.getAllValues()).allSatisfy(record -> {
+            assertThat(record.topic()).isEqualTo("order-created-retry-0");
+            assertThat(record.key()).isEqualTo("1");
+        });
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void theRecordStaysUnackedWhileTheSendKeepsFailing() throws Exception {
+        CompletableFuture<SendResult<Object, Object>> failed = CompletableFuture.failedFuture(new KafkaException("sin broker"));
+        when(template.send(any(ProducerRecord.class))).thenReturn(failed);
+
+        CompletableFuture<Void> forwarded = forwarder.toDeadLetterTopic(record, new IllegalArgumentException("sin productId"), ack);
+        Thread.sleep(200);
+
+        assertThat(forwarded).isNotDone();
+        assertThat(forwarder.pending()).isEqualTo(1);
+        verify(ack, never()).acknowledge();
+
+        // Vuelve el broker: el siguiente intento sale y confirma
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        forwarded.get(5, TimeUnit.SECONDS);
+        verify(ack).acknowledge();
+        assertThat(forwarder.pending()).isZero();
+    }
+
+    @Test
+    void aRetryTopicThatKeepsRejectingTheRecordEscalatesToTheDeadLetterTopic() throws Exception {
+        CompletableFuture<SendResult<Object, Object>> failed = CompletableFuture.failedFuture(new KafkaException("sin líder"));
+        when(template.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<?, ?> sent = invocation.getArgument(0);
+            return sent.topic().equals("order-created-dlt") ? CompletableFuture.completedFuture(null) : failed;
+        });
+
+        impatient.toRetryTopic(record, new IllegalStateException("smtp caído"), ack).get(5, TimeUnit.SECONDS);
+
+        verify(template).send(argThat((ProducerRecord<Object, Object> sent) -> sent.topic().equals("order-created-dlt")));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void whenNeitherTopicTakesTheRecordTheForwardFailsUnacked() {
+        CompletableFuture<SendResult<Object, Object>> failed = CompletableFuture.failedFuture(new KafkaException("sin broker"));
+        when(template.send(any(ProducerRecord.class))).thenReturn(failed);
+
+        CompletableFuture<Void> forwarded = impatient.toRetryTopic(record, new IllegalStateException("smtp caído"), ack);
+
+        assertThatThrownBy(() -> forwarded.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(KafkaException.class);
+        verify(ack, never()).acknowledge();
+        assertThat(impatient.pending()).isZero();
+    }
+
+    @Test
+    void theRecordKeepsItsHeadersAndCarriesTheOriginAndRetryMetadata() throws Exception {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        long before = System.currentTimeMillis();
+
+        forwarder.toRetryTopic(record, new IllegalStateException("smtp caído", new KafkaException("timeout")), ack)
+                .get(5, TimeUnit.SECONDS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template).send(sent.capture());
+        ProducerRecord<Object, Object> forwarded = sent.getValue();
+        assertThat(forwarded.value()).isEqualTo("evento");
+        assertThat(header(forwarded, "traceparent")).isEqualTo("00-abc-01");
+        assertThat(header(forwarded, KafkaHeaders.ORIGINAL_TOPIC)).isEqualTo("order-created");
+        assertThat(ByteBuffer.wrap(forwarded.headers().lastHeader(KafkaHeaders.ORIGINAL_PARTITION).value()).getInt()).isEqualTo(3);
+        assertThat(ByteBuffer.wrap(forwarded.headers().lastHeader(KafkaHeaders.ORIGINAL_OFFSET).value()).getLong()).isEqualTo(42L);
+        assertThat(header(forwarded, KafkaHeaders.ORIGINAL_CONSUMER_GROUP)).isEqualTo("inventory-group");
+        assertThat(header(forwarded, KafkaHeaders.EXCEPTION_FQCN)).isEqualTo(IllegalStateException.class.getName());
+        assertThat(header(forwarded, KafkaHeaders.EXCEPTION_CAUSE_FQCN)).isEqualTo(KafkaException.class.getName());
+        assertThat(header(forwarded, KafkaHeaders.EXCEPTION_MESSAGE)).isEqualTo("smtp caído");
+        assertThat(header(forwarded, KafkaHeaders.EXCEPTION_STACKTRACE)).contains("RetryTopicForwarderTest");
+        assertThat(ByteBuffer.wrap(forwarded.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS).value()).getInt())
+                .isEqualTo(2);
+        assertThat(new BigInteger(forwarded.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP).value()))
+                .isEqualTo(BigInteger.valueOf(1_000L));
+        // El primer nivel espera su backoff antes de procesarlo
+        assertThat(new BigInteger(forwarded.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP).value())
+                .longValue()).isGreaterThanOrEqualTo(before + 1_000);
+    }
+
+    @Test
+    void theDeadLetterTopicGetsNoRetryHeaders() throws Exception {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        forwarder.toDeadLetterTopic(record, new IllegalArgumentException("sin productId"), ack).get(5, TimeUnit.SECONDS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template).send(sent.capture());
+        assertThat(sent.getValue().topic()).isEqualTo("order-created-dlt");
+        assertThat(header(sent.getValue(), KafkaHeaders.EXCEPTION_FQCN)).isEqualTo(IllegalArgumentException.class.getName());
+        assertThat(sent.getValue().headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS)).isNull();
+    }
+
+    private static ConsumerRecord<Object, Object> record() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("traceparent", "00-abc-01".getBytes(StandardCharsets.UTF_8));
+        return new ConsumerRecord<>("order-created", 3, 42L, 1_000L, TimestampType.CREATE_TIME, 0, 0, "1", "evento",
+                headers, Optional.empty());
+    }
+
+    private static String header(ProducerRecord<Object, Object> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
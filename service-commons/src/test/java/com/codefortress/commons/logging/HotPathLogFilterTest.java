@@ -0,0 +1,54 @@
+package com.codefortress.commons.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+class HotPathLogFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final HotPathLogFilter filter = new HotPathLogFilter();
+    private final Logger logger = context.getLogger("hot");
+
+    @BeforeEach
+    void setUp() {
+        filter.setMaxPerSecond(2);
+        filter.start();
+        context.addTurboFilter(filter);
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+    }
+
+    @Test
+    void limitsMarkedGuardsPerSecond() {
+        assertThat(logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)).isTrue();
+        assertThat(logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)).isTrue();
+        assertThat(logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)).isFalse();
+        // Fuera del camino caliente no hay cupo
+        assertThat(logger.isInfoEnabled()).isTrue();
+        assertThat(logger.isWarnEnabled()).isTrue();
+    }
+
+    @Test
+    void disabledLevelDoesNotSpendBudget() {
+        context.getLogger("quiet").setLevel(Level.WARN);
+
+        assertThat(context.getLogger("quiet").isInfoEnabled(HotPathLogFilter.HOT_PATH)).isFalse();
+        assertThat(context.getLogger("quiet").isInfoEnabled(HotPathLogFilter.HOT_PATH)).isFalse();
+        assertThat(logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)).isTrue();
+        assertThat(logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)).isTrue();
+    }
+
+    @Test
+    void negativeLimitLetsEverythingThrough() {
+        filter.setMaxPerSecond(-1);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(logger.isInfoEnabled(HotPathLogFilter.HOT_PATH)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.codefortress.commons.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+class InventoryShardsTest {
+
+    private final ServiceInstance shard0 = instance("a", Map.of("shard", "0", "shards", "2", "partitions", "12"));
+    private final ServiceInstance shard1 = instance("b", Map.of("shard", "1", "shards", "2", "partitions", "12"));
+
+    @Test
+    void productsGoToTheShardThatOwnsTheirPartition() {
+        InventoryShards shards = shardsOver(List.of(shard0, shard1));
+        ShardRing ring = new ShardRing(2, 12);
+
+        for (int productId = 1; productId <= 100; productId++) {
+            assertThat(shards.shardOf(productId)).isEqualTo(String.valueOf(ring.shardOf(productId)));
+        }
+        assertThat(shards.shardOfReservation("1:3f2a")).isEqualTo("1");
+    }
+
+    @Test
+    void withoutShardMetadataCallsAreNotRouted() {
+        InventoryShards shards = shardsOver(List.of(instance("a", Map.of())));
+
+        assertThat(shards.shardOf(1)).isNull();
+        assertThat(shards.shardOfReservation("3f2a-11")).isNull();
+        assertThat(InventoryShards.unsharded().shardOf(1)).isNull();
+    }
+
+    @Test
+    void theLoadBalancerOnlyOffersInstancesOfTheRequestedShard() {
+        ShardServiceInstanceListSupplier supplier = new ShardServiceInstanceListSupplier(
+                ServiceInstanceListSuppliers.from(InventoryShards.SERVICE, shard0, shard1));
+
+        assertThat(supplier.get(request("1")).blockFirst()).containsExactly(shard1);
+        assertThat(supplier.get(request("2")).blockFirst()).isEmpty();
+        assertThat(supplier.get(request(null)).blockFirst()).containsExactly(shard0, shard1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static InventoryShards shardsOver(List<ServiceInstance> instances) {
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances(InventoryShards.SERVICE)).thenReturn(instances);
+        ObjectProvider<DiscoveryClient> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(discoveryClient);
+        return new InventoryShards(provider);
+    }
+
+    private static ServiceInstance instance(String id, Map<String, String> metadata) {
+        return new DefaultServiceInstance(id, InventoryShards.SERVICE, id, 8080, false, metadata);
+    }
+
+    private static DefaultRequest<RequestDataContext> request(String shard) {
+        HttpHeaders headers = new HttpHeaders();
+        if (shard != null) {
+            headers.set(InventoryShards.HEADER, shard);
+        }
+        return new DefaultRequest<>(new RequestDataContext(new RequestData(HttpMethod.GET,
+                URI.create("http://inventory-service/api/inventory/1"), headers, null, Map.of())));
+    }
+}
@@ -0,0 +1,47 @@
+package com.codefortress.commons.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+class ShardRingTest {
+
+    @Test
+    void productsFallInTheSamePartitionAsKafkaPutsTheirEvents() {
+        ShardRing ring = new ShardRing(3, 12);
+        for (int productId = 0; productId < 10_000; productId++) {
+            byte[] key = String.valueOf(productId).getBytes(StandardCharsets.UTF_8);
+            assertThat(ShardRing.murmur2(key)).isEqualTo(Utils.murmur2(key));
+            assertThat(ring.partitionOf(productId)).isEqualTo(Utils.toPositive(Utils.murmur2(key)) % 12);
+        }
+    }
+
+    @Test
+    void everyShardOwnsPartitionsAndEveryPartitionHasAnOwner() {
+        ShardRing ring = new ShardRing(3, 48);
+        boolean[] seen = new boolean[3];
+        for (int partition = 0; partition < 48; partition++) {
+            int shard = ring.shardOfPartition(partition);
+            assertThat(shard).isBetween(0, 2);
+            seen[shard] = true;
+        }
+        assertThat(seen).containsOnly(true);
+    }
+
+    @Test
+    void addingAShardOnlyMovesPartitionsToTheNewShard() {
+        ShardRing before = new ShardRing(3, 48);
+        ShardRing after = new ShardRing(4, 48);
+        int moved = 0;
+        for (int partition = 0; partition < 48; partition++) {
+            if (before.shardOfPartition(partition) != after.shardOfPartition(partition)) {
+                assertThat(after.shardOfPartition(partition)).isEqualTo(3);
+                moved++;
+            }
+        }
+        assertThat(moved).isPositive().isLessThan(48);
+    }
+}